@@ -0,0 +1,61 @@
+package com.asset;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.*;
+
+// NOTE: Loading every sprite frame, one PNG per frame against the memory-mapped atlas
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class SpriteAtlasBenchmark {
+    private Path atlasFile;
+    private List<String> framePaths;
+
+    @Setup
+    public void setup() throws IOException {
+        // The atlas inside the jar cannot be mapped, copy it out once
+        atlasFile = Files.createTempFile("sprites", ".atlas");
+        try (InputStream in = SpriteAtlasBenchmark.class.getResourceAsStream(SpriteAtlas.DEFAULT_PATH)) {
+            Files.copy(in, atlasFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+        SpriteAtlas atlas = SpriteAtlas.open(atlasFile);
+        framePaths = new ArrayList<>();
+        for (int i = 0; i < atlas.getFrameCount(); i++) {
+            framePaths.add(atlas.getFrameName(i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(atlasFile);
+    }
+
+    @Benchmark
+    public int decodePngFrames() throws IOException {
+        int pixels = 0;
+        for (String path : framePaths) {
+            try (InputStream in = SpriteAtlasBenchmark.class.getResourceAsStream(path)) {
+                BufferedImage image = ImageIO.read(in);
+                pixels += image.getWidth() * image.getHeight();
+            }
+        }
+        return pixels;
+    }
+
+    @Benchmark
+    public SpriteAtlas mapAtlas() throws IOException {
+        return SpriteAtlas.open(atlasFile);
+    }
+}
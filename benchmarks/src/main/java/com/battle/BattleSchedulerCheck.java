@@ -0,0 +1,86 @@
+package com.battle;
+
+import com.player.EnemySlime;
+import com.player.PlayerSlime;
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+/**
+ * Leak check for the shared battle scheduler. Plays many short rounds the way
+ * the game does (some finish, most are cancelled part-way by a retry or a
+ * trip to the menu) and exits with status 1 if battles stay live, a step
+ * lands after its cancel returned, or the JVM's thread count grows.
+ * <pre>
+ * java -cp target/benchmarks.jar com.battle.BattleSchedulerCheck
+ * </pre>
+ */
+public class BattleSchedulerCheck {
+    private static final int ROUNDS = 1_000;
+    private static final double FAST_ATTACK_SPEED = 500; // 2 ms between attacks
+
+    public static void main(String[] args) throws InterruptedException {
+        BattleScheduler scheduler = new BattleScheduler();
+        SplittableRandom random = new SplittableRandom(42);
+
+        // Warm the scheduler thread up before taking the baseline
+        playRound(scheduler, random, true);
+        int baselineThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        int finished = 0;
+        int cancelled = 0;
+        int lateSteps = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            int late = playRound(scheduler, random, random.nextInt(4) == 0);
+            if (late < 0) {
+                finished++;
+            } else {
+                cancelled++;
+                lateSteps += late;
+            }
+        }
+        int threads = ManagementFactory.getThreadMXBean().getThreadCount();
+        int live = scheduler.getLiveCount();
+
+        System.out.printf("%d rounds: %d finished, %d cancelled, %d late steps, %d live battles, threads %d -> %d%n",
+            ROUNDS, finished, cancelled, lateSteps, live, baselineThreads, threads);
+        boolean failed = lateSteps > 0 || live > 0 || threads > baselineThreads;
+        System.exit(failed ? 1 : 0);
+    }
+
+    /**
+     * Plays one round
+     * @return -1 if the round was played out, otherwise the number of attacks that landed after cancel
+     */
+    private static int playRound(BattleScheduler scheduler, SplittableRandom random, boolean playOut) throws InterruptedException {
+        PlayerSlime player = new PlayerSlime();
+        EnemySlime enemy = new EnemySlime(1 + random.nextInt(5));
+        player.setAttackSpeed(FAST_ATTACK_SPEED);
+        enemy.setAttackSpeed(FAST_ATTACK_SPEED);
+
+        BattleEngine engine = new BattleEngine(player, enemy);
+        int[] attacks = new int[1];
+        engine.addListener(new BattleListener() {
+            @Override
+            public void onAttack(BattleEvent event) {
+                attacks[0]++;
+            }
+
+            @Override
+            public void onBattleEnd(boolean playerWon, long time) {
+            }
+        });
+        BattleScheduler.Battle battle = scheduler.start(engine);
+
+        if (playOut) {
+            if (!battle.join(10_000)) {
+                throw new IllegalStateException("Battle did not finish");
+            }
+            return -1;
+        }
+        Thread.sleep(random.nextInt(3));
+        battle.cancel();
+        int atCancel = attacks[0];
+        Thread.sleep(3);
+        return attacks[0] - atCancel;
+    }
+}
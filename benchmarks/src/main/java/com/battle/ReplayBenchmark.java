@@ -0,0 +1,77 @@
+package com.battle;
+
+import com.player.EnemySlime;
+import com.player.PlayerSlime;
+import com.sim.SpendStrategies;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// NOTE: What recording adds to a round next to the listener a live battle always has, and the cost of a seek
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReplayBenchmark {
+    PlayerSlime player;
+    EnemySlime enemy;
+    BattleListener panel;
+    ReplayRecorder recorder;
+    ReplayCursor cursor;
+    SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // A sturdy slime against level 20 makes a round of a few hundred attacks
+        player = new PlayerSlime();
+        player.setMaxHealth(20_000);
+        enemy = new EnemySlime(20);
+        enemy.setMaxHealth(4_000);
+        panel = new BattleListener() {
+            @Override
+            public void onAttack(BattleEvent event) {
+            }
+
+            @Override
+            public void onBattleEnd(boolean playerWon, long time) {
+            }
+        };
+        cursor = new ReplayCursor(ReplayCheck.record(100, SpendStrategies.HEALTH, 42).recorder.snapshot());
+        random = new SplittableRandom(7);
+    }
+
+    @Setup(Level.Iteration)
+    public void newSession() {
+        recorder = new ReplayRecorder();
+    }
+
+    @Benchmark
+    public boolean liveRound() {
+        return play(false);
+    }
+
+    @Benchmark
+    public boolean recordedRound() {
+        return play(true);
+    }
+
+    @Benchmark
+    public int seek() {
+        cursor.seek(random.nextLong(cursor.getReplay().getDuration() + 1));
+        return cursor.getPlayerHealth();
+    }
+
+    private boolean play(boolean record) {
+        player.resetForNewRound();
+        enemy.setHealth(enemy.getMaxHealth());
+        BattleEngine engine = new BattleEngine(player, enemy);
+        engine.addListener(panel);
+        if (record) {
+            recorder.beginRound(player, enemy);
+            engine.addListener(recorder);
+        }
+        return engine.run();
+    }
+}
@@ -0,0 +1,159 @@
+package com.battle;
+
+import com.player.EnemySlime;
+import com.player.PlayerSlime;
+import com.sim.SpendStrategies;
+import com.sim.SpendStrategy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Round-trip check for battle replays. Records a session of rounds the way
+ * the game plays them (jittered attacks, upgrades after a win, a retry after
+ * a defeat, now and then a round left part-way for the menu), writes it to a
+ * file and reads it back. Playing the file from the start must report the
+ * same attacks and outcomes the engine produced, and seeking to any time must
+ * land in the state straight playback reaches there. Prints the file size and
+ * exits with status 1 on any mismatch.
+ * <pre>
+ * java -cp target/benchmarks.jar com.battle.ReplayCheck
+ * </pre>
+ */
+public class ReplayCheck {
+    private static final int ROUNDS = 100;
+    private static final int SEEKS = 2_000;
+
+    public static void main(String[] args) throws IOException {
+        int failures = 0;
+        // Upgrading evenly keeps rounds short, hoarding loses a lot, buying only health drags battles past several keyframes
+        failures += check(SpendStrategies.BALANCED);
+        failures += check(SpendStrategies.HOARD);
+        failures += check(SpendStrategies.HEALTH);
+        System.exit(failures > 0 ? 1 : 0);
+    }
+
+    private static int check(SpendStrategy strategy) throws IOException {
+        Recorded session = record(ROUNDS, strategy, 42);
+        Path file = Files.createTempFile("slime-replay-check", ".replay");
+        Replay replay;
+        try {
+            session.recorder.snapshot().write(file);
+            replay = Replay.read(file);
+            System.out.printf("%s: %d rounds, %d attacks, %d keyframes: %,d bytes (%.2f bytes per attack)%n",
+                strategy, replay.getRoundCount(), session.attacks, replay.getKeyframeCount(), Files.size(file),
+                (double) Files.size(file) / session.attacks);
+        } finally {
+            Files.delete(file);
+        }
+
+        int failures = 0;
+
+        // Straight playback reports exactly what the engine dispatched
+        ReplayCursor cursor = new ReplayCursor(replay);
+        StringBuilder played = new StringBuilder();
+        cursor.advanceTo(Long.MAX_VALUE, new Transcript(played));
+        if (!played.toString().equals(session.transcript.toString())) {
+            System.out.println("FAILED playback differs from the recorded battles");
+            failures++;
+        }
+        if (!cursor.isAtEnd() || cursor.getRound() != ROUNDS - 1) {
+            System.out.println("FAILED playback stopped in round " + cursor.getRound());
+            failures++;
+        }
+
+        // Seeking anywhere lands where straight playback gets to
+        SplittableRandom random = new SplittableRandom(7);
+        ReplayCursor seeker = new ReplayCursor(replay);
+        for (int i = 0; i < SEEKS; i++) {
+            long target = random.nextLong(replay.getDuration() + 1);
+            ReplayCursor straight = new ReplayCursor(replay);
+            straight.advanceTo(target, null);
+            seeker.seek(target);
+            if (!sameState(straight, seeker)) {
+                System.out.printf("FAILED seek to %d: round %d at %d/%d HP, expected round %d at %d/%d HP%n", target,
+                    seeker.getRound(), seeker.getPlayerHealth(), seeker.getEnemyHealth(),
+                    straight.getRound(), straight.getPlayerHealth(), straight.getEnemyHealth());
+                failures++;
+            }
+        }
+
+        System.out.printf("%s: playback and %d seeks, %d failures%n", strategy, SEEKS, failures);
+        return failures;
+    }
+
+    /**
+     * Plays and records a session
+     * @param rounds number of rounds to play
+     * @param strategy how skill points are spent after a win
+     * @param seed seed of the attack jitter and of when a round is abandoned
+     */
+    static Recorded record(int rounds, SpendStrategy strategy, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Recorded session = new Recorded();
+        PlayerSlime player = new PlayerSlime();
+        for (int round = 0; round < rounds; round++) {
+            player.resetForNewRound();
+            EnemySlime enemy = new EnemySlime(player.getRoundsWon() + 1);
+            BattleEngine engine = new BattleEngine(player, enemy, random, 5);
+            session.recorder.beginRound(player, enemy);
+            engine.addListener(session.recorder);
+            engine.addListener(new Transcript(session.transcript));
+            engine.addListener(new BattleListener() {
+                @Override
+                public void onAttack(BattleEvent event) {
+                    session.attacks++;
+                }
+
+                @Override
+                public void onBattleEnd(boolean playerWon, long time) {
+                }
+            });
+            if (round < rounds - 1 && random.nextInt(10) == 0) {
+                // Left for the menu part-way, the next round closes it
+                engine.advanceTo(random.nextInt(5_000));
+                continue;
+            }
+            if (engine.run()) {
+                player.incrementRoundsWon();
+                player.addSkillPoints(enemy.getSkillPointReward());
+                strategy.spend(player, random);
+            }
+        }
+        return session;
+    }
+
+    private static boolean sameState(ReplayCursor a, ReplayCursor b) {
+        return a.getRound() == b.getRound() && a.getTime() == b.getTime() && a.isRoundOver() == b.isRoundOver()
+            && a.getPlayerHealth() == b.getPlayerHealth() && a.getEnemyHealth() == b.getEnemyHealth()
+            && a.getLevel() == b.getLevel() && a.getPlayerDamage() == b.getPlayerDamage()
+            && a.getEnemyAttackSpeed() == b.getEnemyAttackSpeed();
+    }
+
+    static final class Recorded {
+        final ReplayRecorder recorder = new ReplayRecorder();
+        final StringBuilder transcript = new StringBuilder();
+        int attacks;
+    }
+
+    // NOTE: One line per event with damage to a thousandth, what a replay keeps, so live and replayed battles compare as text
+    private static final class Transcript implements BattleListener {
+        private final StringBuilder out;
+
+        Transcript(StringBuilder out) {
+            this.out = out;
+        }
+
+        @Override
+        public void onAttack(BattleEvent event) {
+            out.append(event.getTime()).append(event.isPlayerAttack() ? " player " : " enemy ")
+                .append(Math.round(event.getDamage() * 1000)).append(' ').append(event.getTargetHealth()).append('\n');
+        }
+
+        @Override
+        public void onBattleEnd(boolean playerWon, long time) {
+            out.append(time).append(playerWon ? " won" : " lost").append('\n');
+        }
+    }
+}
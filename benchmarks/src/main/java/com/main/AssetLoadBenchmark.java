@@ -0,0 +1,36 @@
+package com.main;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.*;
+
+// NOTE: Decode cost of the shipped backgrounds and sprite frames
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class AssetLoadBenchmark {
+    @Param({
+        "/images/background/pillars/1920X1080/Full.png",
+        "/images/background/no_pillars/1920X1080/Full.png",
+        "/images/background/pillars/320X180/Full.png",
+        "/images/background/pillars/1920X1080/0.png",
+        "/images/player/idle/idle_00.png",
+        "/images/enemy/idle/idle_00.png",
+        "/images/player/run/run_00.png",
+        "/images/enemy/die/die00.png"
+    })
+    String path;
+
+    @Benchmark
+    public BufferedImage imageIoRead() throws IOException {
+        try (InputStream in = AssetLoadBenchmark.class.getResourceAsStream(path)) {
+            return ImageIO.read(in);
+        }
+    }
+}
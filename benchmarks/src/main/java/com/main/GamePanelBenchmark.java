@@ -0,0 +1,56 @@
+package com.main;
+
+import com.player.PlayerSlime;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// NOTE: Full paint pass of the battle screen into an offscreen image
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class GamePanelBenchmark {
+    // NOTE: true draws the scene into the 320x180 buffer and upscales it, -Dslime.lowRes
+    @Param({"false", "true"})
+    boolean lowRes;
+
+    GamePanel panel;
+    BufferedImage target;
+    Graphics2D graphics;
+
+    @Setup
+    public void setup() {
+        System.setProperty("slime.lowRes", String.valueOf(lowRes));
+        panel = new GamePanel(null, new PlayerSlime(), false);
+        panel.setSize(1600, 900);
+        target = new BufferedImage(1600, 900, BufferedImage.TYPE_INT_RGB);
+        graphics = target.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paintComponent() {
+        Graphics2D g = (Graphics2D) graphics.create();
+        try {
+            panel.paintComponent(g);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    @Benchmark
+    public BufferedImage drawHealthBar() {
+        panel.drawHealthBar(graphics, 300, 350, 200, 25, 60, 100, Color.GREEN, Color.RED);
+        return target;
+    }
+}
@@ -0,0 +1,158 @@
+package com.main;
+
+import com.battle.BattleEvent;
+import com.battle.BattleListener;
+import com.player.PlayerSlime;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.locks.LockSupport;
+import javax.swing.JComponent;
+
+/**
+ * Allocation regression check for the steady-state frame paths. Paints
+ * GamePanel, MenuPanel and a full WavePanel into an offscreen image, then
+ * drives GamePanel and WavePanel through the game loop's update and render
+ * with the performance HUD up, while a battle thread
+ * feeds GamePanel attacks and round ends so hits, particles, damage numbers
+ * and dirty regions all run. Measures the bytes the frame thread allocated
+ * with {@code ThreadMXBean.getThreadAllocatedBytes} and exits with status 1
+ * if frames allocate anything in steady state. The HUD rebuilds a
+ * {@link com.player.CombatSnapshot} once after each HP change, not per frame,
+ * so one snapshot per HP change the battle thread made is left out.
+ * <pre>
+ * java -Djava.awt.headless=true -cp target/benchmarks.jar com.main.PaintAllocationCheck
+ * </pre>
+ */
+public class PaintAllocationCheck {
+    private static final int WARMUP_FRAMES = 5_000;
+    private static final int MEASURED_FRAMES = 10_000;
+    // NOTE: An attack every few frames is several times a real battle at 60 FPS, every ROUND_ATTACKS-th one ends the round
+    private static final int ATTACK_FRAMES = 8;
+    private static final int ROUND_ATTACKS = 40;
+
+    // Frames drawn so far, the battle thread paces its attacks by it
+    private static volatile long frames;
+    // HP changes made by the battle thread so far
+    private static volatile long hpChanges;
+
+    public static void main(String[] args) throws InterruptedException {
+        System.setProperty("java.awt.headless", "true");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        BufferedImage target = new BufferedImage(1600, 900, BufferedImage.TYPE_INT_RGB);
+        PlayerSlime player = new PlayerSlime();
+        GamePanel gamePanel = new GamePanel(null, player, false);
+        MenuPanel menuPanel = new MenuPanel(null);
+        WavePanel wavePanel = new WavePanel(null, new PlayerSlime());
+
+        boolean failed = false;
+        failed |= check("GamePanel.paintComponent", gamePanel, target, threads, false, 0);
+        failed |= check("MenuPanel.paintComponent", menuPanel, target, threads, false, 0);
+        failed |= check("WavePanel.paintComponent", wavePanel, target, threads, false, 0);
+
+        failed |= checkBattle("GamePanel update+render", gamePanel, player, target, threads);
+        failed |= check("WavePanel update+render", wavePanel, target, threads, true, 0);
+        System.exit(failed ? 1 : 0);
+    }
+
+    // NOTE: Attacks come from their own thread like the battle scheduler's, only the frame thread is measured
+    private static boolean checkBattle(String name, GamePanel panel, PlayerSlime player, BufferedImage target,
+                                       com.sun.management.ThreadMXBean threads) throws InterruptedException {
+        panel.getActionMap().get("togglePerfHud").actionPerformed(null);
+        BattleListener listener = panel.getEventListener();
+        Thread battle = new Thread(() -> {
+            int maxHealth = Math.max(1, player.getMaxHealth());
+            for (int attack = 1; !Thread.currentThread().isInterrupted(); attack++) {
+                long due = frames + ATTACK_FRAMES;
+                while (frames < due && !Thread.currentThread().isInterrupted()) {
+                    LockSupport.parkNanos(100_000);
+                }
+                boolean playerSide = attack % 2 == 0;
+                int health = maxHealth - attack % ROUND_ATTACKS * maxHealth / ROUND_ATTACKS;
+                if (!playerSide) {
+                    player.setHealth(health);
+                    hpChanges++;
+                }
+                long time = attack * 1000L / GameLoop.TICK_RATE * ATTACK_FRAMES;
+                listener.onAttack(new BattleEvent(time, playerSide, 5 + attack % 20, health));
+                if (attack % ROUND_ATTACKS == 0) {
+                    listener.onBattleEnd(attack / ROUND_ATTACKS % 2 == 0, time);
+                }
+            }
+        }, "battle");
+        battle.setDaemon(true);
+        battle.start();
+        try {
+            return check(name, panel, target, threads, true, snapshotBytes(threads));
+        } finally {
+            battle.interrupt();
+            battle.join();
+        }
+    }
+
+    // NOTE: Size of one stat snapshot as this JVM lays it out, from rebuilding one per HP change on a spare player
+    private static long snapshotBytes(com.sun.management.ThreadMXBean threads) {
+        PlayerSlime spare = new PlayerSlime();
+        long threadId = Thread.currentThread().threadId();
+        long total = 0;
+        for (int round = 0; round < 3; round++) {
+            long before = threads.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < 10_000; i++) {
+                spare.setHealth(i);
+                spare.snapshot();
+            }
+            total = threads.getThreadAllocatedBytes(threadId) - before;
+        }
+        return total / 10_000;
+    }
+
+    private static boolean check(String name, JComponent panel, BufferedImage target,
+                                 com.sun.management.ThreadMXBean threads, boolean loop, long bytesPerHpChange) {
+        panel.setSize(target.getWidth(), target.getHeight());
+        Graphics2D g = target.createGraphics();
+        try {
+            long tick = 0;
+            for (int i = 0; i < WARMUP_FRAMES; i++) {
+                frame(panel, g, tick++, loop);
+            }
+            long threadId = Thread.currentThread().threadId();
+            // Cost of the measurement itself, subtracted from the result
+            long overhead = threads.getThreadAllocatedBytes(threadId);
+            overhead = threads.getThreadAllocatedBytes(threadId) - overhead;
+
+            long changes = hpChanges;
+            long before = threads.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < MEASURED_FRAMES; i++) {
+                frame(panel, g, tick++, loop);
+            }
+            long allocated = threads.getThreadAllocatedBytes(threadId) - before - overhead;
+            long snapshots = (hpChanges - changes) * bytesPerHpChange;
+            allocated = Math.max(0, allocated - snapshots);
+            // NOTE: A few hundred one-off bytes (JIT, class init) are tolerated, any per-frame allocation is not
+            long perFrame = allocated / MEASURED_FRAMES;
+            System.out.printf("%-26s %6d bytes/frame (%d bytes over %d frames", name, perFrame, allocated, MEASURED_FRAMES);
+            System.out.println(snapshots > 0 ? ", " + snapshots + " bytes of HP snapshots left out)" : ")");
+            return perFrame > 0;
+        } finally {
+            g.dispose();
+        }
+    }
+
+    // NOTE: A loop frame is a tick and a render part-way to the next tick, as GameLoop runs them
+    private static void frame(JComponent panel, Graphics2D g, long tick, boolean loop) {
+        frames++;
+        if (loop) {
+            GameLoop.Scene scene = (GameLoop.Scene) panel;
+            scene.update(tick);
+            scene.render(g, (tick % 4) / 4.0);
+        } else if (panel instanceof GamePanel) {
+            ((GamePanel) panel).paintComponent(g);
+        } else if (panel instanceof WavePanel) {
+            ((WavePanel) panel).paintComponent(g);
+        } else {
+            ((MenuPanel) panel).paintComponent(g);
+        }
+    }
+}
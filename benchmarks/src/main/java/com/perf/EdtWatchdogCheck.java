@@ -0,0 +1,77 @@
+package com.perf;
+
+import java.awt.EventQueue;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Check for the EDT watchdog. Lets it probe an idle event queue, then blocks
+ * the EDT once, and exits with status 1 if the block is not reported as
+ * exactly one stall with the blocking method on the captured stack, or if
+ * the exported histogram does not show both the idle and the blocked probes.
+ * <pre>
+ * java -Djava.awt.headless=true -cp target/benchmarks.jar com.perf.EdtWatchdogCheck
+ * </pre>
+ */
+public class EdtWatchdogCheck {
+    private static final long PROBE_MILLIS = 10;
+    private static final long STALL_MILLIS = 100;
+    private static final long BLOCK_MILLIS = 400;
+
+    public static void main(String[] args) throws Exception {
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        PrintStream err = System.err;
+        System.setErr(new PrintStream(captured, true, StandardCharsets.UTF_8));
+
+        EdtWatchdog watchdog = new EdtWatchdog(PROBE_MILLIS, STALL_MILLIS);
+        watchdog.start();
+        Thread.sleep(500);
+        EventQueue.invokeLater(EdtWatchdogCheck::blockEventThread);
+        Thread.sleep(BLOCK_MILLIS + 300);
+        watchdog.stop();
+        Thread.sleep(50); // let a probe still in flight land
+        System.setErr(err);
+
+        String report = captured.toString(StandardCharsets.UTF_8);
+        LatencyHistogram histogram = watchdog.getHistogram();
+        Path file = Files.createTempFile("edt-latency", ".txt");
+        watchdog.export(file);
+        List<String> lines = Files.readAllLines(file);
+        Files.delete(file);
+
+        System.out.printf("%d probes, p50 %.2f ms, p99 %.2f ms, max %.2f ms, %d stalls, %d histogram lines%n",
+            histogram.getCount(), histogram.getPercentileMicros(50) / 1000.0, histogram.getPercentileMicros(99) / 1000.0,
+            histogram.getMaxMicros() / 1000.0, watchdog.getStallCount(), lines.size());
+        System.out.print(report);
+
+        int failures = 0;
+        failures += expect(watchdog.getStallCount() == 1, "one stall");
+        failures += expect(report.contains("blockEventThread"), "blocking method on the stall stack");
+        failures += expect(report.contains("responsive again"), "end of the stall reported");
+        failures += expect(histogram.getCount() >= 20, "idle probes recorded");
+        failures += expect(histogram.getPercentileMicros(50) < STALL_MILLIS * 1000, "idle probes below the threshold");
+        failures += expect(histogram.getMaxMicros() >= (BLOCK_MILLIS - PROBE_MILLIS) * 1000, "blocked probe recorded");
+        failures += expect(lines.size() > 3 && lines.get(1).startsWith("# count " + histogram.getCount()), "histogram exported");
+        System.exit(failures > 0 ? 1 : 0);
+    }
+
+    private static void blockEventThread() {
+        try {
+            Thread.sleep(BLOCK_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int expect(boolean condition, String what) {
+        if (!condition) {
+            System.out.println("FAILED: " + what);
+            return 1;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,51 @@
+package com.player;
+
+import com.battle.BattleEngine;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// NOTE: Cost of a single hit and of resolving a whole round on virtual time
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CombatBenchmark {
+    @Param({"1", "10", "50"})
+    int level;
+
+    PlayerSlime player;
+    EnemySlime enemy;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        player = new PlayerSlime();
+        enemy = new EnemySlime(level);
+    }
+
+    @Benchmark
+    public int playerTakeDamage() {
+        if (!player.isAlive()) {
+            player.resetForNewRound();
+        }
+        player.takeDamage(enemy.getDamege());
+        return player.getHealth();
+    }
+
+    @Benchmark
+    public int enemyTakeDamage() {
+        if (!enemy.isAlive()) {
+            enemy.setHealth(enemy.getMaxHealth());
+        }
+        enemy.takeDamage(player.getDamege());
+        return enemy.getHealth();
+    }
+
+    @Benchmark
+    public boolean resolveRound() {
+        player.resetForNewRound();
+        enemy.setHealth(enemy.getMaxHealth());
+        return new BattleEngine(player, enemy).run();
+    }
+}
@@ -0,0 +1,125 @@
+package com.player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency stress check for the lock-free combat state, in the spirit of a
+ * jcstress suite. Several attacker threads hit the same slime at once while
+ * an observer keeps reading snapshots; the check exits with status 1 if a hit
+ * is lost or health ever reads negative.
+ * <pre>
+ * java -cp target/benchmarks.jar com.player.CombatStressCheck
+ * </pre>
+ */
+public class CombatStressCheck {
+    private static final int ATTACKERS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    private static final int HITS_PER_ATTACKER = 20_000;
+    private static final int TRIALS = 50;
+
+    public static void main(String[] args) throws InterruptedException {
+        int failures = 0;
+        for (int trial = 0; trial < TRIALS; trial++) {
+            failures += exactDamage();
+            failures += overkill();
+            failures += damageAndHeal();
+        }
+        System.out.printf("%d trials x 3 scenarios, %d attackers x %d hits: %d failures%n",
+            TRIALS, ATTACKERS, HITS_PER_ATTACKER, failures);
+        System.exit(failures > 0 ? 1 : 0);
+    }
+
+    // Health equals the total damage, every hit must land and end exactly at zero
+    private static int exactDamage() throws InterruptedException {
+        EnemySlime target = new EnemySlime(1);
+        int total = ATTACKERS * HITS_PER_ATTACKER;
+        target.setMaxHealth(total);
+        target.setHealth(total);
+        int negative = hammer(target, () -> target.takeDamage(1));
+        return report("exact", target.getHealth() != 0 || negative > 0,
+            "health " + target.getHealth() + ", negative reads " + negative);
+    }
+
+    // Twice the damage health can absorb, health must clamp at zero and never dip below
+    private static int overkill() throws InterruptedException {
+        EnemySlime target = new EnemySlime(1);
+        int total = ATTACKERS * HITS_PER_ATTACKER;
+        target.setMaxHealth(total);
+        target.setHealth(total);
+        int negative = hammer(target, () -> target.takeDamage(2));
+        return report("overkill", target.getHealth() != 0 || negative > 0,
+            "health " + target.getHealth() + ", negative reads " + negative);
+    }
+
+    // Half the attackers damage, half heal by the same amount, the sum must be unchanged
+    private static int damageAndHeal() throws InterruptedException {
+        PlayerSlime target = new PlayerSlime();
+        int start = ATTACKERS * HITS_PER_ATTACKER;
+        target.setMaxHealth(start);
+        target.setHealth(start);
+        AtomicInteger turn = new AtomicInteger();
+        int negative = hammer(target, new Runnable() {
+            private final ThreadLocal<Boolean> healer = ThreadLocal.withInitial(() -> turn.getAndIncrement() % 2 == 0);
+
+            @Override
+            public void run() {
+                if (healer.get()) {
+                    target.addHealth(1);
+                } else {
+                    target.takeDamage(1);
+                }
+            }
+        });
+        return report("damage+heal", target.getHealth() != start || negative > 0,
+            "health " + target.getHealth() + " expected " + start + ", negative reads " + negative);
+    }
+
+    /**
+     * Runs the hit on every attacker thread while the calling thread reads snapshots
+     * @return number of snapshots that showed negative health
+     */
+    private static int hammer(Player target, Runnable hit) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(ATTACKERS);
+        List<Thread> threads = new ArrayList<>(ATTACKERS);
+        for (int i = 0; i < ATTACKERS; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int h = 0; h < HITS_PER_ATTACKER; h++) {
+                        hit.run();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        int negative = 0;
+        start.countDown();
+        while (done.getCount() > 0) {
+            CombatSnapshot snapshot = target.snapshot();
+            if (snapshot.getHealth() < 0 || target.getHealth() < 0) {
+                negative++;
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return negative;
+    }
+
+    private static int report(String scenario, boolean failed, String detail) {
+        if (failed) {
+            System.out.println("FAILED " + scenario + ": " + detail);
+            return 1;
+        }
+        return 0;
+    }
+}
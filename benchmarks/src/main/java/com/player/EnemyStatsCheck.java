@@ -0,0 +1,108 @@
+package com.player;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Check for the enemy stat table. Exits with status 1 if the built-in curve
+ * differs by a single bit from the formula enemies were built with before
+ * the table, inside or past the precomputed levels, if a curve file's level
+ * rows do not override exactly their levels, or if lookups racing the table's
+ * growth see a level that is not filled in.
+ * <pre>
+ * java -cp target/benchmarks.jar com.player.EnemyStatsCheck
+ * </pre>
+ */
+public class EnemyStatsCheck {
+    private static final int LEVELS = 200_000;
+
+    public static void main(String[] args) throws Exception {
+        int failures = 0;
+
+        EnemyStats builtIn = EnemyStats.builtIn();
+        for (int level = 0; level < LEVELS; level++) {
+            if (!matchesFormula(builtIn, level)) {
+                System.out.println("FAILED: built-in curve differs from the formula at level " + level);
+                failures++;
+            }
+        }
+        System.out.printf("built-in curve: %d levels checked, %d precomputed%n", LEVELS, builtIn.getComputedLevels());
+
+        Path file = Files.createTempFile("enemy-stats", ".txt");
+        try {
+            Files.write(file, List.of(
+                "# columns: health damage attackSpeed reward",
+                "base      80  8.0  1.0  2",
+                "perLevel  10  2.0  0.1  2",
+                "",
+                "3         500 1.5  0.5  40   # a boss",
+                "100       1   1    1    1"));
+            EnemyStats loaded = EnemyStats.load(file);
+            for (int level = 0; level < 1000; level++) {
+                boolean ok;
+                if (level == 3) {
+                    ok = loaded.getHealth(3) == 500 && loaded.getDamage(3) == 1.5 && loaded.getAttackSpeed(3) == 0.5 && loaded.getReward(3) == 40;
+                } else if (level == 100) {
+                    ok = loaded.getHealth(100) == 1 && loaded.getReward(100) == 1;
+                } else {
+                    ok = matchesFormula(loaded, level);
+                }
+                if (!ok) {
+                    System.out.println("FAILED: curve file gives the wrong stats at level " + level);
+                    failures++;
+                }
+            }
+            Files.write(file, List.of("base 80 8.0 1.0"));
+            try {
+                EnemyStats.load(file);
+                System.out.println("FAILED: a malformed curve file was accepted");
+                failures++;
+            } catch (IOException expected) {
+                System.out.println("malformed curve rejected: " + expected.getMessage());
+            }
+        } finally {
+            Files.delete(file);
+        }
+
+        // Threads looking up ever higher levels race each other's growth
+        EnemyStats shared = EnemyStats.builtIn();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            results.add(pool.submit(() -> {
+                int wrong = 0;
+                for (int level = offset; level < 70_000; level += 4) {
+                    if (!matchesFormula(shared, level)) {
+                        wrong++;
+                    }
+                }
+                return wrong;
+            }));
+        }
+        int raced = 0;
+        for (Future<Integer> result : results) {
+            raced += result.get();
+        }
+        pool.shutdown();
+        System.out.printf("concurrent growth: %d wrong lookups, %d precomputed%n", raced, shared.getComputedLevels());
+        failures += raced;
+
+        System.out.println(failures + " failures");
+        System.exit(failures > 0 ? 1 : 0);
+    }
+
+    // NOTE: The arithmetic EnemySlime's constructor used before the table
+    private static boolean matchesFormula(EnemyStats stats, int level) {
+        return stats.getHealth(level) == 80 + (level * 10)
+            && Double.doubleToLongBits(stats.getDamage(level)) == Double.doubleToLongBits(8.0 + (level * 2))
+            && Double.doubleToLongBits(stats.getAttackSpeed(level)) == Double.doubleToLongBits(1.0 + (level * 0.1))
+            && stats.getReward(level) == 2 + (level * 2);
+    }
+}
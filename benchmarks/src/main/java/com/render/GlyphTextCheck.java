@@ -0,0 +1,185 @@
+package com.render;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Check for the glyph atlas and the floating damage numbers. Exits with
+ * status 1 if a number drawn from the atlas differs by a pixel from the
+ * same number drawn with drawString, if the damage number pool does not
+ * recycle its oldest number or expire them at the end of their life, or if
+ * drawing a changing HP label or a screen of damage numbers allocates in
+ * steady state. Also prints what the same HP label costs as a
+ * {@link CachedText} rebuilt every frame.
+ * <pre>
+ * java -Djava.awt.headless=true -cp target/benchmarks.jar com.render.GlyphTextCheck
+ * </pre>
+ */
+public class GlyphTextCheck {
+    private static final Font FONT = new Font("Arial", Font.BOLD, 18);
+    private static final int WARMUP_FRAMES = 20_000;
+    private static final int MEASURED_FRAMES = 50_000;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int failures = 0;
+        GlyphAtlas atlas = GlyphAtlas.get(FONT, Color.WHITE);
+        failures += expect(GlyphAtlas.get(new Font("Arial", Font.BOLD, 18), new Color(255, 255, 255)) == atlas,
+            "one atlas per font and color");
+
+        int[] values = {0, 7, 10, 99, 100, 404, 1_000, 12_345, -5, -980, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        int mismatches = 0;
+        for (int value : values) {
+            mismatches += compare(atlas, String.valueOf(value), (g, x, baseline) -> atlas.drawInt(g, value, x, baseline),
+                atlas.intWidth(value));
+        }
+        // {scaled, decimals}
+        int[][] fixed = {{0, 1}, {5, 1}, {10, 1}, {15, 1}, {99, 1}, {123, 1}, {-7, 1}, {5, 2}, {1_005, 2}, {42, 0}};
+        for (int[] number : fixed) {
+            String text = String.format("%." + number[1] + "f", number[0] / Math.pow(10, number[1]));
+            mismatches += compare(atlas, text, (g, x, baseline) -> atlas.drawFixed(g, number[0], number[1], x, baseline),
+                atlas.fixedWidth(number[0], number[1]));
+        }
+        System.out.println("numbers against drawString: " + mismatches + " mismatches");
+        failures += mismatches;
+
+        failures += checkPool(atlas);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+        BufferedImage target = new BufferedImage(1600, 900, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            // An HP label interpolating every frame, from the atlas and as a rebuilt CachedText
+            long[] atlasResult = measure(threads, frame -> {
+                int x = atlas.drawText(g, "Player HP: ", 300, 340);
+                x = atlas.drawInt(g, 1_000 - frame % 1_000, x, 340);
+                x = atlas.drawChar(g, '/', x, 340);
+                atlas.drawInt(g, 1_000, x, 340);
+            });
+            CachedText cached = new CachedText(FONT, Color.WHITE);
+            long[] cachedResult = measure(threads, frame -> {
+                int health = 1_000 - frame % 1_000;
+                if (cached.isStale(health, 1_000)) {
+                    cached.set("Player HP: " + health + "/" + 1_000);
+                }
+                cached.draw(g, 300, 340);
+            });
+            System.out.printf("changing HP label: atlas %.2f us %d bytes/frame, CachedText %.2f us %d bytes/frame%n",
+                atlasResult[0] / 1e3, atlasResult[1], cachedResult[0] / 1e3, cachedResult[1]);
+            failures += expect(atlasResult[1] == 0, "an HP label drawn from the atlas does not allocate");
+
+            // Damage numbers from a hit every other tick, stepped like the game loop steps them
+            FloatingNumbers numbers = new FloatingNumbers(32, 60, 90, atlas, GlyphAtlas.get(FONT, Color.RED));
+            long[] numbersResult = measure(threads, frame -> {
+                numbers.update();
+                if (frame % 2 == 0) {
+                    numbers.spawn(400 + frame % 800, 500, -(frame % 250), frame % 4 == 0 ? 0 : 1);
+                }
+                numbers.draw(g);
+            });
+            System.out.printf("%d damage numbers: %.2f us %d bytes/frame%n", numbers.getCount(), numbersResult[0] / 1e3, numbersResult[1]);
+            failures += expect(numbers.getCount() == 30, "numbers live for 60 ticks");
+            failures += expect(numbersResult[1] == 0, "damage numbers do not allocate");
+        } finally {
+            g.dispose();
+        }
+
+        System.out.println(failures + " failures");
+        System.exit(failures > 0 ? 1 : 0);
+    }
+
+    private interface Draw {
+        int draw(Graphics2D g, int x, int baseline);
+    }
+
+    private interface Frame {
+        void run(int frame);
+    }
+
+    // NOTE: Both sides drawn the same way on black, the atlas glyphs must land on the same pixels drawString uses
+    private static int compare(GlyphAtlas atlas, String text, Draw draw, int width) {
+        BufferedImage expected = new BufferedImage(300, 40, BufferedImage.TYPE_INT_RGB);
+        BufferedImage actual = new BufferedImage(300, 40, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = expected.createGraphics();
+        int stringWidth;
+        try {
+            g.setFont(FONT);
+            g.setColor(Color.WHITE);
+            g.drawString(text, 10, 30);
+            stringWidth = g.getFontMetrics().stringWidth(text);
+        } finally {
+            g.dispose();
+        }
+        g = actual.createGraphics();
+        int end;
+        try {
+            end = draw.draw(g, 10, 30);
+        } finally {
+            g.dispose();
+        }
+        int[] want = expected.getRGB(0, 0, 300, 40, null, 0, 300);
+        int[] got = actual.getRGB(0, 0, 300, 40, null, 0, 300);
+        if (!Arrays.equals(want, got) || end - 10 != stringWidth || width != stringWidth) {
+            System.out.printf("FAILED: \"%s\" drawn %d px wide (measured %d), drawString %d px, pixels %s%n",
+                text, end - 10, width, stringWidth, Arrays.equals(want, got) ? "equal" : "differ");
+            return 1;
+        }
+        return 0;
+    }
+
+    private static int checkPool(GlyphAtlas atlas) {
+        int failures = 0;
+        FloatingNumbers numbers = new FloatingNumbers(4, 10, 30, atlas);
+        for (int i = 0; i < 4; i++) {
+            numbers.spawn(0, 0, i, 0);
+            numbers.update();
+        }
+        numbers.spawn(0, 0, 99, 0);
+        failures += expect(numbers.getCount() == 4, "a full pool recycles instead of growing");
+        for (int tick = 0; tick < 7; tick++) {
+            numbers.update();
+        }
+        // The first number was the oldest and made room, the second is now 10 ticks old
+        failures += expect(numbers.getCount() == 3, "numbers expire at the end of their life");
+        for (int tick = 0; tick < 3; tick++) {
+            numbers.update();
+        }
+        failures += expect(numbers.getCount() == 0, "every number expires");
+        System.out.println("pool: " + failures + " failures");
+        return failures;
+    }
+
+    /**
+     *
+     * @return nanoseconds and bytes allocated per frame
+     */
+    private static long[] measure(com.sun.management.ThreadMXBean threads, Frame frame) {
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            frame.run(i);
+        }
+        long threadId = Thread.currentThread().threadId();
+        long overhead = threads.getThreadAllocatedBytes(threadId);
+        overhead = threads.getThreadAllocatedBytes(threadId) - overhead;
+        long before = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_FRAMES; i++) {
+            frame.run(WARMUP_FRAMES + i);
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before - overhead;
+        // NOTE: A few hundred one-off bytes (JIT) are tolerated, any per-frame allocation is not
+        return new long[] {nanos / MEASURED_FRAMES, allocated / MEASURED_FRAMES};
+    }
+
+    private static int expect(boolean ok, String what) {
+        if (!ok) {
+            System.out.println("FAILED: " + what);
+        }
+        return ok ? 0 : 1;
+    }
+}
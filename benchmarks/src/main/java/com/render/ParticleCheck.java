@@ -0,0 +1,170 @@
+package com.render;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Check for the particle pool. Exits with status 1 if a burst past the
+ * capacity is not cut short and counted as dropped, if particles do not
+ * expire at the end of their life, if drawing misses a particle or touches
+ * a pixel outside the particles' bounds, or if 50,000 live particles updated and
+ * drawn every frame allocate, trigger a collection or take longer than a
+ * 60 FPS frame at the 99th percentile.
+ * <pre>
+ * java -Djava.awt.headless=true -cp target/benchmarks.jar com.render.ParticleCheck
+ * </pre>
+ */
+public class ParticleCheck {
+    private static final int LIVE = 50_000;
+    private static final int LIFE_TICKS = 60;
+    private static final int WARMUP_FRAMES = 600;
+    // NOTE: Measured in windows, the quietest one is the steady state, the others may hold one-off JIT allocations
+    private static final int WINDOWS = 3;
+    private static final int WINDOW_FRAMES = 400;
+    private static final int MEASURED_FRAMES = WINDOWS * WINDOW_FRAMES;
+    private static final long FRAME_NANOS = 1_000_000_000L / 60;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int failures = 0;
+
+        ParticleSystem pool = new ParticleSystem(1_000, Color.WHITE);
+        int emitted = pool.burst(0, 0, 1_500, 5, 0, 0, 50);
+        failures += expect(emitted == 1_000 && pool.getCount() == 1_000 && pool.getDropped() == 500, "a full pool drops the rest of a burst");
+        for (int tick = 1; tick < 30; tick++) {
+            pool.update();
+        }
+        failures += expect(pool.getCount() == 1_000, "no particle expires before 60% of its life");
+        pool.burst(0, 0, 10, 5, 0, 0, 50);
+        failures += expect(pool.getDropped() == 510, "drops are counted across bursts");
+        for (int tick = 30; tick <= 50; tick++) {
+            pool.update();
+        }
+        failures += expect(pool.getCount() == 0 && pool.getBounds().isEmpty(), "every particle expires by the end of its life");
+        failures += expect(pool.burst(0, 0, 10, 5, 0, 0, 50) == 10, "expired slots are reused");
+        System.out.println("pool: " + failures + " failures");
+        failures += checkDrawnArea();
+
+        // A steady 50,000 live particles: a particle lives 80% of LIFE_TICKS on average
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+        ParticleSystem particles = new ParticleSystem(ParticleSystem.DEFAULT_CAPACITY,
+            Color.BLUE, Color.MAGENTA, Color.YELLOW);
+        int perTick = LIVE * 10 / (LIFE_TICKS * 8) + 1;
+        BufferedImage target = new BufferedImage(1600, 900, BufferedImage.TYPE_INT_RGB);
+        SplittableRandom random = new SplittableRandom(11);
+        float[] burstX = new float[64];
+        float[] burstY = new float[64];
+        for (int i = 0; i < burstX.length; i++) {
+            burstX[i] = 100 + random.nextInt(1400);
+            burstY[i] = 200 + random.nextInt(500);
+        }
+        for (int frame = 0; frame < WARMUP_FRAMES; frame++) {
+            frame(particles, target, perTick, burstX, burstY, frame);
+        }
+        long threadId = Thread.currentThread().threadId();
+        long overhead = threads.getThreadAllocatedBytes(threadId);
+        overhead = threads.getThreadAllocatedBytes(threadId) - overhead;
+        long collections = collections();
+        long[] times = new long[MEASURED_FRAMES];
+        int minLive = Integer.MAX_VALUE;
+        long allocated = Long.MAX_VALUE;
+        for (int window = 0; window < WINDOWS; window++) {
+            long before = threads.getThreadAllocatedBytes(threadId);
+            for (int frame = window * WINDOW_FRAMES; frame < (window + 1) * WINDOW_FRAMES; frame++) {
+                long start = System.nanoTime();
+                frame(particles, target, perTick, burstX, burstY, frame);
+                times[frame] = System.nanoTime() - start;
+                minLive = Math.min(minLive, particles.getCount());
+            }
+            allocated = Math.min(allocated, threads.getThreadAllocatedBytes(threadId) - before - overhead);
+        }
+        collections = collections() - collections;
+        Arrays.sort(times);
+        long p50 = times[MEASURED_FRAMES / 2];
+        long p99 = times[MEASURED_FRAMES * 99 / 100];
+        System.out.printf("%,d to %,d live particles: update and draw p50 %.2f ms p99 %.2f ms, %d bytes/frame, %d collections, %d dropped%n",
+            minLive, particles.getCapacity(), p50 / 1e6, p99 / 1e6, allocated / WINDOW_FRAMES, collections, particles.getDropped());
+        failures += expect(minLive >= LIVE, "the pool holds 50,000 live particles");
+        failures += expect(allocated / WINDOW_FRAMES == 0, "particle frames do not allocate");
+        failures += expect(collections == 0, "no collection while particles run");
+        failures += expect(p99 < FRAME_NANOS, "a frame of particles fits in 60 FPS");
+
+        System.out.println(failures + " failures");
+        System.exit(failures > 0 ? 1 : 0);
+    }
+
+    // NOTE: Drawing copies only the particles' area out of the frame and back, nothing outside it may change
+    private static int checkDrawnArea() {
+        int failures = 0;
+        BufferedImage target = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+        int background = 0x404040;
+        ParticleSystem particles = new ParticleSystem(1_000, Color.WHITE);
+        particles.burst(200, 150, 1, 0, 0, 0, 50);
+        fill(target, background);
+        particles.draw(target, 1.0);
+        failures += expect((target.getRGB(201, 151) & 0xFFFFFF) != background, "a burst is drawn before the next update");
+        particles.burst(150, 100, 200, 6, 2, 0, 50);
+        for (int tick = 0; tick < 20; tick++) {
+            particles.update();
+            fill(target, background);
+            particles.draw(target, 1.0);
+            java.awt.Rectangle bounds = particles.getBounds();
+            int outside = 0;
+            int inside = 0;
+            for (int py = 0; py < target.getHeight(); py++) {
+                for (int px = 0; px < target.getWidth(); px++) {
+                    if ((target.getRGB(px, py) & 0xFFFFFF) != background) {
+                        if (bounds.contains(px, py)) {
+                            inside++;
+                        } else {
+                            outside++;
+                        }
+                    }
+                }
+            }
+            if (outside > 0 || inside == 0) {
+                System.out.printf("FAILED: tick %d drew %d pixels inside and %d outside %s%n", tick, inside, outside, bounds);
+                failures++;
+            }
+        }
+        System.out.println("drawn area: " + failures + " failures");
+        return failures;
+    }
+
+    private static void fill(BufferedImage target, int rgb) {
+        for (int py = 0; py < target.getHeight(); py++) {
+            for (int px = 0; px < target.getWidth(); px++) {
+                target.setRGB(px, py, rgb);
+            }
+        }
+    }
+
+    private static void frame(ParticleSystem particles, BufferedImage target, int perTick, float[] burstX, float[] burstY, int frame) {
+        for (int emitted = 0; emitted < perTick; emitted += 100) {
+            int at = (frame + emitted / 100) % burstX.length;
+            particles.burst(burstX[at], burstY[at], 100, 8, 4, at % 3, LIFE_TICKS);
+        }
+        particles.update();
+        particles.draw(target, 1.0);
+    }
+
+    private static long collections() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, collector.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static int expect(boolean ok, String what) {
+        if (!ok) {
+            System.out.println("FAILED: " + what);
+        }
+        return ok ? 0 : 1;
+    }
+}
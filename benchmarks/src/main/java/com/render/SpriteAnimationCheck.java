@@ -0,0 +1,197 @@
+package com.render;
+
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+/**
+ * Check for the sprite animations. Exits with status 1 if a timing table
+ * shows a different frame at any tick than the clip's frame rate gives, if
+ * the state machine leaves a clip at the wrong tick, if advancing does not
+ * report every change of the sprite on screen (the first frame of an attack,
+ * a death or a reset included), or if advancing a thousand animated slimes
+ * allocates in steady state.
+ * <pre>
+ * java -Djava.awt.headless=true -cp target/benchmarks.jar com.render.SpriteAnimationCheck
+ * </pre>
+ */
+public class SpriteAnimationCheck {
+    private static final int TICK_RATE = 60;
+    private static final int SLIMES = 1_000;
+    private static final int WARMUP_TICKS = 5_000;
+    private static final int MEASURED_TICKS = 20_000;
+
+    public static void main(String[] args) {
+        int failures = 0;
+
+        SpriteAnimation player = new SpriteAnimation("/images/player", TICK_RATE);
+        SpriteAnimation enemy = new SpriteAnimation("/images/enemy", TICK_RATE);
+        System.out.printf("player %d sprites, enemy %d sprites%n", player.getSpriteCount(), enemy.getSpriteCount());
+        if (player.getSpriteCount() != 15 || enemy.getSpriteCount() != 15) {
+            System.out.println("FAILED: expected 4 idle, 6 run and 5 die frames per slime");
+            failures++;
+        }
+
+        // Rates that do and do not divide the tick rate
+        int[][] rates = {
+            {SpriteAnimation.IDLE_FPS, SpriteAnimation.ATTACK_FPS, SpriteAnimation.DIE_FPS},
+            {7, 24, 13},
+            {1, 60, 90}
+        };
+        for (int[] fps : rates) {
+            failures += checkTiming(new SpriteAnimation("/images/player", TICK_RATE, fps), fps, new int[] {4, 6, 5});
+        }
+        failures += checkStateMachine(player);
+        failures += checkReportedChanges(player);
+
+        // A crowd stepped like the game loop steps its slimes
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+        SplittableRandom random = new SplittableRandom(3);
+        SpriteAnimator[] crowd = new SpriteAnimator[SLIMES];
+        for (int i = 0; i < SLIMES; i++) {
+            crowd[i] = new SpriteAnimator(i % 2 == 0 ? player : enemy, random.nextInt(40));
+        }
+        int[] events = new int[MEASURED_TICKS];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = random.nextInt(SLIMES * 4);
+        }
+        long changed = step(crowd, events, 0, WARMUP_TICKS);
+        long threadId = Thread.currentThread().threadId();
+        long overhead = threads.getThreadAllocatedBytes(threadId);
+        overhead = threads.getThreadAllocatedBytes(threadId) - overhead;
+        long before = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        changed += step(crowd, events, WARMUP_TICKS, MEASURED_TICKS);
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before - overhead;
+        System.out.printf("%d slimes: %.1f us per tick, %d bytes/tick (%d bytes over %d ticks), %d sprite changes%n",
+            SLIMES, nanos / 1e3 / MEASURED_TICKS, allocated / MEASURED_TICKS, allocated, MEASURED_TICKS, changed);
+        if (allocated / MEASURED_TICKS > 0) {
+            System.out.println("FAILED: advancing the animations allocates");
+            failures++;
+        }
+
+        System.out.println(failures + " failures");
+        System.exit(failures > 0 ? 1 : 0);
+    }
+
+    // NOTE: Frame n of a clip is on screen from tick ceil(n * tickRate / fps) on
+    private static int checkTiming(SpriteAnimation animation, int[] fps, int[] frames) {
+        int failures = 0;
+        int first = 0;
+        for (int state = 0; state < frames.length; state++) {
+            for (long tick = 0; tick < 10_000; tick++) {
+                long frame = tick * fps[state] / TICK_RATE;
+                long expected = first + (state == SpriteAnimation.IDLE ? frame % frames[state] : Math.min(frame, frames[state] - 1));
+                if (animation.spriteAt(state, tick) != expected) {
+                    if (failures++ < 5) {
+                        System.out.printf("FAILED: state %d at %d fps shows sprite %d at tick %d, expected %d%n",
+                            state, fps[state], animation.spriteAt(state, tick), tick, expected);
+                    }
+                }
+            }
+            first += frames[state];
+        }
+        System.out.printf("timing at %d/%d/%d fps: %d failures%n", fps[0], fps[1], fps[2], failures);
+        return failures;
+    }
+
+    private static int checkStateMachine(SpriteAnimation animation) {
+        int failures = 0;
+        int attackTicks = animation.getDurationTicks(SpriteAnimation.ATTACK);
+        SpriteAnimator animator = new SpriteAnimator(animation, 7);
+        animator.reset(100);
+        animator.advance(100);
+        failures += expect(animator.getSprite() == animation.spriteAt(SpriteAnimation.IDLE, 7), "idle starts at its phase");
+
+        animator.attack(110);
+        for (long tick = 110; tick < 110 + attackTicks; tick++) {
+            animator.advance(tick);
+            failures += expect(animator.getState() == SpriteAnimation.ATTACK
+                && animator.getSprite() == animation.spriteAt(SpriteAnimation.ATTACK, tick - 110), "attack plays frame-accurately");
+        }
+        animator.advance(110 + attackTicks);
+        failures += expect(animator.getState() == SpriteAnimation.IDLE
+            && animator.getSprite() == animation.spriteAt(SpriteAnimation.IDLE, 110 + attackTicks - 100 + 7), "attack returns to the idle loop in phase");
+
+        animator.die(200);
+        animator.attack(201);
+        animator.advance(10_000);
+        failures += expect(animator.getState() == SpriteAnimation.DIE
+            && animator.getSprite() == animation.getSpriteCount() - 1, "die holds its last frame and ignores attacks");
+        animator.reset(10_001);
+        animator.advance(10_001);
+        failures += expect(animator.getState() == SpriteAnimation.IDLE, "reset revives");
+        System.out.println("state machine: " + failures + " failures");
+        return failures;
+    }
+
+    // NOTE: The game loop only redraws a sprite when advance says it changed, any unreported change is a stale frame on screen
+    private static int checkReportedChanges(SpriteAnimation animation) {
+        int failures = 0;
+        SplittableRandom random = new SplittableRandom(11);
+        SpriteAnimator animator = new SpriteAnimator(animation, 5);
+        animator.advance(0);
+        for (long tick = 1; tick < 100_000; tick++) {
+            int shown = animator.getSprite();
+            int event = random.nextInt(40);
+            if (event == 0) {
+                animator.attack(tick);
+            } else if (event == 1) {
+                animator.die(tick);
+            } else if (event == 2) {
+                animator.reset(tick);
+            }
+            boolean reported = animator.advance(tick);
+            if (reported != (animator.getSprite() != shown)) {
+                if (failures++ < 5) {
+                    System.out.printf("FAILED: tick %d, event %d: sprite %d -> %d, advance returned %b%n",
+                        tick, event, shown, animator.getSprite(), reported);
+                }
+            }
+        }
+        animator.reset(200_000);
+        animator.advance(200_000);
+        int idle = animator.getSprite();
+        animator.attack(200_001);
+        failures += expect(animator.getSprite() == idle, "attack leaves the sprite to advance");
+        failures += expect(animator.advance(200_001) && animator.getSprite() == animation.spriteAt(SpriteAnimation.ATTACK, 0),
+            "the first attack frame is reported");
+        System.out.println("reported changes: " + failures + " failures");
+        return failures;
+    }
+
+    private static int expect(boolean ok, String what) {
+        if (!ok) {
+            System.out.println("FAILED: " + what);
+        }
+        return ok ? 0 : 1;
+    }
+
+    private static long step(SpriteAnimator[] crowd, int[] events, int from, int ticks) {
+        long changed = 0;
+        for (int tick = from; tick < from + ticks; tick++) {
+            int event = events[tick % events.length];
+            SpriteAnimator target = crowd[event % crowd.length];
+            switch (event / crowd.length) {
+                case 0:
+                    target.attack(tick);
+                    break;
+                case 1:
+                    target.die(tick);
+                    break;
+                case 2:
+                    target.reset(tick);
+                    break;
+                default:
+                    break;
+            }
+            for (SpriteAnimator animator : crowd) {
+                if (animator.advance(tick)) {
+                    changed++;
+                }
+            }
+        }
+        return changed;
+    }
+}
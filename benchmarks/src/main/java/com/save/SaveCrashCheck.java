@@ -0,0 +1,279 @@
+package com.save;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Crash-safety check for the save files. It writes a save, then rebuilds the
+ * directory as a crash could have left it: the journal cut at every byte,
+ * a flipped byte in a record, a crash between the checkpoint rename and the
+ * journal truncation, a half-written checkpoint temp file, and a journal
+ * with an unrecognised header, which must be backed up unchanged. Every load
+ * must come back with exactly the records that were complete, never more,
+ * never fewer and never a duplicate. It also checks that the time the player
+ * was last seen is read from the save whatever the files' dates, and that a
+ * format 1 save still loads. Exits with status 1 on any failure.
+ * <pre>
+ * java -cp target/benchmarks.jar com.save.SaveCrashCheck
+ * </pre>
+ */
+public class SaveCrashCheck {
+    private static final int ROUNDS = 12;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path root = Files.createTempDirectory("slime-save-check");
+        // Every torn journal below logs what it dropped, only the verdicts matter here
+        PrintStream err = System.err;
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+        int failures = 0;
+        int cases = 0;
+        try {
+            // Journal only, cut at every byte
+            Path full = root.resolve("full");
+            byte[] journal = writeRounds(full, 0, ROUNDS, false);
+            int[] recordEnds = recordEnds(journal);
+            for (int cut = 0; cut <= journal.length; cut++) {
+                int complete = 0;
+                while (complete < recordEnds.length && recordEnds[complete] <= cut) {
+                    complete++;
+                }
+                Path dir = root.resolve("cut" + cut);
+                Files.createDirectories(dir);
+                Files.write(dir.resolve(SaveFile.JOURNAL_NAME), Arrays.copyOf(journal, cut));
+                failures += expect("cut at " + cut, dir, complete);
+                cases++;
+            }
+
+            // A flipped byte in the middle of record 5 drops it and everything after
+            for (int offset = recordEnds[4]; offset < recordEnds[5]; offset++) {
+                Path dir = root.resolve("flip" + offset);
+                Files.createDirectories(dir);
+                byte[] corrupt = journal.clone();
+                corrupt[offset] ^= 0x10;
+                Files.write(dir.resolve(SaveFile.JOURNAL_NAME), corrupt);
+                failures += expect("flipped byte " + offset, dir, 5);
+                cases++;
+            }
+
+            // Checkpoint renamed into place but the old journal never truncated, then two more rounds
+            Path stale = root.resolve("stale");
+            byte[] beforeCheckpoint = writeRounds(stale, 0, ROUNDS, false);
+            SaveFile reopened = SaveFile.open(stale);
+            reopened.checkpoint();
+            reopened.close();
+            Files.write(stale.resolve(SaveFile.JOURNAL_NAME), beforeCheckpoint);
+            failures += expect("stale journal", stale, ROUNDS);
+            writeRounds(stale, ROUNDS, 2, false);
+            failures += expect("stale journal then more rounds", stale, ROUNDS + 2);
+            cases += 2;
+
+            // Checkpoint temp file cut short, the real checkpoint and journal stay authoritative
+            Path temp = root.resolve("temp");
+            writeRounds(temp, 0, ROUNDS, true);
+            Files.write(temp.resolve(SaveFile.CHECKPOINT_NAME + ".tmp"), new byte[] {'S', 'L', 'S'});
+            writeRounds(temp, ROUNDS, 3, false);
+            failures += expect("torn temp file", temp, ROUNDS + 3);
+            cases++;
+
+            // A journal with a header this version does not recognise is kept aside, the save starts over
+            Path foreign = root.resolve("foreign");
+            Files.createDirectories(foreign);
+            byte[] unknown = journal.clone();
+            unknown[0] ^= 0x10;
+            Files.write(foreign.resolve(SaveFile.JOURNAL_NAME), unknown);
+            failures += expect("unrecognised header", foreign, 0);
+            byte[] backup;
+            try (Stream<Path> files = Files.list(foreign)) {
+                Path moved = files.filter(path -> path.getFileName().toString().startsWith(SaveFile.JOURNAL_NAME + ".unreadable-"))
+                    .findFirst().orElse(null);
+                backup = moved == null ? null : Files.readAllBytes(moved);
+            }
+            if (!Arrays.equals(unknown, backup)) {
+                System.out.println("FAILED unrecognised header: " + (backup == null ? "no backup" : "backup differs"));
+                failures++;
+            }
+            cases++;
+
+            // The time the player was last seen comes from the save, not from the files' dates
+            Path seen = root.resolve("seen");
+            long before = System.currentTimeMillis();
+            writeRounds(seen, 0, ROUNDS, false);
+            long after = System.currentTimeMillis();
+            setModified(seen, 0);
+            failures += expectSeen("journal records", seen, before, after);
+            Thread.sleep(5);
+            before = System.currentTimeMillis();
+            SaveFile.open(seen).close();
+            after = System.currentTimeMillis();
+            setModified(seen, 0);
+            failures += expectSeen("exit without changes", seen, before, after);
+            cases += 2;
+
+            // A format 1 save, checkpoint plus journal, dated by its files and upgraded on load
+            Path old = root.resolve("format1");
+            writeFormat1(old, ROUNDS, 2);
+            Files.setLastModifiedTime(old.resolve(SaveFile.CHECKPOINT_NAME), FileTime.fromMillis(1_000_000));
+            Files.setLastModifiedTime(old.resolve(SaveFile.JOURNAL_NAME), FileTime.fromMillis(2_000_000));
+            failures += expectSeen("format 1", old, 2_000_000, 2_000_000);
+            failures += expect("format 1", old, ROUNDS + 2);
+            writeRounds(old, ROUNDS + 2, 3, false);
+            failures += expect("format 1 then more rounds", old, ROUNDS + 5);
+            cases += 3;
+
+            // Several automatic checkpoints along the way
+            Path longSave = root.resolve("long");
+            writeRounds(longSave, 0, SaveFile.CHECKPOINT_INTERVAL * 2 + 7, false);
+            failures += expect("past two checkpoints", longSave, SaveFile.CHECKPOINT_INTERVAL * 2 + 7);
+            cases++;
+        } finally {
+            System.setErr(err);
+            try (Stream<Path> files = Files.walk(root)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+
+        System.out.printf("%d crash cases: %d failures%n", cases, failures);
+        System.exit(failures > 0 ? 1 : 0);
+    }
+
+    /**
+     * Appends rounds to the save in a directory
+     * @param first index of the first round, round i leaves i + 1 rounds won
+     * @param close true to close with a checkpoint, false to leave everything in the journal as a crash would
+     * @return the journal's bytes afterwards
+     */
+    static byte[] writeRounds(Path dir, int first, int rounds, boolean close) throws IOException {
+        SaveFile save = SaveFile.open(dir);
+        for (int i = first; i < first + rounds; i++) {
+            save.recordRound(progressAfter(i + 1), i + 1, i % 3 != 2, i + 4);
+        }
+        if (close) {
+            save.close();
+        } else {
+            save.closeWithoutCheckpoint();
+        }
+        return Files.readAllBytes(dir.resolve(SaveFile.JOURNAL_NAME));
+    }
+
+    static Progress progressAfter(int rounds) {
+        return new Progress(rounds * 4, rounds, 100 + rounds * 20, 10 + rounds * 5.0, 1.1 + rounds * 0.1);
+    }
+
+    // NOTE: Offsets just past each record, parsed from the length prefixes
+    private static int[] recordEnds(byte[] journal) {
+        ByteBuffer in = ByteBuffer.wrap(journal);
+        int[] ends = new int[ROUNDS];
+        int position = 8;
+        for (int i = 0; i < ROUNDS; i++) {
+            position += 4 + in.getInt(position) + 4;
+            ends[i] = position;
+        }
+        return ends;
+    }
+
+    private static int expect(String scenario, Path dir, int rounds) {
+        try {
+            SaveFile save = SaveFile.open(dir);
+            Progress progress = save.getProgress();
+            RoundHistory history = save.getHistory();
+            String problem = null;
+            if (rounds == 0 && progress != null) {
+                problem = "expected no progress";
+            } else if (rounds > 0 && !matches(progress, progressAfter(rounds))) {
+                problem = "progress of " + (progress == null ? "nothing" : progress.getRoundsWon() + " rounds");
+            } else if (history.size() != rounds) {
+                problem = history.size() + " rounds in history";
+            } else {
+                for (int i = 0; i < rounds && problem == null; i++) {
+                    if (history.getLevel(i) != i + 1 || history.isWon(i) != (i % 3 != 2) || history.getReward(i) != i + 4) {
+                        problem = "round " + i + " differs";
+                    }
+                }
+            }
+            save.close();
+            if (problem != null) {
+                System.out.println("FAILED " + scenario + ": " + problem + ", expected " + rounds + " rounds");
+                return 1;
+            }
+            return 0;
+        } catch (IOException e) {
+            System.out.println("FAILED " + scenario + ": " + e);
+            return 1;
+        }
+    }
+
+    private static int expectSeen(String scenario, Path dir, long from, long to) {
+        try {
+            SaveFile save = SaveFile.open(dir);
+            long seen = save.getLastSeenMillis();
+            save.closeWithoutCheckpoint();
+            if (seen < from || seen > to) {
+                System.out.println("FAILED " + scenario + ": last seen at " + seen + ", expected " + from + " to " + to);
+                return 1;
+            }
+            return 0;
+        } catch (IOException e) {
+            System.out.println("FAILED " + scenario + ": " + e);
+            return 1;
+        }
+    }
+
+    private static void setModified(Path dir, long millis) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(millis));
+            }
+        }
+    }
+
+    // NOTE: Written byte by byte as the first format laid it out, without the times
+    private static void writeFormat1(Path dir, int checkpointed, int journaled) throws IOException {
+        Files.createDirectories(dir);
+        CRC32 crc = new CRC32();
+        ByteBuffer out = ByteBuffer.allocate(4096);
+        out.putInt(0x534C5356).putShort((short) 1).putShort((short) 0).putLong(checkpointed);
+        putFormat1Progress(out, progressAfter(checkpointed));
+        out.putInt(checkpointed);
+        for (int i = 0; i < checkpointed; i++) {
+            out.put((byte) ((i + 1) << 1 | (i % 3 != 2 ? 1 : 0))).put((byte) (i + 4));
+        }
+        crc.update(out.array(), 0, out.position());
+        out.putInt((int) crc.getValue());
+        Files.write(dir.resolve(SaveFile.CHECKPOINT_NAME), Arrays.copyOf(out.array(), out.position()));
+
+        out.clear();
+        out.putInt(0x534C4A4E).putShort((short) 1).putShort((short) 0);
+        for (int i = checkpointed; i < checkpointed + journaled; i++) {
+            int start = out.position();
+            out.putInt(0).putLong(i + 1).put((byte) 2);
+            putFormat1Progress(out, progressAfter(i + 1));
+            out.putInt(i + 1).put((byte) (i % 3 != 2 ? 1 : 0)).putInt(i + 4);
+            int bodyLength = out.position() - start - 4;
+            out.putInt(start, bodyLength);
+            crc.reset();
+            crc.update(out.array(), start + 4, bodyLength);
+            out.putInt((int) crc.getValue());
+        }
+        Files.write(dir.resolve(SaveFile.JOURNAL_NAME), Arrays.copyOf(out.array(), out.position()));
+    }
+
+    private static void putFormat1Progress(ByteBuffer out, Progress progress) {
+        out.putInt(progress.getSkillPoints()).putInt(progress.getRoundsWon()).putInt(progress.getMaxHealth())
+            .putDouble(progress.getDamage()).putDouble(progress.getAttackSpeed());
+    }
+
+    private static boolean matches(Progress a, Progress b) {
+        return a != null && a.getSkillPoints() == b.getSkillPoints() && a.getRoundsWon() == b.getRoundsWon()
+            && a.getMaxHealth() == b.getMaxHealth() && a.getDamage() == b.getDamage()
+            && a.getAttackSpeed() == b.getAttackSpeed();
+    }
+}
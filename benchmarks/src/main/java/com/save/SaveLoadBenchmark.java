@@ -0,0 +1,46 @@
+package com.save;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.*;
+
+// NOTE: Opening a save with a long round history, the checkpoint plus a journal that is almost due for the next one
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SaveLoadBenchmark {
+    @Param({"1000", "10000"})
+    int rounds;
+
+    Path dir;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("slime-save-bench");
+        int journaled = SaveFile.CHECKPOINT_INTERVAL - 1;
+        SaveCrashCheck.writeRounds(dir, 0, rounds - journaled, true);
+        SaveCrashCheck.writeRounds(dir, rounds - journaled, journaled, false);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int open() throws IOException {
+        SaveFile save = SaveFile.open(dir);
+        int loaded = save.getHistory().size();
+        save.closeWithoutCheckpoint();
+        return loaded;
+    }
+}
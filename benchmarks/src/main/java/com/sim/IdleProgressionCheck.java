@@ -0,0 +1,135 @@
+package com.sim;
+
+import com.battle.BattleEngine;
+import com.player.EnemySlime;
+import com.player.EnemyStats;
+import com.player.PlayerSlime;
+import com.player.Upgrade;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Check for the closed-form idle progression. Builds slimes with random
+ * upgrades and progress, plays the time away round by round through
+ * {@link BattleEngine}, and exits with status 1 if the closed form differs in
+ * rounds cleared, skill points, time used or why it stopped. Also times a
+ * million-round catch-up.
+ * <pre>
+ * java -cp target/benchmarks.jar com.sim.IdleProgressionCheck
+ * </pre>
+ */
+public class IdleProgressionCheck {
+    private static final int TRIALS = 3_000;
+    private static final long GAP = IdleProgression.DEFAULT_ROUND_GAP_MILLIS;
+
+    public static void main(String[] args) throws Exception {
+        SplittableRandom random = new SplittableRandom(42);
+        int failures = 0;
+        long playedRounds = 0;
+        int blocked = 0;
+
+        Path file = Files.createTempFile("enemy-stats", ".txt");
+        EnemyStats boss;
+        try {
+            Files.write(file, List.of(
+                "base      80   8.0  1.0  2",
+                "perLevel  10   2.0  0.1  2",
+                "4         400  20.0 2.0  30",
+                "9         40   4.0  0.5  1"));
+            boss = EnemyStats.load(file);
+        } finally {
+            Files.delete(file);
+        }
+
+        for (int trial = 0; trial < TRIALS; trial++) {
+            EnemyStats stats = trial % 3 == 0 ? boss : EnemyStats.getDefault();
+            PlayerSlime player = randomSlime(random);
+            long elapsed = random.nextLong(trial % 2 == 0 ? 60_000 : 2_000_000);
+
+            IdleProgression.Result result = new IdleProgression(stats, GAP).resolve(player, elapsed);
+            long[] expected = play(player, stats, elapsed);
+            playedRounds += expected[0];
+            blocked += (int) expected[3];
+            if (result.getRoundsCleared() != expected[0] || result.getSkillPointsEarned() != expected[1]
+                || result.getMillisUsed() != expected[2] || result.isBlocked() != (expected[3] == 1)) {
+                failures++;
+                if (failures <= 10) {
+                    System.out.printf("FAILED trial %d: level %d, hp %d, dmg %s, spd %s, %d ms: closed form %d rounds %d points %d ms blocked %b, played %d rounds %d points %d ms blocked %b%n",
+                        trial, player.getRoundsWon() + 1, player.getMaxHealth(), player.getDamege(), player.getAttackSpeed(), elapsed,
+                        result.getRoundsCleared(), result.getSkillPointsEarned(), result.getMillisUsed(), result.isBlocked(),
+                        expected[0], expected[1], expected[2], expected[3] == 1);
+                }
+            }
+        }
+        System.out.printf("%d trials (%d stopped by a defeat, %d by the clock), %d rounds played through the engine: %d failures%n",
+            TRIALS, blocked, TRIALS - blocked, playedRounds, failures);
+
+        // Attacking faster than a millisecond, so every enemy falls at once and only the gaps take time
+        PlayerSlime champion = new PlayerSlime();
+        champion.setMaxHealth(2_000_000_000);
+        champion.setDamege(1_000);
+        champion.setAttackSpeed(2_000);
+        IdleProgression idle = new IdleProgression(EnemyStats.getDefault(), GAP);
+        long elapsed = 1_000_000L * GAP;
+        IdleProgression.Result million = null;
+        for (int i = 0; i < 20_000; i++) {
+            million = idle.resolve(champion, elapsed);
+        }
+        long start = System.nanoTime();
+        int repeats = 1_000;
+        for (int i = 0; i < repeats; i++) {
+            million = idle.resolve(champion, elapsed);
+        }
+        double micros = (System.nanoTime() - start) / 1e3 / repeats;
+        System.out.printf("million-round catch-up: %d rounds, %,d skill points in %.1f us%n",
+            million.getRoundsCleared(), million.getSkillPointsEarned(), micros);
+        if (million.getRoundsCleared() != 1_000_000 || micros >= 1000) {
+            System.out.println("FAILED: expected a million rounds in under a millisecond");
+            failures++;
+        }
+        System.exit(failures > 0 ? 1 : 0);
+    }
+
+    private static PlayerSlime randomSlime(SplittableRandom random) {
+        PlayerSlime player = new PlayerSlime();
+        player.setRoundsWon(random.nextInt(60));
+        player.addSkillPoints(random.nextInt(400));
+        Upgrade[] upgrades = Upgrade.values();
+        while (player.getSkillPoints() >= Upgrade.HEALTH.getCost()) {
+            upgrades[random.nextInt(upgrades.length)].purchase(player);
+        }
+        if (random.nextInt(4) == 0) {
+            // Damage the upgrades never give, to cover hits that do not divide the health evenly
+            player.setDamege(player.getDamege() + random.nextDouble(0.05, 0.95));
+        }
+        return player;
+    }
+
+    // NOTE: The slow way, every round through the engine until time runs out or a round is lost
+    private static long[] play(PlayerSlime template, EnemyStats stats, long elapsed) {
+        PlayerSlime player = new PlayerSlime();
+        player.setMaxHealth(template.getMaxHealth());
+        player.setDamege(template.getDamege());
+        player.setAttackSpeed(template.getAttackSpeed());
+        long rounds = 0;
+        long points = 0;
+        long used = 0;
+        for (int level = template.getRoundsWon() + 1; ; level++) {
+            EnemySlime enemy = new EnemySlime(level, stats);
+            player.resetForNewRound();
+            BattleEngine engine = new BattleEngine(player, enemy);
+            if (!engine.run()) {
+                return new long[] {rounds, points, used, 1};
+            }
+            long length = engine.getTime() + GAP;
+            if (used + length > elapsed) {
+                return new long[] {rounds, points, used, 0};
+            }
+            used += length;
+            rounds++;
+            points += enemy.getSkillPointReward();
+        }
+    }
+}
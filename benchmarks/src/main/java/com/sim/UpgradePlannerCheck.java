@@ -0,0 +1,147 @@
+package com.sim;
+
+import com.battle.BattleEngine;
+import com.player.EnemySlime;
+import com.player.EnemyStats;
+import com.player.PlayerSlime;
+import com.player.Upgrade;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Check for the upgrade planner. Gives random slimes a small budget, tries
+ * every way to spend it, playing each streak round by round through
+ * {@link BattleEngine}, and exits with status 1 if the planner's spend wins
+ * fewer rounds in a row than the best one, or a different number than it
+ * claims. Then times plans for budgets up to a million points, failing if
+ * one of a thousand points or fewer takes 50 ms.
+ * <pre>
+ * java -cp target/benchmarks.jar com.sim.UpgradePlannerCheck
+ * </pre>
+ */
+public class UpgradePlannerCheck {
+    private static final int TRIALS = 150;
+    // Streaks the brute force plays at most, far more than a small budget reaches
+    private static final int MAX_PLAYED = 2_000;
+    private static final int[] BUDGETS = {100, 300, 500, 1_000, 5_000, 1_000_000};
+
+    public static void main(String[] args) throws Exception {
+        SplittableRandom random = new SplittableRandom(7);
+        int failures = 0;
+
+        Path file = Files.createTempFile("enemy-stats", ".txt");
+        EnemyStats boss;
+        try {
+            Files.write(file, List.of(
+                "base      80   8.0  1.0  2",
+                "perLevel  10   2.0  0.1  2",
+                "6         900  12.0 1.2  40",
+                "12        150  60.0 3.0  30"));
+            boss = EnemyStats.load(file);
+        } finally {
+            Files.delete(file);
+        }
+
+        long allocations = 0;
+        for (int trial = 0; trial < TRIALS; trial++) {
+            EnemyStats stats = trial % 3 == 0 ? boss : EnemyStats.getDefault();
+            PlayerSlime player = randomSlime(random);
+            UpgradePlanner.Plan plan = new UpgradePlanner(stats).plan(player);
+
+            int best = -1;
+            int budget = player.getSkillPoints();
+            for (int attacks = 0; attacks * Upgrade.ATTACK.getCost() <= budget; attacks++) {
+                int afterAttack = budget - attacks * Upgrade.ATTACK.getCost();
+                for (int speeds = 0; speeds * Upgrade.ATTACK_SPEED.getCost() <= afterAttack; speeds++) {
+                    int afterSpeed = afterAttack - speeds * Upgrade.ATTACK_SPEED.getCost();
+                    for (int healths = 0; healths * Upgrade.HEALTH.getCost() <= afterSpeed; healths++) {
+                        best = Math.max(best, play(upgraded(player, healths, attacks, speeds), stats));
+                        allocations++;
+                    }
+                }
+            }
+            int planned = play(upgraded(player, plan.getPurchases(Upgrade.HEALTH), plan.getPurchases(Upgrade.ATTACK),
+                plan.getPurchases(Upgrade.ATTACK_SPEED)), stats);
+            if (planned != best || plan.getRoundsWon() != planned || plan.getCost() > budget) {
+                failures++;
+                if (failures <= 10) {
+                    System.out.printf("FAILED trial %d: level %d, %d SP: plan %d/%d/%d claims %d rounds, plays %d, best spend plays %d%n",
+                        trial, player.getRoundsWon() + 1, budget, plan.getPurchases(Upgrade.HEALTH), plan.getPurchases(Upgrade.ATTACK),
+                        plan.getPurchases(Upgrade.ATTACK_SPEED), plan.getRoundsWon(), planned, best);
+                }
+            }
+        }
+        System.out.printf("%d trials, %d spends played through the engine: %d failures%n", TRIALS, allocations, failures);
+
+        UpgradePlanner planner = new UpgradePlanner(EnemyStats.getDefault());
+        for (int budget : BUDGETS) {
+            PlayerSlime player = new PlayerSlime();
+            player.setRoundsWon(40);
+            player.addSkillPoints(budget);
+            UpgradePlanner.Plan plan = null;
+            for (int i = 0; i < 20; i++) {
+                plan = planner.plan(player);
+            }
+            long slowest = 0;
+            for (int i = 0; i < 20; i++) {
+                long start = System.nanoTime();
+                plan = planner.plan(player);
+                slowest = Math.max(slowest, System.nanoTime() - start);
+            }
+            double millis = slowest / 1e6;
+            System.out.printf("%,9d SP: %d health, %d attack, %d speed, %,d rounds in a row, slowest plan %.2f ms%n",
+                budget, plan.getPurchases(Upgrade.HEALTH), plan.getPurchases(Upgrade.ATTACK), plan.getPurchases(Upgrade.ATTACK_SPEED),
+                plan.getRoundsWon(), millis);
+            if (budget <= 1_000 && millis >= 50) {
+                System.out.println("FAILED: planning " + budget + " points is not interactive");
+                failures++;
+            }
+        }
+        System.exit(failures > 0 ? 1 : 0);
+    }
+
+    private static PlayerSlime randomSlime(SplittableRandom random) {
+        PlayerSlime player = new PlayerSlime();
+        player.setRoundsWon(random.nextInt(30));
+        player.addSkillPoints(random.nextInt(60));
+        Upgrade[] upgrades = Upgrade.values();
+        while (player.getSkillPoints() >= Upgrade.HEALTH.getCost()) {
+            upgrades[random.nextInt(upgrades.length)].purchase(player);
+        }
+        player.addSkillPoints(random.nextInt(25));
+        return player;
+    }
+
+    // NOTE: Buys through Upgrade.purchase so the stats add up exactly as in the game
+    private static PlayerSlime upgraded(PlayerSlime template, int healths, int attacks, int speeds) {
+        PlayerSlime player = new PlayerSlime();
+        player.setRoundsWon(template.getRoundsWon());
+        player.setMaxHealth(template.getMaxHealth());
+        player.setDamege(template.getDamege());
+        player.setAttackSpeed(template.getAttackSpeed());
+        player.addSkillPoints(template.getSkillPoints());
+        for (int i = 0; i < healths; i++) {
+            Upgrade.HEALTH.purchase(player);
+        }
+        for (int i = 0; i < attacks; i++) {
+            Upgrade.ATTACK.purchase(player);
+        }
+        for (int i = 0; i < speeds; i++) {
+            Upgrade.ATTACK_SPEED.purchase(player);
+        }
+        return player;
+    }
+
+    // NOTE: The slow way, rounds through the engine until one is lost
+    private static int play(PlayerSlime player, EnemyStats stats) {
+        for (int rounds = 0; rounds < MAX_PLAYED; rounds++) {
+            player.resetForNewRound();
+            if (!new BattleEngine(player, new EnemySlime(player.getRoundsWon() + 1 + rounds, stats)).run()) {
+                return rounds;
+            }
+        }
+        return MAX_PLAYED;
+    }
+}
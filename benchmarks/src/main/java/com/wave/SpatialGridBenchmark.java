@@ -0,0 +1,122 @@
+package com.wave;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// NOTE: One query against units scattered over the play field, grid versus scanning every unit
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpatialGridBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({"100", "1000", "10000"})
+    int units;
+
+    SpatialGrid grid;
+    float[] x;
+    float[] y;
+    float[] queryX;
+    float[] queryY;
+    int[] hits;
+    int query;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        grid = new SpatialGrid(WaveWorld.FIELD_WIDTH, WaveWorld.FIELD_HEIGHT,
+            SpatialGrid.cellSizeFor(WaveWorld.FIELD_WIDTH, WaveWorld.FIELD_HEIGHT, units), units);
+        x = new float[units];
+        y = new float[units];
+        for (int id = 0; id < units; id++) {
+            x[id] = (float) random.nextDouble(WaveWorld.FIELD_WIDTH);
+            y[id] = (float) random.nextDouble(WaveWorld.FIELD_HEIGHT);
+            grid.insert(id, x[id], y[id]);
+        }
+        queryX = new float[QUERIES];
+        queryY = new float[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queryX[i] = (float) random.nextDouble(WaveWorld.FIELD_WIDTH);
+            queryY[i] = (float) random.nextDouble(WaveWorld.FIELD_HEIGHT);
+        }
+        hits = new int[units];
+
+        // Both sides have to agree before their speed means anything
+        for (int i = 0; i < QUERIES; i++) {
+            int expected = bruteNearest(queryX[i], queryY[i]);
+            if (grid.nearest(queryX[i], queryY[i]) != expected) {
+                throw new IllegalStateException("Grid and brute force disagree on query " + i);
+            }
+            if (grid.queryRadius(queryX[i], queryY[i], WaveWorld.ATTACK_RANGE)
+                != bruteRadius(queryX[i], queryY[i], WaveWorld.ATTACK_RANGE)) {
+                throw new IllegalStateException("Grid and brute force count different hits on query " + i);
+            }
+        }
+    }
+
+    @Benchmark
+    public int nearestGrid() {
+        int i = query++ & (QUERIES - 1);
+        return grid.nearest(queryX[i], queryY[i]);
+    }
+
+    @Benchmark
+    public int nearestBrute() {
+        int i = query++ & (QUERIES - 1);
+        return bruteNearest(queryX[i], queryY[i]);
+    }
+
+    @Benchmark
+    public int radiusGrid() {
+        int i = query++ & (QUERIES - 1);
+        return grid.queryRadius(queryX[i], queryY[i], WaveWorld.ATTACK_RANGE);
+    }
+
+    @Benchmark
+    public int radiusBrute() {
+        int i = query++ & (QUERIES - 1);
+        return bruteRadius(queryX[i], queryY[i], WaveWorld.ATTACK_RANGE);
+    }
+
+    // NOTE: Nudges one unit per call, most moves stay inside their cell like a 60 Hz step does
+    @Benchmark
+    public float moveGrid() {
+        int id = query++ % units;
+        float nx = Math.min(WaveWorld.FIELD_WIDTH - 1, x[id] + 2);
+        x[id] = nx >= WaveWorld.FIELD_WIDTH - 1 ? 0 : nx;
+        grid.move(id, x[id], y[id]);
+        return x[id];
+    }
+
+    private int bruteNearest(float px, float py) {
+        int best = -1;
+        float bestDistance = Float.MAX_VALUE;
+        for (int id = 0; id < units; id++) {
+            float dx = x[id] - px;
+            float dy = y[id] - py;
+            float d = dx * dx + dy * dy;
+            if (d < bestDistance) {
+                best = id;
+                bestDistance = d;
+            }
+        }
+        return best;
+    }
+
+    private int bruteRadius(float px, float py, float radius) {
+        int count = 0;
+        float radiusSquared = radius * radius;
+        for (int id = 0; id < units; id++) {
+            float dx = x[id] - px;
+            float dy = y[id] - py;
+            if (dx * dx + dy * dy <= radiusSquared) {
+                hits[count++] = id;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,56 @@
+package com.wave;
+
+import com.player.EnemySlime;
+import com.player.PlayerSlime;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// NOTE: One 60 Hz tick of a wave that never ends, half army and half horde
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WaveBenchmark {
+    @Param({"1000", "10000", "100000"})
+    int units;
+
+    @Param({"1", "4"})
+    int threads;
+
+    ForkJoinPool pool;
+    WaveWorld world;
+    long tick;
+
+    @Setup
+    public void setup() {
+        pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        world = new WaveWorld(units, pool);
+
+        // Endless health so every measured tick has live attackers on both sides
+        PlayerSlime army = new PlayerSlime();
+        army.setMaxHealth(Integer.MAX_VALUE);
+        army.setHealth(Integer.MAX_VALUE);
+        EnemySlime horde = new EnemySlime(1);
+        horde.setMaxHealth(Integer.MAX_VALUE);
+        horde.setHealth(Integer.MAX_VALUE);
+        world.spawn(WaveWorld.PLAYER_TEAM, army, 1, units / 2);
+        world.spawn(WaveWorld.ENEMY_TEAM, horde, 1, units - units / 2);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public long tick() {
+        tick++;
+        world.tick(tick * 1000 / 60 - (tick - 1) * 1000 / 60);
+        return world.getTime();
+    }
+}
@@ -0,0 +1,236 @@
+package com.asset;
+
+import com.perf.AssetLoadEvent;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.imageio.ImageIO;
+
+/**
+ * Process-wide image cache. Every resource under {@code /images} is decoded
+ * once, converted to the screen's compatible pixel format (so Java2D can keep
+ * it accelerated as a managed image) and, on request, pre-scaled to the size
+ * it is drawn at so painting becomes a plain 1:1 blit. Sprite frames are
+ * copied out of the packed {@link SpriteAtlas} without a decode.
+ * <p>
+ * Entries are evicted least-recently-used once their pixel memory exceeds the
+ * budget, {@code -Dslime.assetCacheMB} (256 MB by default).
+ */
+public class AssetCache {
+    private static final AssetCache INSTANCE = new AssetCache(Long.getLong("slime.assetCacheMB", 256) * 1024 * 1024);
+
+    private final long budgetBytes;
+    private final LinkedHashMap<String, BufferedImage> images;
+    private long usedBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    AssetCache(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+        this.images = new LinkedHashMap<>(64, 0.75f, true);
+    }
+
+    public static AssetCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Gets a decoded image in the display-compatible format
+     * @param path classpath resource, e.g. /images/player/idle/idle_00.png
+     * @return the image, or null if it could not be loaded
+     */
+    public BufferedImage getImage(String path) {
+        BufferedImage cached = lookup(path);
+        if (cached != null) {
+            return cached;
+        }
+        AssetLoadEvent load = new AssetLoadEvent();
+        load.begin();
+        // NOTE: Sprite frames come from the packed atlas, copied out of its shared raster into a compatible image of their own
+        String source = AssetLoadEvent.ATLAS;
+        BufferedImage image = toCompatible(SpriteAtlas.getDefault().getFrame(path));
+        if (image == null) {
+            source = AssetLoadEvent.DECODE;
+            image = toCompatible(decode(path));
+        }
+        if (image != null) {
+            store(path, image);
+            commitLoad(load, path, source, image);
+        }
+        return image;
+    }
+
+    /**
+     * Gets an image pre-scaled to the size it is drawn at. Scaling uses the
+     * same nearest-neighbour filter as an unhinted drawImage, so the result
+     * looks exactly like scaling on every paint.
+     * @param path classpath resource
+     * @param width target width in pixels
+     * @param height target height in pixels
+     * @return the scaled image, or null if it could not be loaded
+     */
+    public BufferedImage getScaled(String path, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+        String key = path + "@" + width + "x" + height;
+        BufferedImage cached = peek(key);
+        if (cached != null) {
+            record(true);
+            return cached;
+        }
+        // NOTE: An image already at the size is never stored under the scaled key, looking the source up is this request's hit or miss
+        BufferedImage source = getImage(path);
+        if (source == null) {
+            return null;
+        }
+        if (source.getWidth() == width && source.getHeight() == height) {
+            return source;
+        }
+        record(false);
+        AssetLoadEvent load = new AssetLoadEvent();
+        load.begin();
+        BufferedImage scaled = createCompatibleImage(width, height);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        store(key, scaled);
+        commitLoad(load, key, AssetLoadEvent.SCALE, scaled);
+        return scaled;
+    }
+    
+    private static void commitLoad(AssetLoadEvent load, String path, String source, BufferedImage image) {
+        load.end();
+        if (load.shouldCommit()) {
+            load.path = path;
+            load.source = source;
+            load.width = image.getWidth();
+            load.height = image.getHeight();
+            load.bytes = sizeOf(image);
+            load.commit();
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     *
+     * @return one-line summary of the cache counters
+     */
+    public synchronized String getStats() {
+        long lookups = hits + misses;
+        return String.format("AssetCache: %d entries, %.1f/%.1f MB, %d hits, %d misses (%.1f%% hit rate), %d evictions",
+            images.size(), usedBytes / 1048576.0, budgetBytes / 1048576.0, hits, misses,
+            lookups == 0 ? 0.0 : hits * 100.0 / lookups, evictions);
+    }
+
+    public synchronized void clear() {
+        images.clear();
+        usedBytes = 0;
+    }
+
+    private synchronized BufferedImage lookup(String key) {
+        BufferedImage image = images.get(key);
+        record(image != null);
+        return image;
+    }
+
+    // NOTE: Marks the entry recently used without counting a hit or miss
+    private synchronized BufferedImage peek(String key) {
+        return images.get(key);
+    }
+
+    private synchronized void record(boolean hit) {
+        if (hit) {
+            hits++;
+        } else {
+            misses++;
+        }
+    }
+
+    private synchronized void store(String key, BufferedImage image) {
+        BufferedImage previous = images.put(key, image);
+        if (previous != null) {
+            usedBytes -= sizeOf(previous);
+        }
+        usedBytes += sizeOf(image);
+
+        // NOTE: Evict least recently used entries, but never the one just stored
+        Iterator<Map.Entry<String, BufferedImage>> it = images.entrySet().iterator();
+        while (usedBytes > budgetBytes && it.hasNext()) {
+            Map.Entry<String, BufferedImage> eldest = it.next();
+            if (eldest.getKey().equals(key)) {
+                continue;
+            }
+            usedBytes -= sizeOf(eldest.getValue());
+            it.remove();
+            evictions++;
+        }
+    }
+
+    private static long sizeOf(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * 4;
+    }
+
+    private BufferedImage decode(String path) {
+        try (InputStream in = AssetCache.class.getResourceAsStream(path)) {
+            if (in == null) {
+                System.err.println("Missing image resource: " + path);
+                return null;
+            }
+            return ImageIO.read(in);
+        } catch (Exception e) {
+            System.err.println("Error loading image " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static BufferedImage toCompatible(BufferedImage image) {
+        if (image == null) {
+            return null;
+        }
+        BufferedImage compatible = createCompatibleImage(image.getWidth(), image.getHeight());
+        Graphics2D g = compatible.createGraphics();
+        try {
+            g.drawImage(image, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return compatible;
+    }
+
+    private static BufferedImage createCompatibleImage(int width, int height) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+        GraphicsConfiguration config = GraphicsEnvironment.getLocalGraphicsEnvironment()
+            .getDefaultScreenDevice().getDefaultConfiguration();
+        return config.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+}
@@ -0,0 +1,128 @@
+package com.asset;
+
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decodes the images the panels declare they need in parallel, one virtual
+ * thread per file, into the shared {@link AssetCache}. Panels ask for the
+ * futures of the assets they need instead of decoding on the Event Dispatch
+ * Thread. Anything else is decoded on demand when first asked for, so images
+ * no panel shows (e.g. the other resolution's backgrounds) never take up the
+ * cache's budget.
+ * <p>
+ * Startup milestones are logged relative to JVM start: the first frame of the
+ * loading screen and the moment the menu becomes interactive.
+ */
+public class AssetLoader {
+    private final AssetCache cache;
+    private final Map<String, CompletableFuture<BufferedImage>> futures;
+    private final AtomicInteger loaded;
+    private final AtomicBoolean firstFrameLogged;
+    private final AtomicBoolean interactiveLogged;
+    private final ExecutorService executor;
+    private int total;
+
+    public AssetLoader(AssetCache cache) {
+        this.cache = cache;
+        this.futures = new ConcurrentHashMap<>();
+        this.loaded = new AtomicInteger();
+        this.firstFrameLogged = new AtomicBoolean();
+        this.interactiveLogged = new AtomicBoolean();
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Starts decoding the images, returns immediately
+     * @param required classpaths of the images the panels need, duplicates are decoded once
+     * @return this loader
+     */
+    public AssetLoader start(Collection<String> required) {
+        Collection<String> paths = new LinkedHashSet<>(required);
+        total = paths.size();
+        long startTime = System.nanoTime();
+
+        for (String path : paths) {
+            CompletableFuture<BufferedImage> future = CompletableFuture.supplyAsync(() -> {
+                BufferedImage image = cache.getImage(path);
+                loaded.incrementAndGet();
+                return image;
+            }, executor);
+            futures.put(path, future);
+        }
+
+        allLoaded().thenRun(() -> {
+            long loadMillis = (System.nanoTime() - startTime) / 1_000_000;
+            System.out.println("[startup] " + total + " images decoded in " + loadMillis + " ms");
+        });
+        return this;
+    }
+
+    /**
+     * Gets the future of one image. Paths that are not part of the preload
+     * are decoded on demand on a virtual thread.
+     * @param path classpath resource, e.g. /images/player/idle/idle_00.png
+     * @return future completing with the image, or null if it failed to load
+     */
+    public CompletableFuture<BufferedImage> get(String path) {
+        return futures.computeIfAbsent(path, p -> CompletableFuture.supplyAsync(() -> cache.getImage(p), executor));
+    }
+
+    /**
+     *
+     * @param paths the assets a panel needs
+     * @return future completing once all of them are decoded
+     */
+    public CompletableFuture<Void> whenReady(Collection<String> paths) {
+        List<CompletableFuture<BufferedImage>> needed = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            needed.add(get(path));
+        }
+        return CompletableFuture.allOf(needed.toArray(new CompletableFuture<?>[0]));
+    }
+
+    public CompletableFuture<Void> allLoaded() {
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0]));
+    }
+
+    public int getLoadedCount() {
+        return loaded.get();
+    }
+
+    public int getTotalCount() {
+        return total;
+    }
+
+    /**
+     * Logs the time to the first painted frame, only the first call counts
+     */
+    public void markFirstFrame() {
+        if (firstFrameLogged.compareAndSet(false, true)) {
+            System.out.println("[startup] time-to-first-frame: " + millisSinceJvmStart() + " ms");
+        }
+    }
+
+    /**
+     * Logs the time until the game accepts input, only the first call counts
+     */
+    public void markInteractive() {
+        if (interactiveLogged.compareAndSet(false, true)) {
+            System.out.println("[startup] time-to-interactive: " + millisSinceJvmStart() + " ms");
+        }
+    }
+
+    private static long millisSinceJvmStart() {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+}
@@ -0,0 +1,177 @@
+package com.asset;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+
+/**
+ * Build-time tool that packs every sprite frame under the image root into one
+ * {@link SpriteAtlas} file. Backgrounds are left out, they are full-screen
+ * layers that would only bloat the page.
+ * <pre>
+ * java com.asset.AtlasPacker &lt;image root&gt; &lt;output file&gt;
+ * </pre>
+ * Maven runs it in the process-classes phase, writing
+ * {@code target/classes/atlas/sprites.atlas}.
+ */
+public class AtlasPacker {
+    private static final int MAX_PAGE_WIDTH = 512;
+    private static final int PADDING = 1;
+    private static final String EXCLUDED_DIRECTORY = "background";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: AtlasPacker <image root> <output file>");
+            System.exit(1);
+        }
+        Path root = Path.of(args[0]);
+        Path output = Path.of(args[1]);
+        int frames = pack(root, output);
+        System.out.println("Packed " + frames + " sprite frames into " + output + " (" + Files.size(output) + " bytes)");
+    }
+
+    /**
+     * Packs the sprites found under root and writes the atlas
+     * @param root directory that maps to the /images resource path
+     * @param output atlas file to write
+     * @return number of frames packed
+     * @throws IOException if a sprite cannot be read or the atlas cannot be written
+     */
+    public static int pack(Path root, Path output) throws IOException {
+        List<Frame> frames = readFrames(root);
+
+        // Shelf packing, tallest first, rows wrap at MAX_PAGE_WIDTH
+        List<Frame> bySize = new ArrayList<>(frames);
+        bySize.sort(Comparator.comparingInt((Frame f) -> f.image.getHeight()).reversed());
+        int x = 0;
+        int y = 0;
+        int rowHeight = 0;
+        int width = 1;
+        for (Frame frame : bySize) {
+            int w = frame.image.getWidth();
+            int h = frame.image.getHeight();
+            if (x > 0 && x + w > MAX_PAGE_WIDTH) {
+                x = 0;
+                y += rowHeight + PADDING;
+                rowHeight = 0;
+            }
+            frame.x = x;
+            frame.y = y;
+            x += w + PADDING;
+            rowHeight = Math.max(rowHeight, h);
+            width = Math.max(width, frame.x + w);
+        }
+        int height = Math.max(1, y + rowHeight);
+
+        BufferedImage page = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = page.createGraphics();
+        try {
+            for (Frame frame : frames) {
+                g.drawImage(frame.image, frame.x, frame.y, null);
+            }
+        } finally {
+            g.dispose();
+        }
+
+        // Animations are the frame directories, frames in file name order
+        Map<String, List<Integer>> animations = new LinkedHashMap<>();
+        for (int i = 0; i < frames.size(); i++) {
+            String name = frames.get(i).name;
+            animations.computeIfAbsent(name.substring(0, name.lastIndexOf('/')), k -> new ArrayList<>()).add(i);
+        }
+
+        ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+        DataOutputStream index = new DataOutputStream(indexBytes);
+        index.writeInt(frames.size());
+        for (Frame frame : frames) {
+            writeName(index, frame.name);
+            index.writeInt(frame.x);
+            index.writeInt(frame.y);
+            index.writeInt(frame.image.getWidth());
+            index.writeInt(frame.image.getHeight());
+        }
+        index.writeInt(animations.size());
+        for (Map.Entry<String, List<Integer>> animation : animations.entrySet()) {
+            writeName(index, animation.getKey());
+            index.writeInt(animation.getValue().size());
+            for (int frameIndex : animation.getValue()) {
+                index.writeInt(frameIndex);
+            }
+        }
+
+        // NOTE: Pixels start on an 8-byte boundary after the header and index
+        int headerSize = 5 * 4;
+        int pixelOffset = (headerSize + indexBytes.size() + 7) & ~7;
+
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        try (OutputStream file = Files.newOutputStream(output);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(SpriteAtlas.MAGIC);
+            out.writeInt(SpriteAtlas.VERSION);
+            out.writeInt(width);
+            out.writeInt(height);
+            out.writeInt(pixelOffset);
+            indexBytes.writeTo(out);
+            for (int i = headerSize + indexBytes.size(); i < pixelOffset; i++) {
+                out.writeByte(0);
+            }
+            for (int pixel : ((DataBufferInt) page.getRaster().getDataBuffer()).getData()) {
+                out.writeInt(pixel);
+            }
+        }
+        return frames.size();
+    }
+
+    private static List<Frame> readFrames(Path root) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(p -> p.toString().endsWith(".png"))
+                .filter(p -> !root.relativize(p).startsWith(EXCLUDED_DIRECTORY))
+                .sorted()
+                .toList();
+        }
+        List<Frame> frames = new ArrayList<>(files.size());
+        for (Path file : files) {
+            BufferedImage image = ImageIO.read(file.toFile());
+            if (image == null) {
+                throw new IOException("Not a readable image: " + file);
+            }
+            String name = "/images/" + root.relativize(file).toString().replace('\\', '/');
+            frames.add(new Frame(name, image));
+        }
+        return frames;
+    }
+
+    private static void writeName(DataOutputStream out, String name) throws IOException {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static final class Frame {
+        private final String name;
+        private final BufferedImage image;
+        private int x;
+        private int y;
+
+        Frame(String name, BufferedImage image) {
+            this.name = name;
+            this.image = image;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.asset;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * All sprite frames packed into one image, loaded from the binary file that
+ * {@link AtlasPacker} writes at build time. The pixels are stored as raw
+ * premultiplied ARGB, so loading is a memory map and one bulk copy into the
+ * atlas raster instead of a resource lookup and PNG inflate per frame. Frames
+ * are sub-images sharing that raster. The raster is only ever written through
+ * its public API, never by taking its backing array, so Java2D can still keep
+ * the atlas accelerated.
+ * <p>
+ * File layout, big-endian:
+ * <pre>
+ * int    magic "SATL", version, width, height, pixelOffset
+ * int    frameCount,     then per frame:     name, x, y, w, h
+ * int    animationCount, then per animation: name, count, frame indices
+ * int[]  width * height pixels at pixelOffset
+ * </pre>
+ * Names are a short length followed by UTF-8 bytes. Frames are named by their
+ * original resource path, e.g. {@code /images/player/run/run_00.png}, and
+ * animations by their directory, e.g. {@code /images/player/run}.
+ */
+public class SpriteAtlas {
+    public static final String DEFAULT_PATH = "/atlas/sprites.atlas";
+    static final int MAGIC = 0x5341544C; // "SATL"
+    static final int VERSION = 1;
+
+    private static volatile SpriteAtlas defaultAtlas;
+
+    private final BufferedImage image;
+    private final BufferedImage[] frames;
+    private final String[] names;
+    private final Map<String, Integer> frameIndex;
+    private final Map<String, int[]> animations;
+
+    private SpriteAtlas(BufferedImage image, BufferedImage[] frames, String[] names, Map<String, Integer> frameIndex, Map<String, int[]> animations) {
+        this.image = image;
+        this.frames = frames;
+        this.names = names;
+        this.frameIndex = frameIndex;
+        this.animations = animations;
+    }
+
+    /**
+     * Gets the atlas packed into the build, loading it on first use
+     * @return the atlas, empty if it is missing or unreadable
+     */
+    public static SpriteAtlas getDefault() {
+        SpriteAtlas atlas = defaultAtlas;
+        if (atlas == null) {
+            synchronized (SpriteAtlas.class) {
+                atlas = defaultAtlas;
+                if (atlas == null) {
+                    atlas = loadResource(DEFAULT_PATH);
+                    defaultAtlas = atlas;
+                }
+            }
+        }
+        return atlas;
+    }
+
+    /**
+     * Memory-maps an atlas file and copies its pixels into the atlas raster
+     * @param file atlas written by {@link AtlasPacker}
+     * @return the atlas
+     * @throws IOException if the file cannot be read or is not an atlas
+     */
+    public static SpriteAtlas open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // NOTE: A file on disk is mapped, an entry inside the jar cannot be and is read into the heap instead
+    private static SpriteAtlas loadResource(String path) {
+        URL url = SpriteAtlas.class.getResource(path);
+        if (url == null) {
+            System.err.println("Sprite atlas not found, falling back to PNG frames: " + path);
+            return empty();
+        }
+        try {
+            if ("file".equals(url.getProtocol())) {
+                return open(Path.of(url.toURI()));
+            }
+            try (InputStream in = url.openStream()) {
+                return parse(ByteBuffer.wrap(in.readAllBytes()));
+            }
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            System.err.println("Error loading sprite atlas " + path + ": " + e.getMessage());
+            return empty();
+        }
+    }
+
+    private static SpriteAtlas empty() {
+        return new SpriteAtlas(null, new BufferedImage[0], new String[0], Collections.emptyMap(), Collections.emptyMap());
+    }
+
+    private static SpriteAtlas parse(ByteBuffer buffer) throws IOException {
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("not a sprite atlas");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("unsupported atlas version " + version);
+        }
+        int width = buffer.getInt();
+        int height = buffer.getInt();
+        int pixelOffset = buffer.getInt();
+
+        // Raw premultiplied pixels go into the raster with one bulk copy, no decode
+        // NOTE: Copied through a scratch array, DataBufferInt.getData() would stop the image from being accelerated
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        int[] pixels = new int[width * height];
+        buffer.slice(pixelOffset, width * height * 4).order(ByteOrder.BIG_ENDIAN).asIntBuffer().get(pixels);
+        image.getRaster().setDataElements(0, 0, width, height, pixels);
+
+        int frameCount = buffer.getInt();
+        BufferedImage[] frames = new BufferedImage[frameCount];
+        String[] names = new String[frameCount];
+        Map<String, Integer> frameIndex = new HashMap<>(frameCount * 2);
+        for (int i = 0; i < frameCount; i++) {
+            String name = readName(buffer);
+            int x = buffer.getInt();
+            int y = buffer.getInt();
+            int w = buffer.getInt();
+            int h = buffer.getInt();
+            frames[i] = image.getSubimage(x, y, w, h);
+            names[i] = name;
+            frameIndex.put(name, i);
+        }
+
+        int animationCount = buffer.getInt();
+        Map<String, int[]> animations = new HashMap<>(animationCount * 2);
+        for (int i = 0; i < animationCount; i++) {
+            String name = readName(buffer);
+            int[] indices = new int[buffer.getInt()];
+            for (int j = 0; j < indices.length; j++) {
+                indices[j] = buffer.getInt();
+            }
+            animations.put(name, indices);
+        }
+        return new SpriteAtlas(image, frames, names, frameIndex, animations);
+    }
+
+    private static String readName(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     *
+     * @param path original resource path of the frame
+     * @return the frame, or null if it is not in the atlas
+     */
+    public BufferedImage getFrame(String path) {
+        Integer index = frameIndex.get(path);
+        return index == null ? null : frames[index];
+    }
+
+    public BufferedImage getFrame(int index) {
+        return frames[index];
+    }
+
+    /**
+     *
+     * @param index 0 to getFrameCount() - 1
+     * @return original resource path of the frame
+     */
+    public String getFrameName(int index) {
+        return names[index];
+    }
+
+    /**
+     *
+     * @param directory resource directory of the animation, e.g. /images/enemy/die
+     * @return frame indices in playback order, empty if the animation is unknown
+     */
+    public int[] getAnimation(String directory) {
+        int[] indices = animations.get(directory);
+        return indices == null ? new int[0] : indices.clone();
+    }
+
+    public int getFrameCount() {
+        return frames.length;
+    }
+
+    public boolean isEmpty() {
+        return frames.length == 0;
+    }
+
+    /**
+     *
+     * @return the whole atlas page, null if the atlas is empty
+     */
+    public BufferedImage getImage() {
+        return image;
+    }
+}
@@ -0,0 +1,238 @@
+package com.battle;
+
+import com.player.Player;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.random.RandomGenerator;
+
+/**
+ * Discrete-event battle between a player and an enemy on virtual time.
+ * Each side attacks every {@code 1000 / attackSpeed} milliseconds, the same
+ * interval the attack threads used to sleep, so the outcome matches a live
+ * battle without waiting for the wall clock. When both sides attack at the
+ * same instant the player strikes first.
+ * <p>
+ * An optional jitter source delays every attack by up to a few milliseconds
+ * to model the oversleep of {@code Thread.sleep}; without it the battle is
+ * fully deterministic.
+ */
+public class BattleEngine {
+    private final Player player;
+    private final Player enemy;
+    private final PriorityQueue<ScheduledAttack> queue;
+    private final List<BattleListener> listeners;
+    private final RandomGenerator jitter;
+    private final int maxJitterMillis;
+
+    private long time;
+    private boolean finished;
+    private boolean playerWon;
+
+    public BattleEngine(Player player, Player enemy) {
+        this(player, enemy, null, 0);
+    }
+
+    /**
+     * Creates a battle whose attacks are delayed by random scheduling jitter
+     * @param player the player side
+     * @param enemy the enemy side
+     * @param jitter random source, or null for a deterministic battle
+     * @param maxJitterMillis upper bound of the extra delay per attack
+     */
+    public BattleEngine(Player player, Player enemy, RandomGenerator jitter, int maxJitterMillis) {
+        this.player = player;
+        this.enemy = enemy;
+        this.queue = new PriorityQueue<>(2);
+        this.listeners = new ArrayList<>();
+        this.jitter = maxJitterMillis > 0 ? jitter : null;
+        this.maxJitterMillis = maxJitterMillis;
+        this.time = 0;
+
+        if (!player.isAlive() || !enemy.isAlive()) {
+            // NOTE: Nothing to fight, resolve immediately
+            this.finished = true;
+            this.playerWon = player.isAlive();
+            return;
+        }
+
+        queue.add(new ScheduledAttack(true, player, enemy, nextJitter()));
+        queue.add(new ScheduledAttack(false, enemy, player, nextJitter()));
+    }
+
+    /**
+     * Computes the attack interval the threaded battle used for an entity
+     * @param entity the attacker
+     * @return milliseconds between two attacks as a long
+     */
+    public static long attackInterval(Player entity) {
+        return attackInterval(entity.getAttackSpeed());
+    }
+
+    /**
+     *
+     * @param attackSpeed attacks per second
+     * @return milliseconds between two attacks at that speed as a long
+     */
+    public static long attackInterval(double attackSpeed) {
+        return (long) (1000 / attackSpeed);
+    }
+
+    public void addListener(BattleListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(BattleListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     *
+     * @return virtual time of the last resolved attack in milliseconds
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     *
+     * @return virtual time of the next attack, or -1 if the battle is over
+     */
+    public long peekNextTime() {
+        if (finished) {
+            return -1;
+        }
+        return queue.peek().time;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     *
+     * @return true if the player won, only meaningful once the battle is finished
+     */
+    public boolean isPlayerWon() {
+        return playerWon;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public Player getEnemy() {
+        return enemy;
+    }
+
+    /**
+     * Resolves the next scheduled attack
+     * @return the resolved attack, or null if the battle is already over
+     */
+    public BattleEvent step() {
+        if (finished) {
+            return null;
+        }
+        ScheduledAttack attack = queue.poll();
+        BattleEvent event = resolve(attack);
+        dispatch(event);
+        requeue(attack);
+        return event;
+    }
+
+    /**
+     * Resolves every attack scheduled at or before the given virtual time
+     * @param untilTime virtual time in milliseconds
+     * @return number of attacks resolved
+     */
+    public int advanceTo(long untilTime) {
+        int resolved = 0;
+        while (!finished && queue.peek().time <= untilTime) {
+            step();
+            resolved++;
+        }
+        return resolved;
+    }
+
+    /**
+     * Runs the battle to completion. Events are only created when listeners
+     * are registered, so a headless run does not allocate per attack.
+     * @return true if the player won
+     */
+    public boolean run() {
+        while (!finished) {
+            ScheduledAttack attack = queue.poll();
+            if (listeners.isEmpty()) {
+                apply(attack);
+            } else {
+                dispatch(resolve(attack));
+            }
+            requeue(attack);
+        }
+        return playerWon;
+    }
+
+    private BattleEvent resolve(ScheduledAttack attack) {
+        double damage = apply(attack);
+        return new BattleEvent(time, attack.playerSide, damage, attack.defender.getHealth());
+    }
+
+    private double apply(ScheduledAttack attack) {
+        time = attack.time;
+        double damage = attack.attacker.getDamege();
+        attack.defender.takeDamage(damage);
+        if (!attack.defender.isAlive()) {
+            finished = true;
+            playerWon = attack.playerSide;
+        }
+        return damage;
+    }
+
+    private void dispatch(BattleEvent event) {
+        for (BattleListener listener : listeners) {
+            listener.onAttack(event);
+        }
+        if (finished) {
+            for (BattleListener listener : listeners) {
+                listener.onBattleEnd(playerWon, time);
+            }
+        }
+    }
+
+    private void requeue(ScheduledAttack attack) {
+        if (!finished) {
+            attack.time += attack.interval + nextJitter();
+            queue.add(attack);
+        }
+    }
+
+    private long nextJitter() {
+        return jitter == null ? 0 : jitter.nextInt(maxJitterMillis + 1);
+    }
+
+    // NOTE: Reused queue entry, one per side, so stepping does not allocate
+    private static final class ScheduledAttack implements Comparable<ScheduledAttack> {
+        private final boolean playerSide;
+        private final Player attacker;
+        private final Player defender;
+        private final long interval;
+        private long time;
+
+        ScheduledAttack(boolean playerSide, Player attacker, Player defender, long delay) {
+            this.playerSide = playerSide;
+            this.attacker = attacker;
+            this.defender = defender;
+            this.interval = attackInterval(attacker);
+            this.time = interval + delay;
+        }
+
+        @Override
+        public int compareTo(ScheduledAttack other) {
+            if (time != other.time) {
+                return Long.compare(time, other.time);
+            }
+            // Player wins ties
+            return Boolean.compare(other.playerSide, playerSide);
+        }
+    }
+}
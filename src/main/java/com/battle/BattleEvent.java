@@ -0,0 +1,48 @@
+package com.battle;
+
+// NOTE: Immutable record of a single resolved attack in a battle
+public class BattleEvent {
+    private final long time;
+    private final boolean playerAttack;
+    private final double damage;
+    private final int targetHealth;
+
+    public BattleEvent(long time, boolean playerAttack, double damage, int targetHealth) {
+        this.time = time;
+        this.playerAttack = playerAttack;
+        this.damage = damage;
+        this.targetHealth = targetHealth;
+    }
+
+    /**
+     *
+     * @return virtual time of the attack in milliseconds since the battle started
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     *
+     * @return true if the player attacked, false if the enemy attacked
+     */
+    public boolean isPlayerAttack() {
+        return playerAttack;
+    }
+
+    /**
+     *
+     * @return the damage dealt by the attack as a double
+     */
+    public double getDamage() {
+        return damage;
+    }
+
+    /**
+     *
+     * @return health of the target after the hit as an int
+     */
+    public int getTargetHealth() {
+        return targetHealth;
+    }
+}
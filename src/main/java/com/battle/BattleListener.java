@@ -0,0 +1,17 @@
+package com.battle;
+
+// NOTE: Observer -> receives the event stream of a BattleEngine
+public interface BattleListener {
+    /**
+     * Called after an attack has been applied to its target
+     * @param event the resolved attack
+     */
+    void onAttack(BattleEvent event);
+
+    /**
+     * Called once when one side has been defeated
+     * @param playerWon true if the enemy was defeated
+     * @param time virtual time of the final hit in milliseconds
+     */
+    void onBattleEnd(boolean playerWon, long time);
+}
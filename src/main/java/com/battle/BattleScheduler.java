@@ -0,0 +1,178 @@
+package com.battle;
+
+import com.perf.AttackTickEvent;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays battles against the wall clock on one shared scheduler thread. Each
+ * {@link BattleEngine} step is scheduled for the moment its attack is due, so
+ * any number of rounds, retries and panels reuse the same thread instead of
+ * starting new ones.
+ * <p>
+ * {@link #start(BattleEngine)} returns a {@link Battle} handle. Once
+ * {@link Battle#cancel()} returns, the battle will not step again and no step
+ * is still running, so callers can reset the players right away.
+ */
+public class BattleScheduler {
+    private final ScheduledThreadPoolExecutor executor;
+    private final Set<Battle> live;
+
+    public BattleScheduler() {
+        this.executor = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "battle-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Cancelled steps leave the queue at once instead of when they were due
+        executor.setRemoveOnCancelPolicy(true);
+        this.live = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Starts replaying a battle in real time, its events reach the engine's listeners on the scheduler thread
+     * @param engine a battle that has not been stepped yet
+     * @return the handle to cancel or wait for the battle
+     */
+    public Battle start(BattleEngine engine) {
+        Battle battle = new Battle(engine, System.nanoTime());
+        live.add(battle);
+        battle.scheduleNext();
+        return battle;
+    }
+
+    /**
+     *
+     * @return number of battles that are scheduled or stepping
+     */
+    public int getLiveCount() {
+        return live.size();
+    }
+
+    /**
+     * Cancels every live battle
+     */
+    public void cancelAll() {
+        for (Battle battle : live) {
+            battle.cancel();
+        }
+    }
+
+    /**
+     * Cancels every battle and stops the scheduler thread
+     * @param timeoutMillis how long to wait for the thread to finish
+     * @return true if the thread finished in time
+     */
+    public boolean shutdown(long timeoutMillis) throws InterruptedException {
+        cancelAll();
+        executor.shutdown();
+        return executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Handle of one running battle
+     */
+    public final class Battle {
+        private final BattleEngine engine;
+        private final long startNanos;
+        private final CountDownLatch done;
+        private ScheduledFuture<?> pending;
+        private long dueNanos;
+        private boolean cancelled;
+        private boolean completed;
+
+        private Battle(BattleEngine engine, long startNanos) {
+            this.engine = engine;
+            this.startNanos = startNanos;
+            this.done = new CountDownLatch(1);
+        }
+
+        // NOTE: Steps run under the handle's lock, so cancel() waits out a step in progress
+        private synchronized void step() {
+            if (cancelled || completed) {
+                return;
+            }
+            pending = null;
+            if (AttackTickEvent.enabled()) {
+                recordStep();
+            } else {
+                engine.step();
+            }
+            scheduleNext();
+        }
+
+        // NOTE: JFR event -> lateness against the due time, duration is the step and its listeners
+        private void recordStep() {
+            AttackTickEvent tick = new AttackTickEvent();
+            long lateness = System.nanoTime() - dueNanos;
+            tick.begin();
+            BattleEvent event = engine.step();
+            tick.end();
+            if (event != null && tick.shouldCommit()) {
+                tick.playerAttack = event.isPlayerAttack();
+                tick.battleTime = event.getTime();
+                tick.lateness = lateness;
+                tick.targetHealth = event.getTargetHealth();
+                tick.commit();
+            }
+        }
+
+        private synchronized void scheduleNext() {
+            if (engine.isFinished()) {
+                complete();
+                return;
+            }
+            dueNanos = startNanos + engine.peekNextTime() * 1_000_000L;
+            long delay = Math.max(0, dueNanos - System.nanoTime());
+            pending = executor.schedule(this::step, delay, TimeUnit.NANOSECONDS);
+        }
+
+        private void complete() {
+            if (!completed) {
+                completed = true;
+                live.remove(this);
+                done.countDown();
+            }
+        }
+
+        /**
+         * Stops the battle, no step runs after this returns
+         */
+        public synchronized void cancel() {
+            if (completed) {
+                return;
+            }
+            cancelled = true;
+            if (pending != null) {
+                pending.cancel(false);
+                pending = null;
+            }
+            complete();
+        }
+
+        /**
+         * Waits for the battle to finish or be cancelled
+         * @param timeoutMillis upper bound of the wait
+         * @return true if the battle is over
+         */
+        public boolean join(long timeoutMillis) throws InterruptedException {
+            return done.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+
+        public synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        public synchronized boolean isDone() {
+            return completed;
+        }
+
+        public BattleEngine getEngine() {
+            return engine;
+        }
+    }
+}
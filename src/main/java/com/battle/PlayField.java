@@ -0,0 +1,13 @@
+package com.battle;
+
+/**
+ * Size of the play field in logical units, the space the battle scene is laid
+ * out in and wave units move in. The game panel scales it to its pixels.
+ */
+public final class PlayField {
+    public static final int WIDTH = 1600;
+    public static final int HEIGHT = 900;
+
+    private PlayField() {
+    }
+}
@@ -0,0 +1,250 @@
+package com.battle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Recorded session of battles, as written by {@link ReplayRecorder} and
+ * played back by {@link ReplayCursor}. Immutable once built.
+ * <p>
+ * The rounds sit on one session timeline, each starting
+ * {@link #ROUND_GAP_MILLIS} after the previous one ended. The event stream
+ * holds, per round, a header with the enemy's level and both sides' stats
+ * and attack intervals, followed by one entry per attack:
+ * {@code varint(zigzag(lateness) << 3 | predicted << 2 | kind)}. Lateness is
+ * how far the attack landed after its side's last attack plus the interval,
+ * so it only holds the scheduling jitter. The predicted bit is set when the
+ * target lost exactly what the attacker's damage takes off, see
+ * {@link #predictedLoss}; otherwise {@code varint(hpLost)} follows. A typical
+ * attack takes one byte. An end entry, the time since the last attack and
+ * the outcome, closes the round.
+ * <p>
+ * Keyframes hold the full state (round, time within it, stream offset, both
+ * sides' HP and when each side is due next) every {@link #KEYFRAME_INTERVAL}
+ * attacks of a round; a round's header is its own keyframe. Seeking decodes
+ * at most that many attacks. File layout, big-endian: magic, version, round count, duration,
+ * stream length and stream, then the round table and the keyframe table as
+ * delta-encoded varints.
+ */
+public final class Replay {
+    public static final int VERSION = 1;
+    public static final int KEYFRAME_INTERVAL = 32;
+    public static final long ROUND_GAP_MILLIS = 1000;
+
+    private static final int MAGIC = 0x5352504C; // "SRPL"
+
+    // Entry kinds in the low two bits of an entry's first varint
+    static final int KIND_PLAYER_ATTACK = 0;
+    static final int KIND_ENEMY_ATTACK = 1;
+    static final int KIND_END = 2;
+    static final int PREDICTED_LOSS = 4;
+
+    // Outcome byte after an end entry
+    static final int OUTCOME_LOST = 0;
+    static final int OUTCOME_WON = 1;
+    static final int OUTCOME_ABANDONED = 2;
+
+    // NOTE: Stats are stored to a thousandth, attack damage and speed only ever grow in tenths
+    static final double FIXED_POINT = 1000.0;
+
+    final byte[] stream;
+    final int roundCount;
+    final int[] roundOffset;
+    final long[] roundStart;
+    final int keyCount;
+    final int[] keyRound;
+    final long[] keyRoundTime;
+    final int[] keyOffset;
+    final int[] keyPlayerHealth;
+    final int[] keyEnemyHealth;
+    final long[] keyPlayerDue;
+    final long[] keyEnemyDue;
+    final long duration;
+
+    Replay(byte[] stream, int roundCount, int[] roundOffset, long[] roundStart, int keyCount, int[] keyRound,
+           long[] keyRoundTime, int[] keyOffset, int[] keyPlayerHealth, int[] keyEnemyHealth, long[] keyPlayerDue,
+           long[] keyEnemyDue, long duration) {
+        this.stream = stream;
+        this.roundCount = roundCount;
+        this.roundOffset = roundOffset;
+        this.roundStart = roundStart;
+        this.keyCount = keyCount;
+        this.keyRound = keyRound;
+        this.keyRoundTime = keyRoundTime;
+        this.keyOffset = keyOffset;
+        this.keyPlayerHealth = keyPlayerHealth;
+        this.keyEnemyHealth = keyEnemyHealth;
+        this.keyPlayerDue = keyPlayerDue;
+        this.keyEnemyDue = keyEnemyDue;
+        this.duration = duration;
+    }
+
+    public int getRoundCount() {
+        return roundCount;
+    }
+
+    /**
+     *
+     * @return length of the session timeline in milliseconds
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    /**
+     *
+     * @return session time at which a round starts
+     */
+    public long getRoundStart(int round) {
+        return roundStart[round];
+    }
+
+    public int getKeyframeCount() {
+        return keyCount;
+    }
+
+    /**
+     *
+     * @return the encoded size in bytes, as written to a file
+     */
+    public int getEncodedSize() {
+        return encode().length;
+    }
+
+    /**
+     * Writes the replay next to its final name and renames it into place
+     */
+    public void write(Path path) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(temp, encode());
+        try {
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public static Replay read(Path path) throws IOException {
+        return decode(Files.readAllBytes(path));
+    }
+
+    private byte[] encode() {
+        ByteBuffer out = ByteBuffer.allocate(4 + 2 + 2 + 4 + 8 + 4 + stream.length + 4 + roundCount * 15 + 4 + keyCount * 50);
+        out.putInt(MAGIC).putShort((short) VERSION).putShort((short) 0);
+        out.putInt(roundCount).putLong(duration);
+        out.putInt(stream.length).put(stream);
+        for (int r = 0; r < roundCount; r++) {
+            putVarint(out, roundOffset[r] - (r == 0 ? 0 : roundOffset[r - 1]));
+            putVarlong(out, roundStart[r] - (r == 0 ? 0 : roundStart[r - 1]));
+        }
+        out.putInt(keyCount);
+        for (int k = 0; k < keyCount; k++) {
+            putVarint(out, keyRound[k]);
+            putVarlong(out, keyRoundTime[k]);
+            putVarint(out, keyOffset[k] - (k == 0 ? 0 : keyOffset[k - 1]));
+            putVarint(out, keyPlayerHealth[k]);
+            putVarint(out, keyEnemyHealth[k]);
+            putVarlong(out, zigzag(keyPlayerDue[k] - keyRoundTime[k]));
+            putVarlong(out, zigzag(keyEnemyDue[k] - keyRoundTime[k]));
+        }
+        byte[] bytes = new byte[out.position()];
+        out.flip();
+        out.get(bytes);
+        return bytes;
+    }
+
+    private static Replay decode(byte[] bytes) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        try {
+            if (in.getInt() != MAGIC) {
+                throw new IOException("Not a replay file");
+            }
+            int version = in.getShort();
+            if (version > VERSION) {
+                throw new IOException("Replay was recorded by a newer version (format " + version + ")");
+            }
+            in.getShort();
+            int rounds = in.getInt();
+            long duration = in.getLong();
+            byte[] stream = new byte[in.getInt()];
+            in.get(stream);
+            int[] roundOffset = new int[rounds];
+            long[] roundStart = new long[rounds];
+            for (int r = 0; r < rounds; r++) {
+                roundOffset[r] = getVarint(in) + (r == 0 ? 0 : roundOffset[r - 1]);
+                roundStart[r] = getVarlong(in) + (r == 0 ? 0 : roundStart[r - 1]);
+            }
+            int keys = in.getInt();
+            int[] keyRound = new int[keys];
+            long[] keyRoundTime = new long[keys];
+            int[] keyOffset = new int[keys];
+            int[] keyPlayerHealth = new int[keys];
+            int[] keyEnemyHealth = new int[keys];
+            long[] keyPlayerDue = new long[keys];
+            long[] keyEnemyDue = new long[keys];
+            for (int k = 0; k < keys; k++) {
+                keyRound[k] = getVarint(in);
+                keyRoundTime[k] = getVarlong(in);
+                keyOffset[k] = getVarint(in) + (k == 0 ? 0 : keyOffset[k - 1]);
+                keyPlayerHealth[k] = getVarint(in);
+                keyEnemyHealth[k] = getVarint(in);
+                keyPlayerDue[k] = keyRoundTime[k] + unzigzag(getVarlong(in));
+                keyEnemyDue[k] = keyRoundTime[k] + unzigzag(getVarlong(in));
+            }
+            return new Replay(stream, rounds, roundOffset, roundStart, keys, keyRound, keyRoundTime, keyOffset,
+                keyPlayerHealth, keyEnemyHealth, keyPlayerDue, keyEnemyDue, duration);
+        } catch (RuntimeException e) {
+            throw new IOException("Replay file is truncated or corrupt", e);
+        }
+    }
+
+    /**
+     * Health a hit takes off the way {@code Player.takeDamage} computes it, from the damage as stored
+     * @param health target's health before the hit
+     * @param damage attacker's damage in thousandths
+     * @return health lost
+     */
+    static int predictedLoss(int health, long damage) {
+        return health - (int) Math.max(0, health - damage / FIXED_POINT);
+    }
+
+    // NOTE: Zigzag -> small negative numbers stay small varints
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void putVarint(ByteBuffer out, int value) {
+        putVarlong(out, value & 0xFFFFFFFFL);
+    }
+
+    static void putVarlong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static int getVarint(ByteBuffer in) {
+        return (int) getVarlong(in);
+    }
+
+    static long getVarlong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
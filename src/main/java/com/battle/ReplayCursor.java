@@ -0,0 +1,276 @@
+package com.battle;
+
+/**
+ * Playback position in a {@link Replay}. Moving forward decodes the attacks
+ * passed over and hands them to a listener, the same events a live battle
+ * produced. Seeking jumps to the nearest keyframe at or before the target and
+ * decodes at most {@link Replay#KEYFRAME_INTERVAL} attacks from there, so it
+ * costs the same at any point of a long session. Not thread-safe.
+ */
+public class ReplayCursor {
+    private final Replay replay;
+    private final byte[] stream;
+    private final long[] keyTime;
+
+    private int round;
+    private int offset;
+    private long roundTime;
+    private long time;
+    private boolean roundOver;
+    private int outcome;
+
+    private int level;
+    private int playerMaxHealth;
+    private int playerHealth;
+    private double playerDamage;
+    private long playerDamageMilli;
+    private double playerAttackSpeed;
+    private int enemyMaxHealth;
+    private int enemyHealth;
+    private double enemyDamage;
+    private long enemyDamageMilli;
+    private double enemyAttackSpeed;
+    private long playerInterval;
+    private long enemyInterval;
+    private long playerDue;
+    private long enemyDue;
+
+    public ReplayCursor(Replay replay) {
+        this.replay = replay;
+        this.stream = replay.stream;
+        this.keyTime = new long[replay.keyCount];
+        for (int k = 0; k < replay.keyCount; k++) {
+            keyTime[k] = replay.roundStart[replay.keyRound[k]] + replay.keyRoundTime[k];
+        }
+        seek(0);
+    }
+
+    public Replay getReplay() {
+        return replay;
+    }
+
+    /**
+     * Jumps to a session time without reporting the attacks in between
+     * @param target session time in milliseconds, clamped to the replay
+     */
+    public void seek(long target) {
+        target = Math.max(0, Math.min(target, replay.duration));
+        if (replay.roundCount == 0) {
+            round = -1;
+            time = target;
+            return;
+        }
+        // Start of the round the target falls in, or its last keyframe at or before the target
+        int startRound = lastAtOrBefore(replay.roundStart, replay.roundCount, target);
+        int key = lastAtOrBefore(keyTime, replay.keyCount, target);
+        loadRound(startRound);
+        time = replay.roundStart[startRound];
+        if (key >= 0 && replay.keyRound[key] == startRound) {
+            offset = replay.keyOffset[key];
+            roundTime = replay.keyRoundTime[key];
+            playerHealth = replay.keyPlayerHealth[key];
+            enemyHealth = replay.keyEnemyHealth[key];
+            playerDue = replay.keyPlayerDue[key];
+            enemyDue = replay.keyEnemyDue[key];
+            time = keyTime[key];
+        }
+        advanceTo(target, null);
+    }
+
+    /**
+     * Plays forward, reporting each attack and round end passed over
+     * @param target session time in milliseconds
+     * @param listener receives the decoded events, or null to skip them
+     * @return number of attacks decoded
+     */
+    public int advanceTo(long target, BattleListener listener) {
+        target = Math.min(target, replay.duration);
+        int attacks = 0;
+        while (round >= 0) {
+            long roundStart = replay.roundStart[round];
+            if (roundOver || offset >= stream.length || offset >= roundEnd()) {
+                if (round + 1 < replay.roundCount && replay.roundStart[round + 1] <= target) {
+                    loadRound(round + 1);
+                    continue;
+                }
+                break;
+            }
+            // Peek the next entry and stop before it if it lies past the target
+            int entryStart = offset;
+            long entry = getVarlong();
+            int kind = (int) (entry & 3);
+            long entryTime;
+            if (kind == Replay.KIND_END) {
+                entryTime = roundTime + (entry >>> 2);
+            } else {
+                entryTime = (kind == Replay.KIND_PLAYER_ATTACK ? playerDue : enemyDue) + Replay.unzigzag(entry >>> 3);
+            }
+            if (roundStart + entryTime > target) {
+                offset = entryStart;
+                break;
+            }
+            roundTime = entryTime;
+            if (kind == Replay.KIND_END) {
+                outcome = stream[offset++];
+                roundOver = true;
+                if (listener != null && outcome != Replay.OUTCOME_ABANDONED) {
+                    listener.onBattleEnd(outcome == Replay.OUTCOME_WON, roundTime);
+                }
+                continue;
+            }
+            boolean playerAttack = kind == Replay.KIND_PLAYER_ATTACK;
+            int lost;
+            if ((entry & Replay.PREDICTED_LOSS) != 0) {
+                lost = playerAttack ? Replay.predictedLoss(enemyHealth, playerDamageMilli)
+                    : Replay.predictedLoss(playerHealth, enemyDamageMilli);
+            } else {
+                lost = (int) getVarlong();
+            }
+            int targetHealth;
+            if (playerAttack) {
+                targetHealth = enemyHealth -= lost;
+                playerDue = entryTime + playerInterval;
+            } else {
+                targetHealth = playerHealth -= lost;
+                enemyDue = entryTime + enemyInterval;
+            }
+            attacks++;
+            if (listener != null) {
+                listener.onAttack(new BattleEvent(roundTime, playerAttack, playerAttack ? playerDamage : enemyDamage, targetHealth));
+            }
+        }
+        time = Math.max(time, target);
+        return attacks;
+    }
+
+    /**
+     *
+     * @return session time of the cursor in milliseconds
+     */
+    public long getTime() {
+        return time;
+    }
+
+    public boolean isAtEnd() {
+        return time >= replay.duration;
+    }
+
+    /**
+     *
+     * @return index of the round being shown, -1 for an empty replay
+     */
+    public int getRound() {
+        return round;
+    }
+
+    /**
+     *
+     * @return true once the current round's last attack has been played
+     */
+    public boolean isRoundOver() {
+        return roundOver;
+    }
+
+    /**
+     *
+     * @return true if the current round is over and the player won it
+     */
+    public boolean isRoundWon() {
+        return roundOver && outcome == Replay.OUTCOME_WON;
+    }
+
+    /**
+     *
+     * @return level of the enemy in the current round
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    public int getPlayerMaxHealth() {
+        return playerMaxHealth;
+    }
+
+    public int getPlayerHealth() {
+        return playerHealth;
+    }
+
+    public double getPlayerDamage() {
+        return playerDamage;
+    }
+
+    public double getPlayerAttackSpeed() {
+        return playerAttackSpeed;
+    }
+
+    public int getEnemyMaxHealth() {
+        return enemyMaxHealth;
+    }
+
+    public int getEnemyHealth() {
+        return enemyHealth;
+    }
+
+    public double getEnemyDamage() {
+        return enemyDamage;
+    }
+
+    public double getEnemyAttackSpeed() {
+        return enemyAttackSpeed;
+    }
+
+    // NOTE: Binary search over ascending times, -1 if every time lies after the target
+    private static int lastAtOrBefore(long[] times, int count, long target) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] <= target) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    private int roundEnd() {
+        return round + 1 < replay.roundCount ? replay.roundOffset[round + 1] : stream.length;
+    }
+
+    // NOTE: Reads a round header and leaves the cursor at its first attack
+    private void loadRound(int index) {
+        round = index;
+        offset = replay.roundOffset[index];
+        level = (int) getVarlong();
+        playerMaxHealth = (int) getVarlong();
+        playerHealth = (int) getVarlong();
+        playerDamageMilli = getVarlong();
+        playerDamage = playerDamageMilli / Replay.FIXED_POINT;
+        playerAttackSpeed = getVarlong() / Replay.FIXED_POINT;
+        playerInterval = getVarlong();
+        enemyMaxHealth = (int) getVarlong();
+        enemyHealth = (int) getVarlong();
+        enemyDamageMilli = getVarlong();
+        enemyDamage = enemyDamageMilli / Replay.FIXED_POINT;
+        enemyAttackSpeed = getVarlong() / Replay.FIXED_POINT;
+        enemyInterval = getVarlong();
+        roundTime = 0;
+        playerDue = 0;
+        enemyDue = 0;
+        roundOver = false;
+        outcome = Replay.OUTCOME_ABANDONED;
+        time = Math.max(time, replay.roundStart[index]);
+    }
+
+    private long getVarlong() {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = stream[offset++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.battle;
+
+import com.player.EnemySlime;
+import com.player.Player;
+import java.util.Arrays;
+
+/**
+ * Records every battle of a session into a {@link Replay}. Register it on
+ * each {@link BattleEngine} after {@link #beginRound}; recording an attack
+ * appends a few bytes to a growable array and never allocates once the
+ * arrays have grown to the session's size.
+ * <p>
+ * Rounds are recorded on the battle thread, {@link #snapshot()} is meant to
+ * be taken between rounds, after the end of the battle has been handed over
+ * to the caller's thread.
+ */
+public class ReplayRecorder implements BattleListener {
+    private byte[] stream;
+    private int size;
+
+    private int roundCount;
+    private int[] roundOffset;
+    private long[] roundStart;
+
+    private int keyCount;
+    private int[] keyRound;
+    private long[] keyRoundTime;
+    private int[] keyOffset;
+    private int[] keyPlayerHealth;
+    private int[] keyEnemyHealth;
+    private long[] keyPlayerDue;
+    private long[] keyEnemyDue;
+
+    private boolean roundOpen;
+    private long sessionTime;
+    private long lastTime;
+    private int playerHealth;
+    private int enemyHealth;
+    private long playerInterval;
+    private long enemyInterval;
+    private long playerDamage;
+    private long enemyDamage;
+    private long playerDue;
+    private long enemyDue;
+    private int sinceKeyframe;
+
+    public ReplayRecorder() {
+        this.stream = new byte[1024];
+        this.roundOffset = new int[16];
+        this.roundStart = new long[16];
+        this.keyRound = new int[64];
+        this.keyRoundTime = new long[64];
+        this.keyOffset = new int[64];
+        this.keyPlayerHealth = new int[64];
+        this.keyEnemyHealth = new int[64];
+        this.keyPlayerDue = new long[64];
+        this.keyEnemyDue = new long[64];
+    }
+
+    /**
+     * Starts a new round, closing the previous one as abandoned if it never ended
+     * @param player the player side, at the health the battle starts with
+     * @param enemy the enemy side
+     */
+    public void beginRound(Player player, EnemySlime enemy) {
+        if (roundOpen) {
+            endRound(Replay.OUTCOME_ABANDONED, lastTime);
+        }
+        if (roundCount == roundOffset.length) {
+            roundOffset = Arrays.copyOf(roundOffset, roundCount * 2);
+            roundStart = Arrays.copyOf(roundStart, roundCount * 2);
+        }
+        roundOffset[roundCount] = size;
+        roundStart[roundCount] = sessionTime;
+        roundCount++;
+
+        putVarint(enemy.getLevel());
+        putSide(player);
+        putSide(enemy);
+        roundOpen = true;
+        lastTime = 0;
+        playerHealth = player.getHealth();
+        enemyHealth = enemy.getHealth();
+        playerDamage = Math.round(player.getDamege() * Replay.FIXED_POINT);
+        enemyDamage = Math.round(enemy.getDamege() * Replay.FIXED_POINT);
+        playerInterval = BattleEngine.attackInterval(player);
+        enemyInterval = BattleEngine.attackInterval(enemy);
+        playerDue = 0;
+        enemyDue = 0;
+        sinceKeyframe = 0;
+    }
+
+    @Override
+    public void onAttack(BattleEvent event) {
+        if (!roundOpen) {
+            return;
+        }
+        boolean playerAttack = event.isPlayerAttack();
+        long time = event.getTime();
+        if (playerAttack) {
+            putAttack(Replay.zigzag(time - playerDue), Replay.KIND_PLAYER_ATTACK, enemyHealth, event.getTargetHealth(), playerDamage);
+            enemyHealth = event.getTargetHealth();
+            playerDue = time + playerInterval;
+        } else {
+            putAttack(Replay.zigzag(time - enemyDue), Replay.KIND_ENEMY_ATTACK, playerHealth, event.getTargetHealth(), enemyDamage);
+            playerHealth = event.getTargetHealth();
+            enemyDue = time + enemyInterval;
+        }
+        lastTime = time;
+        if (++sinceKeyframe == Replay.KEYFRAME_INTERVAL) {
+            sinceKeyframe = 0;
+            addKeyframe();
+        }
+    }
+
+    @Override
+    public void onBattleEnd(boolean playerWon, long time) {
+        if (roundOpen) {
+            endRound(playerWon ? Replay.OUTCOME_WON : Replay.OUTCOME_LOST, time);
+        }
+    }
+
+    public int getRoundCount() {
+        return roundCount;
+    }
+
+    /**
+     * Copies everything recorded so far
+     * @return a replay that can be written or played back
+     */
+    public Replay snapshot() {
+        long duration = roundOpen ? sessionTime + lastTime : Math.max(0, sessionTime - Replay.ROUND_GAP_MILLIS);
+        return new Replay(Arrays.copyOf(stream, size), roundCount,
+            Arrays.copyOf(roundOffset, roundCount), Arrays.copyOf(roundStart, roundCount), keyCount,
+            Arrays.copyOf(keyRound, keyCount), Arrays.copyOf(keyRoundTime, keyCount), Arrays.copyOf(keyOffset, keyCount),
+            Arrays.copyOf(keyPlayerHealth, keyCount), Arrays.copyOf(keyEnemyHealth, keyCount),
+            Arrays.copyOf(keyPlayerDue, keyCount), Arrays.copyOf(keyEnemyDue, keyCount), duration);
+    }
+
+    private void endRound(int outcome, long time) {
+        putVarlong((time - lastTime) << 2 | Replay.KIND_END);
+        ensureCapacity(1);
+        stream[size++] = (byte) outcome;
+        roundOpen = false;
+        sessionTime += time + Replay.ROUND_GAP_MILLIS;
+    }
+
+    private void putAttack(long lateness, int kind, int healthBefore, int healthAfter, long damage) {
+        int lost = healthBefore - healthAfter;
+        if (lost == Replay.predictedLoss(healthBefore, damage)) {
+            putVarlong(lateness << 3 | Replay.PREDICTED_LOSS | kind);
+        } else {
+            putVarlong(lateness << 3 | kind);
+            putVarint(lost);
+        }
+    }
+
+    private void putSide(Player side) {
+        putVarint(side.getMaxHealth());
+        putVarint(side.getHealth());
+        putVarlong(Math.round(side.getDamege() * Replay.FIXED_POINT));
+        putVarlong(Math.round(side.getAttackSpeed() * Replay.FIXED_POINT));
+        // The exact interval, recomputing it from the rounded speed could be a millisecond off
+        putVarlong(BattleEngine.attackInterval(side));
+    }
+
+    private void addKeyframe() {
+        if (keyCount == keyRound.length) {
+            int grown = keyCount * 2;
+            keyRound = Arrays.copyOf(keyRound, grown);
+            keyRoundTime = Arrays.copyOf(keyRoundTime, grown);
+            keyOffset = Arrays.copyOf(keyOffset, grown);
+            keyPlayerHealth = Arrays.copyOf(keyPlayerHealth, grown);
+            keyEnemyHealth = Arrays.copyOf(keyEnemyHealth, grown);
+            keyPlayerDue = Arrays.copyOf(keyPlayerDue, grown);
+            keyEnemyDue = Arrays.copyOf(keyEnemyDue, grown);
+        }
+        keyRound[keyCount] = roundCount - 1;
+        keyRoundTime[keyCount] = lastTime;
+        keyOffset[keyCount] = size;
+        keyPlayerHealth[keyCount] = playerHealth;
+        keyEnemyHealth[keyCount] = enemyHealth;
+        keyPlayerDue[keyCount] = playerDue;
+        keyEnemyDue[keyCount] = enemyDue;
+        keyCount++;
+    }
+
+    private void putVarint(int value) {
+        putVarlong(value & 0xFFFFFFFFL);
+    }
+
+    private void putVarlong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            stream[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        stream[size++] = (byte) value;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > stream.length) {
+            stream = Arrays.copyOf(stream, Math.max(stream.length * 2, size + extra));
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.main;
+
+import java.awt.Component;
+import java.awt.DisplayMode;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Point;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+import javax.swing.SwingUtilities;
+
+/**
+ * Dedicated game loop with a fixed simulation tick and interpolated active
+ * rendering into the frame's {@link BufferStrategy}. Scenes are updated
+ * exactly {@code tickRate} times per simulated second no matter how fast
+ * frames are drawn; the leftover fraction of a tick is handed to the
+ * renderer as {@code alpha} so motion stays smooth between ticks.
+ * <p>
+ * The frame rate is capped at {@code -Dslime.fps=N} (0 means uncapped),
+ * defaulting to the display refresh rate so frames line up with vsync.
+ */
+class GameLoop implements Runnable {
+    // NOTE: Scene -> anything the loop can advance and draw
+    interface Scene {
+        /**
+         * Advances the simulation by one fixed tick
+         * @param tick number of the tick, the loop clock
+         */
+        void update(long tick);
+
+        /**
+         * Draws the scene
+         * @param g graphics translated to the scene's view
+         * @param alpha fraction of the next tick already elapsed, 0 to 1
+         */
+        void render(Graphics2D g, double alpha);
+    }
+
+    static final int TICK_RATE = 60;
+    private static final int MAX_TICKS_PER_FRAME = 5;
+
+    private final Main frame;
+    private final long tickNanos;
+    private final long frameNanos;
+
+    private volatile Scene scene;
+    private volatile Component view;
+    private volatile boolean running;
+    private volatile long tick;
+    private Thread thread;
+
+    GameLoop(Main frame, int tickRate, int maxFps) {
+        this.frame = frame;
+        this.tickNanos = 1_000_000_000L / tickRate;
+        this.frameNanos = maxFps > 0 ? 1_000_000_000L / maxFps : 0;
+    }
+
+    /**
+     *
+     * @return the FPS cap from -Dslime.fps, or the display refresh rate, or 60
+     */
+    static int configuredMaxFps() {
+        Integer fps = Integer.getInteger("slime.fps");
+        if (fps != null) {
+            return Math.max(0, fps);
+        }
+        if (!GraphicsEnvironment.isHeadless()) {
+            DisplayMode mode = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDisplayMode();
+            if (mode.getRefreshRate() != DisplayMode.REFRESH_RATE_UNKNOWN) {
+                return mode.getRefreshRate();
+            }
+        }
+        return 60;
+    }
+
+    /**
+     * Sets the scene driven by the loop, or null to idle
+     * @param scene the scene to update and render
+     * @param view the component the scene is drawn over
+     */
+    void setScene(Scene scene, Component view) {
+        this.view = view;
+        this.scene = scene;
+    }
+
+    /**
+     *
+     * @return number of fixed ticks simulated so far
+     */
+    long getTick() {
+        return tick;
+    }
+
+    /**
+     *
+     * @return milliseconds per simulation tick
+     */
+    double getTickMillis() {
+        return tickNanos / 1_000_000.0;
+    }
+
+    void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this, "game-loop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    @Override
+    public void run() {
+        long previous = System.nanoTime();
+        long accumulator = 0;
+        long nextFrame = previous;
+
+        while (running) {
+            long now = System.nanoTime();
+            // Clamp so a stall does not trigger a burst of catch-up ticks
+            accumulator += Math.min(now - previous, MAX_TICKS_PER_FRAME * tickNanos);
+            previous = now;
+
+            Scene current = scene;
+            while (accumulator >= tickNanos) {
+                if (current != null) {
+                    current.update(tick);
+                }
+                tick++;
+                accumulator -= tickNanos;
+            }
+
+            if (current != null) {
+                render(current, view, (double) accumulator / tickNanos);
+            }
+
+            nextFrame = pace(nextFrame);
+        }
+    }
+
+    private void render(Scene current, Component target, double alpha) {
+        BufferStrategy strategy = frame.getBufferStrategy();
+        if (strategy == null || target == null || !target.isShowing()) {
+            // NOTE: No active rendering available, fall back to passive Swing painting
+            if (target != null) {
+                target.repaint();
+            }
+            return;
+        }
+
+        Point origin = SwingUtilities.convertPoint(target, 0, 0, frame);
+        do {
+            do {
+                Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    g.translate(origin.x, origin.y);
+                    g.clipRect(0, 0, target.getWidth(), target.getHeight());
+                    current.render(g, alpha);
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    private long pace(long nextFrame) {
+        if (frameNanos == 0) {
+            Thread.yield();
+            return System.nanoTime();
+        }
+        nextFrame += frameNanos;
+        long now = System.nanoTime();
+        if (nextFrame < now) {
+            // Running behind, drop the debt instead of rendering frames back to back
+            return now;
+        }
+        // Sleep most of the wait, then spin the last bit for an even cadence
+        long spinThreshold = 1_000_000L;
+        while (nextFrame - now > spinThreshold) {
+            LockSupport.parkNanos(nextFrame - now - spinThreshold);
+            now = System.nanoTime();
+        }
+        while (System.nanoTime() < nextFrame) {
+            Thread.onSpinWait();
+        }
+        return nextFrame;
+    }
+}
@@ -1,207 +1,807 @@
 package com.main;
 
+import com.battle.BattleEngine;
+import com.battle.BattleEvent;
+import com.battle.BattleListener;
+import com.battle.BattleScheduler;
+import com.battle.PlayField;
+import com.battle.Replay;
+import com.battle.ReplayCursor;
+import com.battle.ReplayRecorder;
+import com.perf.PaintEvent;
+import com.perf.PerformanceHud;
+import com.perf.RoundEvent;
 import com.player.PlayerSlime;
+import com.player.CombatSnapshot;
 import com.player.EnemySlime;
-import javax.imageio.ImageIO;
+import com.player.EnemyStats;
+import com.render.BackgroundCompositor;
+import com.render.CachedText;
+import com.render.ClipCache;
+import com.render.DirtyRegions;
+import com.render.FloatingNumbers;
+import com.render.GlyphAtlas;
+import com.render.ParticleSystem;
+import com.render.PixelScaler;
+import com.render.SpriteAnimation;
+import com.render.SpriteAnimator;
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
 
-public class GamePanel extends JPanel {
+public class GamePanel extends JPanel implements GameLoop.Scene {
+    // NOTE: Play field in logical coordinates, wave positions use the same space
+    private static final int LOGICAL_WIDTH = PlayField.WIDTH;
+    private static final int LOGICAL_HEIGHT = PlayField.HEIGHT;
+    // NOTE: Clips and timing tables are shared, each panel only keeps its slimes' animation state
+    private static final SpriteAnimation PLAYER_ANIMATION = new SpriteAnimation("/images/player", GameLoop.TICK_RATE);
+    private static final SpriteAnimation ENEMY_ANIMATION = new SpriteAnimation("/images/enemy", GameLoop.TICK_RATE);
+    private static final int SLIME_SIZE = 300;
+    private static final int PLAYER_X = 250;
+    private static final int ENEMY_X = 1050;
+    private static final int SLIME_Y = 400;
+    
+    // NOTE: Shared paint resources, painting a frame must not allocate
+    private static final Color FALLBACK_BACKGROUND = new Color(210, 180, 140);
+    private static final Color PLAYER_COLOR = new Color(100, 150, 255);
+    private static final Color ENEMY_COLOR = new Color(180, 100, 255);
+    private static final Font STAT_FONT = new Font("Arial", Font.BOLD, 18);
+    private static final Font LOG_FONT = new Font("Arial", Font.BOLD, 24);
+    private static final Font HEADER_FONT = new Font("Arial", Font.BOLD, 22);
+    private static final Font DAMAGE_FONT = new Font("Arial", Font.BOLD, 30);
+    private static final Color GOLD = new Color(255, 215, 0);
+    
+    // Numbers that change often are drawn glyph by glyph from their values, never as strings
+    private static final GlyphAtlas STAT_GLYPHS = GlyphAtlas.get(STAT_FONT, Color.WHITE);
+    private static final GlyphAtlas HEADER_GLYPHS = GlyphAtlas.get(HEADER_FONT, Color.WHITE);
+    // NOTE: The battle log changes on every attack, so it is drawn from glyphs too rather than rasterised per message
+    private static final GlyphAtlas LOG_GLYPHS = GlyphAtlas.get(LOG_FONT, Color.WHITE);
+    
+    // Translucent shapes are pre-rendered once, blitting an image allocates nothing
+    private static final BufferedImage LOG_BOX = createOverlay(800, 80, new Color(0, 0, 0, 180), 0, 0);
+    private static final BufferedImage PLAYER_ARC = createOverlay(310, 260, new Color(100, 150, 255, 180), -30, 100);
+    private static final BufferedImage ENEMY_ARC = createOverlay(310, 260, new Color(180, 100, 255, 180), 210, 100);
+    
+    // The MENU button is part of the scene, the game loop never paints Swing components
+    private static final Rectangle MENU_BUTTON = new Rectangle(20, 20, 120, 40);
+    private static final int BUTTON_NORMAL = 0;
+    private static final int BUTTON_HOVER = 1;
+    private static final int BUTTON_PRESSED = 2;
+    private static final BufferedImage[] MENU_BUTTON_IMAGES = {
+        createButton("MENU", new Color(238, 238, 238)),
+        createButton("MENU", new Color(220, 232, 246)),
+        createButton("MENU", new Color(184, 207, 229))
+    };
+    
     private Main mainFrame;
     private PlayerSlime player;
-    private EnemySlime enemy;
-    private BufferedImage backgroundImage;
-    private BufferedImage playerIdleImage;
-    private BufferedImage enemyIdleImage;
-    
-    private boolean battleInProgress;
-    private String battleLog;
-    private int animationFrame; // TODO: Implement animation frames
-    
-    // Thread-related fields
-    private Thread playerAttackThread;
-    private Thread enemyAttackThread;
-    private final Object battleLock = new Object();
+    private volatile EnemySlime enemy;
+    private final BackgroundCompositor background = new BackgroundCompositor("pillars");
+    private BufferedImage[] playerSprites;
+    private BufferedImage[] enemySprites;
+    
+    // Low-resolution mode (-Dslime.lowRes=true), null when drawing at full resolution
+    private final PixelScaler lowRes;
+    private final BackgroundCompositor lowResBackground;
+    private BufferedImage[] lowResPlayerSprites;
+    private BufferedImage[] lowResEnemySprites;
+    
+    // Written by the battle scheduler and read by the renderer
+    private volatile boolean battleInProgress;
+    private volatile String battleLog;
+    
+    // Battle state, the engine is stepped on Main's shared battle scheduler
+    private BattleEngine battleEngine;
+    private BattleScheduler.Battle battle;
     private volatile boolean playerAnimating = false;
     private volatile boolean enemyAnimating = false;
     
+    // Loop-clock animation state, attacks only flag a hit and update() times it
+    private static final int ATTACK_ANIMATION_TICKS = GameLoop.TICK_RATE * 300 / 1000;
+    private volatile boolean playerHitPending = false;
+    private volatile boolean enemyHitPending = false;
+    private long playerAnimationEndTick;
+    private long enemyAnimationEndTick;
+    private final SpriteAnimator playerAnimator = new SpriteAnimator(PLAYER_ANIMATION, 0);
+    private final SpriteAnimator enemyAnimator = new SpriteAnimator(ENEMY_ANIMATION, ENEMY_ANIMATION.getDurationTicks(SpriteAnimation.IDLE) / 2);
+    private volatile boolean animationResetPending = false;
+    private volatile boolean playerDeathPending = false;
+    private volatile boolean enemyDeathPending = false;
+    
+    // Hit, death and level-up particles, emitted and stepped on the loop tick
+    private static final int PLAYER_PARTICLES = 0;
+    private static final int ENEMY_PARTICLES = 1;
+    private static final int LEVEL_UP_PARTICLES = 2;
+    private final ParticleSystem particles = new ParticleSystem(ParticleSystem.DEFAULT_CAPACITY,
+        PLAYER_COLOR, ENEMY_COLOR, GOLD);
+    private final Rectangle drawnParticles = new Rectangle();
+    
+    // Damage numbers over the slime that was hit, gold for damage dealt and red for damage taken
+    private static final int DAMAGE_DEALT = 0;
+    private static final int DAMAGE_TAKEN = 1;
+    private final FloatingNumbers damageNumbers = new FloatingNumbers(32, GameLoop.TICK_RATE, 90,
+        GlyphAtlas.get(DAMAGE_FONT, GOLD), GlyphAtlas.get(DAMAGE_FONT, new Color(255, 70, 70)));
+    private volatile int playerHitDamage;
+    private volatile int enemyHitDamage;
+    
+    // NOTE: Ticks, loop frames and Swing paints take turns, Swing only draws the scene itself until the loop has rendered a frame
+    private final Object frameLock = new Object();
+    private boolean frameRendered;
+    
+    // HP at the previous and current tick, interpolated when rendering
+    private volatile boolean loopDriven = false;
+    private volatile int previousPlayerHealth, currentPlayerHealth;
+    private volatile int previousEnemyHealth, currentEnemyHealth;
+    
+    // Dirty-region rendering, the loop only redraws the parts of the last frame that changed
+    private final DirtyRegions regions = new DirtyRegions(16);
+    private final Rectangle backgroundDirty = new Rectangle();
+    private final int playerHpRegion = regions.register(295, 318, 280, 60);
+    private final int playerStatRegion = regions.register(295, 708, 320, 30);
+    private final int playerSpriteRegion = regions.register(250, 400, 300, 300);
+    private final int playerArcRegion = regions.register(395, 415, 310, 260);
+    private final int enemyHpRegion = regions.register(1095, 318, 280, 60);
+    private final int enemyStatRegion = regions.register(1095, 708, 380, 30);
+    private final int enemySpriteRegion = regions.register(1050, 400, 300, 300);
+    private final int enemyArcRegion = regions.register(895, 415, 310, 260);
+    private final int battleLogRegion = regions.register(400, 750, 800, 80);
+    private final int headerRegion = regions.register(500, 125, 600, 65);
+    private final int menuButtonRegion = regions.register(MENU_BUTTON.x, MENU_BUTTON.y, MENU_BUTTON.width, MENU_BUTTON.height);
+    // Written on the event thread by the mouse, read when drawing
+    private volatile int menuButtonState = BUTTON_NORMAL;
+    private BufferedImage sceneBuffer;
+    // One graphics per strip of DirtyRegions (a few hundred at most), re-clipping a single graphics allocates on every frame
+    private final ClipCache sceneClips = new ClipCache(1024);
+    private boolean playerHpChanging, enemyHpChanging;
+    private volatile boolean showRegions = Boolean.getBoolean("slime.debugRegions");
+    
+    // Diagnostics, the HUD is drawn over the frame and the round is reported to JFR
+    private final PerformanceHud hud = new PerformanceHud(1_000_000_000L / GameLoop.TICK_RATE);
+    private RoundEvent roundEvent;
+    
+    // Replay playback, the cursor is null when playing live
+    private static final int[] REPLAY_SPEEDS = {1, 2, 4, 8, 16, 32, 64};
+    private static final long REPLAY_SEEK_MILLIS = 10_000;
+    private final ReplayCursor replay;
+    // Shows the events of a battle this panel did not start, a replay or the benchmarks
+    private final BattleListener eventListener;
+    private final CachedText replayText = new CachedText(HEADER_FONT, Color.WHITE);
+    private double replayClock;
+    private int replayRound = -1;
+    private long replayStatus = -1;
+    private volatile int replaySpeed = 1;
+    private volatile boolean replayPaused;
+    private volatile long replaySeekRequest = -1;
+    
     public GamePanel(Main mainFrame, PlayerSlime player) {
+        this(mainFrame, player, true);
+    }
+    
+    /**
+     * Builds a panel that plays a recorded session instead of a live battle
+     * @param replay the session, see {@link ReplayRecorder}
+     */
+    public GamePanel(Main mainFrame, Replay replay) {
+        this(mainFrame, new PlayerSlime(), false, new ReplayCursor(replay));
+    }
+    
+    // NOTE: autoStart = false builds a panel without a running battle, used by the benchmarks
+    GamePanel(Main mainFrame, PlayerSlime player, boolean autoStart) {
+        this(mainFrame, player, autoStart, null);
+    }
+    
+    private GamePanel(Main mainFrame, PlayerSlime player, boolean autoStart, ReplayCursor replay) {
         this.mainFrame = mainFrame;
         this.player = player;
         this.enemy = new EnemySlime(player.getRoundsWon() + 1);
         this.battleInProgress = false;
         this.battleLog = "Press START BATTLE to begin!";
-        this.animationFrame = 0;
+        this.replay = replay;
+        this.eventListener = new BattleListener() {
+            @Override
+            public void onAttack(BattleEvent event) {
+                battleInProgress = true;
+                showAttack(event);
+            }
+            
+            @Override
+            public void onBattleEnd(boolean playerWon, long time) {
+                battleInProgress = false;
+                showDeath(playerWon);
+                battleLog = playerWon ? "Victory!" : "Defeat!";
+                regions.invalidate(battleLogRegion);
+            }
+        };
         
-        setLayout(null);
-        setPreferredSize(new Dimension(1600, 900));
+        if (PixelScaler.isEnabled()) {
+            this.lowRes = new PixelScaler(LOGICAL_WIDTH, LOGICAL_HEIGHT);
+            this.lowResBackground = new BackgroundCompositor("pillars", PixelScaler.ASSET_RESOLUTION, BackgroundCompositor.DEFAULT_SCROLL_SPEEDS);
+        } else {
+            this.lowRes = null;
+            this.lowResBackground = null;
+        }
+        
+        setPreferredSize(new Dimension(LOGICAL_WIDTH, LOGICAL_HEIGHT));
         
         loadImages();
         createUI();
-        startBattle();
+        if (replay != null) {
+            createReplayControls();
+            showReplayRound();
+            battleLog = "1-7 speed | SPACE pause | LEFT/RIGHT seek | PAGE UP/DOWN round";
+        } else if (autoStart) {
+            startBattle();
+        }
     }
     
-    private void loadImages() {
-        try {
-            backgroundImage = ImageIO.read(getClass().getResourceAsStream("/images/background/pillars/1920X1080/Full.png"));
-            playerIdleImage = ImageIO.read(getClass().getResourceAsStream("/images/player/idle/idle_00.png"));
-            enemyIdleImage = ImageIO.read(getClass().getResourceAsStream("/images/enemy/idle/idle_00.png"));
-        } catch (Exception e) {
-            System.err.println("Error loading game images: " + e.getMessage());
+    /**
+     *
+     * @return classpaths of the images a battle needs, Main waits for them before building the panel
+     */
+    static List<String> requiredAssets() {
+        List<String> paths = new ArrayList<>(new BackgroundCompositor("pillars").getLayerPaths());
+        if (PixelScaler.isEnabled()) {
+            paths.addAll(new BackgroundCompositor("pillars", PixelScaler.ASSET_RESOLUTION, BackgroundCompositor.DEFAULT_SCROLL_SPEEDS).getLayerPaths());
         }
+        paths.addAll(PLAYER_ANIMATION.getSpritePaths());
+        paths.addAll(ENEMY_ANIMATION.getSpritePaths());
+        return paths;
     }
     
-    private void createUI() {
-        // Back button
-        JButton backButton = new JButton("MENU");
-        backButton.setFont(new Font("Arial", Font.BOLD, 20));
-        backButton.setBounds(20, 20, 120, 40);
-        backButton.addActionListener(e -> returnToMenu());
-        add(backButton);
+    // NOTE: Feeds attacks and round ends from any thread as a battle would, used by the benchmarks
+    BattleListener getEventListener() {
+        return eventListener;
     }
     
-    private void startBattle() {
-        battleInProgress = true;
-        battleLog = "Battle Started!";
+    private void loadImages() {
+        // NOTE: Shared cache, sprites come back already scaled to their drawn size
+        playerSprites = PLAYER_ANIMATION.loadSprites(SLIME_SIZE, SLIME_SIZE);
+        enemySprites = ENEMY_ANIMATION.loadSprites(SLIME_SIZE, SLIME_SIZE);
+    }
+    
+    // NOTE: Sprites for the low-resolution buffer, scaled straight from the source frames
+    private void loadLowResImages() {
+        int size = lowRes.toInternal(SLIME_SIZE);
+        lowResPlayerSprites = PLAYER_ANIMATION.loadSprites(size, size);
+        lowResEnemySprites = ENEMY_ANIMATION.loadSprites(size, size);
+    }
+    
+    private void createUI() {
+        // Back button, drawn with the scene and driven by the panel's mouse events
+        java.awt.event.MouseAdapter menuButton = new java.awt.event.MouseAdapter() {
+            @Override
+            public void mouseMoved(java.awt.event.MouseEvent e) {
+                setMenuButtonState(overMenuButton(e) ? BUTTON_HOVER : BUTTON_NORMAL);
+            }
+            
+            @Override
+            public void mouseDragged(java.awt.event.MouseEvent e) {
+                if (menuButtonState != BUTTON_NORMAL || overMenuButton(e)) {
+                    setMenuButtonState(overMenuButton(e) ? BUTTON_PRESSED : BUTTON_HOVER);
+                }
+            }
+            
+            @Override
+            public void mousePressed(java.awt.event.MouseEvent e) {
+                if (SwingUtilities.isLeftMouseButton(e) && overMenuButton(e)) {
+                    setMenuButtonState(BUTTON_PRESSED);
+                }
+            }
+            
+            @Override
+            public void mouseReleased(java.awt.event.MouseEvent e) {
+                boolean clicked = menuButtonState == BUTTON_PRESSED && overMenuButton(e);
+                setMenuButtonState(overMenuButton(e) ? BUTTON_HOVER : BUTTON_NORMAL);
+                if (clicked) {
+                    returnToMenu();
+                }
+            }
+            
+            @Override
+            public void mouseExited(java.awt.event.MouseEvent e) {
+                setMenuButtonState(BUTTON_NORMAL);
+            }
+        };
+        addMouseListener(menuButton);
+        addMouseMotionListener(menuButton);
+        
+        // F3 toggles the repainted-region debug overlay
+        getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_F3, 0), "toggleRegions");
+        getActionMap().put("toggleRegions", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                showRegions = !showRegions;
+            }
+        });
         
-        // NOTE: Start separate attack threads for player and enemy
-        startPlayerAttackThread();
-        startEnemyAttackThread();
+        // F2 toggles the performance HUD
+        getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_F2, 0), "togglePerfHud");
+        getActionMap().put("togglePerfHud", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                hud.toggle();
+            }
+        });
     }
     
-    private void startPlayerAttackThread() {
-        playerAttackThread = new Thread(() -> {
-            try {
-                // NOTE: Attack speed calculation
-                long attackInterval = (long) (1000 / player.getAttackSpeed());
-                
-                while (battleInProgress && player.isAlive() && enemy.isAlive()) {
-                    Thread.sleep(attackInterval);
-                    
-                    if (battleInProgress && enemy.isAlive()) {
-                        synchronized (battleLock) {
-                            playerAttack();
-                        }
-                        
-                        // Check if battle ended
-                        if (!enemy.isAlive()) {
-                            SwingUtilities.invokeLater(() -> endBattle(true));
-                            break;
-                        }
-                    }
+    private boolean overMenuButton(java.awt.event.MouseEvent e) {
+        Point2D point = new Point2D.Double(e.getX(), e.getY());
+        if (lowRes != null) {
+            lowRes.toLogical(point);
+        }
+        return MENU_BUTTON.contains(point);
+    }
+    
+    private void setMenuButtonState(int state) {
+        if (menuButtonState != state) {
+            menuButtonState = state;
+            regions.invalidate(menuButtonRegion);
+            if (!loopDriven) {
+                repaint(MENU_BUTTON);
+            }
+        }
+    }
+    
+    // NOTE: Keys only post requests, the game loop applies them on its next tick
+    private void createReplayControls() {
+        InputMap inputs = getInputMap(WHEN_IN_FOCUSED_WINDOW);
+        ActionMap actions = getActionMap();
+        for (int i = 0; i < REPLAY_SPEEDS.length; i++) {
+            int speed = REPLAY_SPEEDS[i];
+            inputs.put(KeyStroke.getKeyStroke(KeyEvent.VK_1 + i, 0), "replaySpeed" + speed);
+            actions.put("replaySpeed" + speed, new AbstractAction() {
+                @Override
+                public void actionPerformed(java.awt.event.ActionEvent e) {
+                    replaySpeed = speed;
                 }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+            });
+        }
+        inputs.put(KeyStroke.getKeyStroke(KeyEvent.VK_SPACE, 0), "replayPause");
+        actions.put("replayPause", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                replayPaused = !replayPaused;
             }
         });
-        playerAttackThread.setDaemon(true);
-        playerAttackThread.start();
+        bindReplaySeek(KeyEvent.VK_LEFT, "replayBack", -1, false);
+        bindReplaySeek(KeyEvent.VK_RIGHT, "replayForward", 1, false);
+        bindReplaySeek(KeyEvent.VK_PAGE_UP, "replayPreviousRound", -1, true);
+        bindReplaySeek(KeyEvent.VK_PAGE_DOWN, "replayNextRound", 1, true);
     }
     
-    private void startEnemyAttackThread() {
-        enemyAttackThread = new Thread(() -> {
-            try {
-                // Attack speed calculation
-                long attackInterval = (long) (1000 / enemy.getAttackSpeed());
-                
-                while (battleInProgress && player.isAlive() && enemy.isAlive()) {
-                    Thread.sleep(attackInterval);
-                    
-                    if (battleInProgress && player.isAlive()) {
-                        synchronized (battleLock) {
-                            enemyAttack();
-                        }
-                        
-                        // Check if battle ended
-                        if (!player.isAlive()) {
-                            SwingUtilities.invokeLater(() -> endBattle(false));
-                            break;
-                        }
-                    }
+    /**
+     * Binds a key that seeks the replay
+     * @param direction -1 to go back, 1 to go forward
+     * @param byRound true to jump to the start of a round, false to skip {@link #REPLAY_SEEK_MILLIS}
+     */
+    private void bindReplaySeek(int key, String name, int direction, boolean byRound) {
+        getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(key, 0), name);
+        getActionMap().put(name, new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                long now = replay.getTime();
+                if (!byRound) {
+                    replaySeekRequest = Math.max(0, now + direction * REPLAY_SEEK_MILLIS);
+                    return;
+                }
+                Replay recorded = replay.getReplay();
+                int round = Math.max(0, replay.getRound() + direction);
+                if (direction < 0 && replay.getRound() >= 0 && now > recorded.getRoundStart(replay.getRound())) {
+                    round = replay.getRound(); // back to the start of this round first
+                }
+                if (round < recorded.getRoundCount()) {
+                    replaySeekRequest = recorded.getRoundStart(round);
                 }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
             }
         });
-        enemyAttackThread.setDaemon(true);
-        enemyAttackThread.start();
     }
     
-    private void playerAttack() {
+    /**
+     * Moves the replay forward by one tick of playback, or to a requested position
+     */
+    private void updateReplay() {
+        long seek = replaySeekRequest;
+        if (seek >= 0) {
+            replaySeekRequest = -1;
+            replay.seek(seek);
+            replayClock = replay.getTime();
+            battleInProgress = !replay.isRoundOver();
+            battleLog = "Round " + (replay.getRound() + 1) + " of " + replay.getReplay().getRoundCount();
+            regions.invalidateAll();
+            loopDriven = false; // jump the HP bars instead of sliding them
+        } else if (!replayPaused && !replay.isAtEnd()) {
+            replayClock += replaySpeed * 1000.0 / GameLoop.TICK_RATE;
+            replay.advanceTo((long) replayClock, eventListener);
+        }
+        if (replay.getRound() != replayRound) {
+            showReplayRound();
+        }
+        if (replay.getRound() >= 0) {
+            player.setHealth(replay.getPlayerHealth());
+            enemy.setHealth(replay.getEnemyHealth());
+        }
+        // The header is redrawn when the shown second, speed or pause state changes
+        long status = (replay.getTime() / 1000) << 8 | replaySpeed << 1 | (replayPaused || replay.isAtEnd() ? 1 : 0);
+        if (status != replayStatus) {
+            replayStatus = status;
+            regions.invalidate(headerRegion);
+        }
+    }
+    
+    // NOTE: Stand-ins carry the recorded stats, so the HUD draws a replayed round like a live one
+    private void showReplayRound() {
+        replayRound = replay.getRound();
+        if (replayRound < 0) {
+            return;
+        }
+        PlayerSlime shownPlayer = new PlayerSlime();
+        shownPlayer.setMaxHealth(replay.getPlayerMaxHealth());
+        shownPlayer.setHealth(replay.getPlayerHealth());
+        shownPlayer.setDamege(replay.getPlayerDamage());
+        shownPlayer.setAttackSpeed(replay.getPlayerAttackSpeed());
+        shownPlayer.setRoundsWon(replay.getLevel() - 1);
+        EnemySlime shownEnemy = new EnemySlime(replay.getLevel());
+        shownEnemy.setMaxHealth(replay.getEnemyMaxHealth());
+        shownEnemy.setHealth(replay.getEnemyHealth());
+        shownEnemy.setDamege(replay.getEnemyDamage());
+        shownEnemy.setAttackSpeed(replay.getEnemyAttackSpeed());
+        player = shownPlayer;
+        enemy = shownEnemy;
+        battleInProgress = !replay.isRoundOver();
+        animationResetPending = true;
+        regions.invalidateAll();
+    }
+    
+    private static String formatReplayTime(long millis) {
+        long seconds = millis / 1000;
+        return String.format("%d:%02d", seconds / 60, seconds % 60);
+    }
+    
+    private void startBattle() {
+        // Whatever this panel played before must not land on the new round
+        stopBattle();
+        battleInProgress = true;
+        battleLog = "Battle Started!";
+        animationResetPending = true;
+        regions.invalidateAll(); // new enemy, stats and round header
+        roundEvent = new RoundEvent();
+        roundEvent.begin();
+        
+        // NOTE: The engine resolves the battle, this panel only shows its events
+        battleEngine = new BattleEngine(player, enemy);
+        ReplayRecorder recorder = mainFrame.getReplayRecorder();
+        recorder.beginRound(player, enemy);
+        battleEngine.addListener(recorder);
+        battleEngine.addListener(new BattleListener() {
+            @Override
+            public void onAttack(BattleEvent event) {
+                showAttack(event);
+            }
+            
+            @Override
+            public void onBattleEnd(boolean playerWon, long time) {
+                SwingUtilities.invokeLater(() -> endBattle(playerWon));
+            }
+        });
+        // NOTE: Replay the engine's virtual timeline against the wall clock
+        battle = mainFrame.getBattleScheduler().start(battleEngine);
+    }
+    
+    /**
+     * Cancels the running battle, no attack lands after this returns
+     */
+    private void stopBattle() {
+        if (battle != null) {
+            battle.cancel();
+            battle = null;
+        }
+        finishRound(RoundEvent.ABANDONED);
+    }
+    
+    // NOTE: Reports the round to JFR once, whichever way it ended first
+    private void finishRound(String outcome) {
+        RoundEvent event = roundEvent;
+        if (event == null) {
+            return;
+        }
+        roundEvent = null;
+        event.end();
+        if (event.shouldCommit()) {
+            event.level = enemy.getLevel();
+            event.outcome = outcome;
+            event.playerHealth = player.getHealth();
+            event.commit();
+        }
+    }
+    
+    private void showAttack(BattleEvent event) {
         // condition check if battle is still in progress
-        if (!battleInProgress || !enemy.isAlive()) return;
+        if (!battleInProgress) return;
         
-        double damage = player.getDamege();
-        enemy.takeDamage(damage);
-        battleLog = "Player attacks for " + (int)damage + " damage!";
+        boolean playerSide = event.isPlayerAttack();
+        battleLog = (playerSide ? "Player" : "Enemy") + " attacks for " + (int)event.getDamage() + " damage!";
         
-        playerAnimating = true;
-        animationFrame++;
+        // NOTE: The game loop picks the hit up on its next tick and renders it
+        if (playerSide) {
+            playerHitDamage = (int) event.getDamage();
+            playerHitPending = true;
+            regions.invalidate(enemyHpRegion);
+        } else {
+            enemyHitDamage = (int) event.getDamage();
+            enemyHitPending = true;
+            regions.invalidate(playerHpRegion);
+        }
+        regions.invalidate(battleLogRegion);
+    }
+    
+    // NOTE: The loser's die clip starts on the loop's next tick
+    private void showDeath(boolean playerWon) {
+        if (playerWon) {
+            enemyDeathPending = true;
+        } else {
+            playerDeathPending = true;
+        }
+    }
+    
+    private void updateParticles() {
+        particles.update();
+        if (hud.isVisible()) {
+            hud.particlesUpdated(particles.getCount(), particles.getDropped());
+        }
+    }
+    
+    @Override
+    public void update(long tick) {
+        synchronized (frameLock) {
+            updateScene(tick);
+        }
+    }
+    
+    private void updateScene(long tick) {
+        if (hud.isVisible()) {
+            hud.tickStarted(tick, System.nanoTime());
+        }
+        if (replay != null) {
+            updateReplay();
+        }
         
-        SwingUtilities.invokeLater(() -> {
-            repaint();
-            // Reset animation flag after a short delay
-            Timer animTimer = new Timer(300, e -> {
-                playerAnimating = false;
-                ((Timer)e.getSource()).stop();
-            });
-            animTimer.setRepeats(false);
-            animTimer.start();
-        });
+        // Animation timing runs on the loop clock
+        if (animationResetPending) {
+            animationResetPending = false;
+            playerAnimator.reset(tick);
+            enemyAnimator.reset(tick);
+        }
+        // Numbers already up age first, so this tick's hits show theirs from the start of their rise
+        damageNumbers.update();
+        if (playerHitPending) {
+            playerHitPending = false;
+            playerAnimationEndTick = tick + ATTACK_ANIMATION_TICKS;
+            playerAnimator.attack(tick);
+            particles.burst(ENEMY_X + SLIME_SIZE / 2, SLIME_Y + SLIME_SIZE / 2, 32, 6, 3, PLAYER_PARTICLES, 30);
+            damageNumbers.spawn(ENEMY_X + SLIME_SIZE / 2, SLIME_Y + SLIME_SIZE / 3, -playerHitDamage, DAMAGE_DEALT);
+        }
+        if (enemyHitPending) {
+            enemyHitPending = false;
+            enemyAnimationEndTick = tick + ATTACK_ANIMATION_TICKS;
+            enemyAnimator.attack(tick);
+            particles.burst(PLAYER_X + SLIME_SIZE / 2, SLIME_Y + SLIME_SIZE / 2, 32, 6, 3, ENEMY_PARTICLES, 30);
+            damageNumbers.spawn(PLAYER_X + SLIME_SIZE / 2, SLIME_Y + SLIME_SIZE / 3, -enemyHitDamage, DAMAGE_TAKEN);
+        }
+        if (playerDeathPending) {
+            playerDeathPending = false;
+            playerAnimator.die(tick);
+            particles.burst(PLAYER_X + SLIME_SIZE / 2, SLIME_Y + SLIME_SIZE / 2, 600, 10, 4, PLAYER_PARTICLES, 60);
+        }
+        if (enemyDeathPending) {
+            enemyDeathPending = false;
+            enemyAnimator.die(tick);
+            particles.burst(ENEMY_X + SLIME_SIZE / 2, SLIME_Y + SLIME_SIZE / 2, 600, 10, 4, ENEMY_PARTICLES, 60);
+            // The enemy's death is the player's level-up, a fountain rising from the player
+            particles.burst(PLAYER_X + SLIME_SIZE / 2, SLIME_Y, 400, 4, 9, LEVEL_UP_PARTICLES, 70);
+        }
+        updateParticles();
+        if (playerAnimator.advance(tick)) {
+            regions.invalidate(playerSpriteRegion);
+        }
+        if (enemyAnimator.advance(tick)) {
+            regions.invalidate(enemySpriteRegion);
+        }
+        if (playerAnimating != tick < playerAnimationEndTick) {
+            playerAnimating = !playerAnimating;
+            regions.invalidate(playerArcRegion);
+        }
+        if (enemyAnimating != tick < enemyAnimationEndTick) {
+            enemyAnimating = !enemyAnimating;
+            regions.invalidate(enemyArcRegion);
+        }
+        if (lowRes != null) {
+            // The low-resolution frame is redrawn whole, no damage tracking needed
+            lowResBackground.advance(tick * 1000 / GameLoop.TICK_RATE);
+        } else if (background.advance(tick * 1000 / GameLoop.TICK_RATE)) {
+            regions.invalidate(background.getDirtyBounds(backgroundDirty));
+        }
+        
+        // Remember both sides' HP for interpolation between ticks
+        int playerHealth = player.snapshot().getHealth();
+        int enemyHealth = enemy.snapshot().getHealth();
+        previousPlayerHealth = loopDriven ? currentPlayerHealth : playerHealth;
+        previousEnemyHealth = loopDriven ? currentEnemyHealth : enemyHealth;
+        currentPlayerHealth = playerHealth;
+        currentEnemyHealth = enemyHealth;
+        loopDriven = true;
+        
+        // An HP bar is redrawn while it interpolates and once more when it settles
+        boolean playerChanging = previousPlayerHealth != currentPlayerHealth;
+        boolean enemyChanging = previousEnemyHealth != currentEnemyHealth;
+        if (playerChanging || playerHpChanging) {
+            regions.invalidate(playerHpRegion);
+        }
+        if (enemyChanging || enemyHpChanging) {
+            regions.invalidate(enemyHpRegion);
+        }
+        playerHpChanging = playerChanging;
+        enemyHpChanging = enemyChanging;
     }
     
-    private void enemyAttack() {
-        // condition check if battle is still in progress
-        if (!battleInProgress || !player.isAlive()) return;
+    @Override
+    public void render(Graphics2D g, double alpha) {
+        synchronized (frameLock) {
+            renderFrame(g, alpha);
+            frameRendered = true;
+        }
+    }
+    
+    private void renderFrame(Graphics2D g, double alpha) {
+        if (hud.isVisible()) {
+            hud.frameStarted(System.nanoTime());
+        }
+        PaintEvent paint = PaintEvent.start();
+        if (lowRes != null) {
+            renderLowRes(g, alpha, true);
+            commitPaint(paint, 0, (long) getWidth() * getHeight());
+            drawHud(g);
+            return;
+        }
         
-        double damage = enemy.getDamege();
-        player.takeDamage(damage);
-        battleLog = "Enemy attacks for " + (int)damage + " damage!";
+        int width = getWidth();
+        int height = getHeight();
+        if (sceneBuffer == null || sceneBuffer.getWidth() != width || sceneBuffer.getHeight() != height) {
+            sceneBuffer = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            sceneClips.setTarget(sceneBuffer);
+            regions.setSize(width, height);
+        }
         
-        enemyAnimating = true;
-        animationFrame++;
+        // Interpolating HP bars change every frame, not only on ticks
+        if (playerHpChanging) {
+            regions.invalidate(playerHpRegion);
+        }
+        if (enemyHpChanging) {
+            regions.invalidate(enemyHpRegion);
+        }
+        // NOTE: Particles are blended into the kept frame, where they were last frame is redrawn without them even without a tick in between
+        regions.invalidate(drawnParticles);
         
-        SwingUtilities.invokeLater(() -> {
-            repaint();
-            // Reset animation flag after a short delay
-            Timer animTimer = new Timer(300, e -> {
-                enemyAnimating = false;
-                ((Timer)e.getSource()).stop();
-            });
-            animTimer.setRepeats(false);
-            animTimer.start();
-        });
+        // Redraw only the damaged rectangles of the kept frame
+        int count = regions.collect();
+        long pixels = 0;
+        for (int i = 0; i < count; i++) {
+            Rectangle rect = regions.getFrameRect(i);
+            renderScene(sceneClips.get(rect), alpha);
+            pixels += (long) rect.width * rect.height;
+        }
+        
+        particles.draw(sceneBuffer, 1.0);
+        drawnParticles.setBounds(particles.getBounds());
+        g.drawImage(sceneBuffer, 0, 0, null);
+        // NOTE: Damage numbers go over the finished frame like the HUD, the kept scene buffer never holds them
+        damageNumbers.draw(g);
+        commitPaint(paint, count, pixels);
+        if (showRegions) {
+            regions.drawOverlay(g);
+        }
+        drawHud(g);
+    }
+    
+    private void commitPaint(PaintEvent paint, int regionCount, long pixels) {
+        if (paint == null) {
+            return;
+        }
+        paint.end();
+        if (paint.shouldCommit()) {
+            paint.scene = "battle";
+            paint.regions = regionCount;
+            paint.clipPixels = pixels;
+            paint.commit();
+        }
+    }
+    
+    // NOTE: The HUD goes over the finished frame, so it is never part of the kept scene buffer
+    private void drawHud(Graphics2D g) {
+        if (hud.isVisible()) {
+            hud.draw(g, LOGICAL_WIDTH - 440, 70);
+        }
+    }
+    
+    /**
+     * Draws the background and sprites into the low-resolution buffer, scales
+     * it up to the view and draws the HUD over it at full resolution
+     * @param fromLoop true on the game loop, which owns the particles and damage numbers
+     */
+    private void renderLowRes(Graphics2D g, double alpha, boolean fromLoop) {
+        if (lowRes.update(getWidth(), getHeight(), g.getDeviceConfiguration().getDefaultTransform())) {
+            loadLowResImages();
+        }
+        
+        Graphics2D buffer = lowRes.getGraphics();
+        if (!lowResBackground.render(buffer, lowRes.getInternalWidth(), lowRes.getInternalHeight())) {
+            buffer.setColor(FALLBACK_BACKGROUND);
+            buffer.fillRect(0, 0, lowRes.getInternalWidth(), lowRes.getInternalHeight());
+        }
+        lowRes.useLogicalCoordinates();
+        renderSprites(buffer, spriteOf(lowResPlayerSprites, playerAnimator), spriteOf(lowResEnemySprites, enemyAnimator));
+        if (fromLoop) {
+            particles.draw(lowRes.getBuffer(), (double) lowRes.getInternalWidth() / LOGICAL_WIDTH);
+        }
+        lowRes.present(g);
+        renderLowResHud(g, alpha, fromLoop);
+    }
+    
+    // NOTE: The HUD is drawn at full resolution over the presented buffer, in logical coordinates
+    private void renderLowResHud(Graphics2D g, double alpha, boolean fromLoop) {
+        AffineTransform saved = g.getTransform();
+        try {
+            lowRes.applyLogicalTransform(g);
+            renderHud(g, alpha);
+            if (fromLoop) {
+                damageNumbers.draw(g);
+            }
+        } finally {
+            g.setTransform(saved);
+        }
+    }
+    
+    private int interpolate(int previous, int current, int actual, double alpha) {
+        if (!loopDriven) {
+            return actual;
+        }
+        return (int) Math.round(previous + (current - previous) * alpha);
     }
     
     private void endBattle(boolean playerWon) {
         if (!battleInProgress) return; // Prevent multiple calls
         
         battleInProgress = false;
+        finishRound(playerWon ? RoundEvent.WON : RoundEvent.LOST);
+        showDeath(playerWon);
         
-        // Stop attack threads
-        if (playerAttackThread != null && playerAttackThread.isAlive()) {
-            playerAttackThread.interrupt();
-        }
-        if (enemyAttackThread != null && enemyAttackThread.isAlive()) {
-            enemyAttackThread.interrupt();
-        }
+        // Stop the battle's scheduled attacks
+        stopBattle();
+        mainFrame.getAutoSave().saveReplay(mainFrame.getReplayRecorder().snapshot());
         
         if (playerWon) {
             player.incrementRoundsWon();
-            int skillPointsEarned = 2 + (enemy.getLevel() * 2); // score formula
+            int skillPointsEarned = enemy.getSkillPointReward();
             player.addSkillPoints(skillPointsEarned);
+            mainFrame.getAutoSave().roundFinished(player, enemy.getLevel(), true, skillPointsEarned);
             battleLog = "Victory! Earned " + skillPointsEarned + " skill points!";
+            regions.invalidate(battleLogRegion);
+            regions.invalidate(headerRegion);
             
             // Show victory dialog
             Timer delayTimer = new Timer(2000, e -> {
                 ((Timer)e.getSource()).stop();
                 
-                // Calculate next enemy stats
+                // Next enemy's stats, from the same table nextRound() builds it with
+                EnemyStats stats = EnemyStats.getDefault();
                 int nextLevel = player.getRoundsWon() + 1;
-                int nextEnemyHP = 80 + (nextLevel * 15);
-                int nextEnemyATK = (int)(8.0 + (nextLevel * 2));
-                double nextEnemySpeed = 1.0 + (nextLevel * 0.1);
+                int nextEnemyHP = stats.getHealth(nextLevel);
+                int nextEnemyATK = (int) stats.getDamage(nextLevel);
+                double nextEnemySpeed = stats.getAttackSpeed(nextLevel);
                 
                 int choice = JOptionPane.showConfirmDialog(this, 
                     "You won! Earned " + skillPointsEarned + " skill points!\n" +
@@ -224,7 +824,9 @@ public class GamePanel extends JPanel {
             delayTimer.setRepeats(false);
             delayTimer.start();
         } else {
+            mainFrame.getAutoSave().roundFinished(player, enemy.getLevel(), false, 0);
             battleLog = "Defeat! Game Over.";
+            regions.invalidate(battleLogRegion);
             
             // Show defeat dialog
             Timer delayTimer = new Timer(2000, e -> {
@@ -278,13 +880,8 @@ public class GamePanel extends JPanel {
     private void returnToMenu() {
         battleInProgress = false;
         
-        // Interrupt attack threads
-        if (playerAttackThread != null && playerAttackThread.isAlive()) {
-            playerAttackThread.interrupt();
-        }
-        if (enemyAttackThread != null && enemyAttackThread.isAlive()) {
-            enemyAttackThread.interrupt();
-        }
+        // Cancel the battle before touching the player
+        stopBattle();
         
         // Reset player HP when returning to menu
         player.resetForNewRound();
@@ -294,101 +891,210 @@ public class GamePanel extends JPanel {
     
     @Override
     protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
+        PaintEvent paint = PaintEvent.start();
         Graphics2D g2d = (Graphics2D) g; // type case from Graphics -> Graphics2D
-        
+        // NOTE: The scene covers every pixel, so the UI delegate's fill (and its Graphics copy) is skipped
+        synchronized (frameLock) {
+            if (frameRendered && lowRes != null) {
+                // The loop owns the scene, Swing is shown its last finished frame
+                lowRes.present(g2d);
+                renderLowResHud(g2d, 1.0, false);
+            } else if (frameRendered) {
+                g2d.drawImage(sceneBuffer, 0, 0, null);
+            } else if (lowRes != null) {
+                renderLowRes(g2d, 1.0, false);
+            } else {
+                renderScene(g2d, 1.0);
+            }
+        }
+        commitPaint(paint, 0, (long) getWidth() * getHeight());
+    }
+    
+    // NOTE: A flat button face with a border and a centered label, one image per state
+    private static BufferedImage createButton(String label, Color face) {
+        BufferedImage image = new BufferedImage(MENU_BUTTON.width, MENU_BUTTON.height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(face);
+            g.fillRect(0, 0, image.getWidth(), image.getHeight());
+            g.setColor(new Color(122, 138, 153));
+            g.drawRect(0, 0, image.getWidth() - 1, image.getHeight() - 1);
+            g.setFont(new Font("Arial", Font.BOLD, 20));
+            g.setColor(Color.BLACK);
+            FontMetrics metrics = g.getFontMetrics();
+            g.drawString(label, (image.getWidth() - metrics.stringWidth(label)) / 2,
+                (image.getHeight() - metrics.getHeight()) / 2 + metrics.getAscent());
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+    
+    /**
+     * Renders a translucent box, or an arc stroke when arcExtent is not zero
+     */
+    private static BufferedImage createOverlay(int width, int height, Color color, int arcStart, int arcExtent) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(color);
+            if (arcExtent == 0) {
+                g.fillRect(0, 0, width, height);
+            } else {
+                g.setStroke(new BasicStroke(10));
+                g.drawArc(5, 5, width - 10, height - 10, arcStart, arcExtent);
+            }
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+    
+    private void renderScene(Graphics2D g2d, double alpha) {
         // Draw background
-        if (backgroundImage != null) {
-            g2d.drawImage(backgroundImage, 0, 0, getWidth(), getHeight(), this);
-        } else {
-            g2d.setColor(new Color(210, 180, 140));
+        if (!background.render(g2d, getWidth(), getHeight())) {
+            g2d.setColor(FALLBACK_BACKGROUND);
             g2d.fillRect(0, 0, getWidth(), getHeight());
         }
         
-        // Draw player slime (left side)
-        int slimeSize = 300;
-        int playerX = 250;
-        int playerY = 400;
+        renderSprites(g2d, spriteOf(playerSprites, playerAnimator), spriteOf(enemySprites, enemyAnimator));
+        renderHud(g2d, alpha);
+    }
+    
+    private static BufferedImage spriteOf(BufferedImage[] sprites, SpriteAnimator animator) {
+        return sprites == null ? null : sprites[animator.getSprite()];
+    }
+    
+    /**
+     * Draws both slimes and the attack arcs, the part of the scene that is
+     * pixel art and goes into the low-resolution buffer
+     */
+    private void renderSprites(Graphics2D g2d, BufferedImage playerImage, BufferedImage enemyImage) {
+        int slimeSize = SLIME_SIZE;
+        
+        // Draw player slime (left side), a 1:1 blit at full resolution
+        if (playerImage != null) {
+            g2d.drawImage(playerImage, PLAYER_X, SLIME_Y, slimeSize, slimeSize, null);
+        } else {
+            g2d.setColor(PLAYER_COLOR);
+            g2d.fillOval(PLAYER_X, SLIME_Y, slimeSize, slimeSize);
+        }
         
-        if (playerIdleImage != null) {
-            g2d.drawImage(playerIdleImage, playerX, playerY, slimeSize, slimeSize, this);
+        // Draw enemy slime (right side)
+        if (enemyImage != null) {
+            g2d.drawImage(enemyImage, ENEMY_X, SLIME_Y, slimeSize, slimeSize, null);
         } else {
-            g2d.setColor(new Color(100, 150, 255));
-            g2d.fillOval(playerX, playerY, slimeSize, slimeSize);
+            g2d.setColor(ENEMY_COLOR);
+            g2d.fillOval(ENEMY_X, SLIME_Y, slimeSize, slimeSize);
+        }
+        
+        // Draw attack animation
+        if (playerAnimating) {
+            g2d.drawImage(PLAYER_ARC, 395, 415, null);
+        }
+        
+        if (enemyAnimating) {
+            g2d.drawImage(ENEMY_ARC, 895, 415, null);
         }
+    }
+    
+    /**
+     * Draws health bars, stats, the battle log and the round header
+     */
+    private void renderHud(Graphics2D g2d, double alpha) {
+        g2d.drawImage(MENU_BUTTON_IMAGES[menuButtonState], MENU_BUTTON.x, MENU_BUTTON.y, null);
+        
+        // One set of stats per side for the whole frame
+        CombatSnapshot playerStats = player.snapshot();
+        CombatSnapshot enemyStats = enemy.snapshot();
+        int playerHealth = interpolate(previousPlayerHealth, currentPlayerHealth, playerStats.getHealth(), alpha);
+        int enemyHealth = interpolate(previousEnemyHealth, currentEnemyHealth, enemyStats.getHealth(), alpha);
+        int slimeSize = SLIME_SIZE;
+        int playerX = PLAYER_X;
+        int playerY = SLIME_Y;
         
         // Draw player HP bar
         drawHealthBar(g2d, playerX + 50, playerY - 50, 200, 25, 
-            player.getHealth(), player.getMaxHealth(), Color.GREEN, Color.RED);
+            playerHealth, playerStats.getMaxHealth(), Color.GREEN, Color.RED);
         
         // Draw player stats
-        g2d.setColor(Color.WHITE);
-        g2d.setFont(new Font("Arial", Font.BOLD, 18));
-        g2d.drawString("Player HP: " + player.getHealth() + "/" + player.getMaxHealth(), playerX + 50, playerY - 60);
-        g2d.drawString("ATK: " + (int)player.getDamege() + " | SPD: " + String.format("%.1f", player.getAttackSpeed()), playerX + 50, playerY + slimeSize + 30);
+        drawHp(g2d, "Player HP: ", playerHealth, playerStats.getMaxHealth(), playerX + 50, playerY - 60);
+        drawStats(g2d, playerStats, playerX + 50, playerY + slimeSize + 30);
         
-        // Draw enemy slime (right side)
-        int enemyX = 1050;
-        int enemyY = 400;
-        
-        if (enemyIdleImage != null) {
-            g2d.drawImage(enemyIdleImage, enemyX, enemyY, slimeSize, slimeSize, this);
-        } else {
-            g2d.setColor(new Color(180, 100, 255));
-            g2d.fillOval(enemyX, enemyY, slimeSize, slimeSize);
-        }
+        int enemyX = ENEMY_X;
+        int enemyY = SLIME_Y;
         
         // Draw enemy HP bar
         drawHealthBar(g2d, enemyX + 50, enemyY - 50, 200, 25,
-            enemy.getHealth(), enemy.getMaxHealth(), Color.GREEN, Color.RED);
+            enemyHealth, enemyStats.getMaxHealth(), Color.GREEN, Color.RED);
         
         // Draw enemy stats
-        g2d.setColor(Color.WHITE);
-        g2d.setFont(new Font("Arial", Font.BOLD, 18));
-        g2d.drawString("Enemy HP: " + enemy.getHealth() + "/" + enemy.getMaxHealth(), enemyX + 50, enemyY - 60);
-        g2d.drawString("ATK: " + (int)enemy.getDamege() + " | SPD: " + String.format("%.1f", enemy.getAttackSpeed()) + " | LVL: " + enemy.getLevel(), enemyX + 50, enemyY + slimeSize + 30);
+        drawHp(g2d, "Enemy HP: ", enemyHealth, enemyStats.getMaxHealth(), enemyX + 50, enemyY - 60);
+        int x = drawStats(g2d, enemyStats, enemyX + 50, enemyY + slimeSize + 30);
+        x = STAT_GLYPHS.drawText(g2d, " | LVL: ", x, enemyY + slimeSize + 30);
+        STAT_GLYPHS.drawInt(g2d, enemy.getLevel(), x, enemyY + slimeSize + 30);
         
         // Draw battle log
-        g2d.setColor(new Color(0, 0, 0, 180));
-        g2d.fillRect(400, 750, 800, 80);
-        g2d.setColor(Color.WHITE);
-        g2d.setFont(new Font("Arial", Font.BOLD, 24));
-        FontMetrics fm = g2d.getFontMetrics();
-        int textX = 800 - fm.stringWidth(battleLog) / 2;
-        g2d.drawString(battleLog, textX, 795);
+        g2d.drawImage(LOG_BOX, 400, 750, null);
+        String log = battleLog;
+        LOG_GLYPHS.drawText(g2d, log, 800 - LOG_GLYPHS.textWidth(log) / 2, 795);
         
         // Draw round info
-        g2d.setFont(new Font("Arial", Font.BOLD, 22));
-        g2d.drawString("Round: " + (player.getRoundsWon() + 1), 800 - fm.stringWidth("Round: " + (player.getRoundsWon() + 1)) / 2, 150);
-        g2d.drawString("Skill Points: " + player.getSkillPoints(), 800 - fm.stringWidth("Skill Points: " + player.getSkillPoints()) / 2, 180);
-        
-        // Draw attack animation
-        if (playerAnimating) {
-            g2d.setColor(new Color(100, 150, 255, 180));
-            g2d.setStroke(new BasicStroke(10));
-            g2d.drawArc(400, 420, 300, 250, -30, 100);
-        }
-        
-        if (enemyAnimating) {
-            g2d.setColor(new Color(180, 100, 255, 180));
-            g2d.setStroke(new BasicStroke(10));
-            g2d.drawArc(900, 420, 300, 250, 210, 100);
+        drawCentered(g2d, "Round: ", player.getRoundsWon() + 1, 150);
+        if (replay != null) {
+            // Replays show the playback position where the skill points would be
+            boolean stopped = replayPaused || replay.isAtEnd();
+            long time = replay.getTime();
+            if (replayText.isStale(replaySpeed, time / 1000, stopped ? 1 : 0)) {
+                replayText.set("Replay " + replaySpeed + "x" + (stopped ? " (paused)" : "") + " | "
+                    + formatReplayTime(time) + " / " + formatReplayTime(replay.getReplay().getDuration()));
+            }
+            replayText.draw(g2d, 800 - replayText.getWidth() / 2, 180);
+            return;
         }
+        drawCentered(g2d, "Skill Points: ", player.getSkillPoints(), 180);
+    }
+    
+    private void drawHp(Graphics2D g2d, String label, int health, int maxHealth, int x, int baseline) {
+        x = STAT_GLYPHS.drawText(g2d, label, x, baseline);
+        x = STAT_GLYPHS.drawInt(g2d, health, x, baseline);
+        x = STAT_GLYPHS.drawChar(g2d, '/', x, baseline);
+        STAT_GLYPHS.drawInt(g2d, maxHealth, x, baseline);
+    }
+    
+    /**
+     * Draws the ATK and SPD line, the speed to one decimal
+     * @return x after the line
+     */
+    private int drawStats(Graphics2D g2d, CombatSnapshot stats, int x, int baseline) {
+        x = STAT_GLYPHS.drawText(g2d, "ATK: ", x, baseline);
+        x = STAT_GLYPHS.drawInt(g2d, (int) stats.getDamage(), x, baseline);
+        x = STAT_GLYPHS.drawText(g2d, " | SPD: ", x, baseline);
+        return STAT_GLYPHS.drawFixed(g2d, (int) Math.round(stats.getAttackSpeed() * 10), 1, x, baseline);
+    }
+    
+    // NOTE: A header label and its number, centered on the screen
+    private void drawCentered(Graphics2D g2d, String label, int value, int baseline) {
+        int width = HEADER_GLYPHS.textWidth(label) + HEADER_GLYPHS.intWidth(value);
+        int x = HEADER_GLYPHS.drawText(g2d, label, 800 - width / 2, baseline);
+        HEADER_GLYPHS.drawInt(g2d, value, x, baseline);
     }
     
-    private void drawHealthBar(Graphics2D g2d, int x, int y, int width, int height, int currentHP, int maxHP, Color fullColor, Color emptyColor) {
+    void drawHealthBar(Graphics2D g2d, int x, int y, int width, int height, int currentHP, int maxHP, Color fullColor, Color emptyColor) {
         // Background (empty health)
         g2d.setColor(emptyColor);
         g2d.fillRect(x, y, width, height);
         
-        // Foreground (current health)
-        int currentWidth = (int) ((double) currentHP / maxHP * width);
+        // Foreground (current health), clamped since HP and max HP are read apart
+        int currentWidth = Math.max(0, Math.min(width, (int) ((double) currentHP / maxHP * width)));
         g2d.setColor(fullColor);
         g2d.fillRect(x, y, currentWidth, height);
         
-        // Border
+        // Border, the 2px outline drawn as four fills instead of a stroked rectangle
         g2d.setColor(Color.BLACK);
-        g2d.setStroke(new BasicStroke(2));
-        g2d.drawRect(x, y, width, height);
+        g2d.fillRect(x - 1, y - 1, width + 2, 2);
+        g2d.fillRect(x - 1, y + height - 1, width + 2, 2);
+        g2d.fillRect(x - 1, y - 1, 2, height + 2);
+        g2d.fillRect(x + width - 1, y - 1, 2, height + 2);
     }
 }
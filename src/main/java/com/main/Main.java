@@ -1,11 +1,27 @@
 package com.main;
 
+import com.asset.AssetCache;
+import com.asset.AssetLoader;
+import com.battle.BattleScheduler;
+import com.battle.Replay;
+import com.battle.ReplayRecorder;
+import com.perf.EdtWatchdog;
+import com.player.EnemyStats;
 import com.player.PlayerSlime;
+import com.player.Upgrade;
+import com.render.BackgroundCompositor;
+import com.render.PixelScaler;
+import com.save.AutoSave;
+import com.sim.IdleProgression;
+import com.sim.UpgradePlanner;
 import java.awt.*;
 import java.awt.event.*;
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 public class Main extends JFrame {
     private static final int WINDOW_WIDTH = 1600;
@@ -14,6 +30,13 @@ public class Main extends JFrame {
     private JPanel mainPanel;
     private CardLayout cardLayout;
     private PlayerSlime player;
+    private final GameLoop gameLoop;
+    private final AssetLoader assets;
+    private final BattleScheduler battleScheduler;
+    private final AutoSave autoSave;
+    private final ReplayRecorder replayRecorder;
+    private final EdtWatchdog edtWatchdog;
+    private IdleProgression.Result awayResult;
     
     public Main() {
         setTitle("Slime Domination");
@@ -25,24 +48,109 @@ public class Main extends JFrame {
         cardLayout = new CardLayout();
         mainPanel = new JPanel(cardLayout);
         
-        // Initialize player
-        player = new PlayerSlime();
+        // Initialize player from the save, progress is written in the background from here on
+        autoSave = new AutoSave(AutoSave.defaultDirectory());
+        player = autoSave.loadPlayer();
+        catchUpWhileAway();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                autoSave.close(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "autosave-shutdown"));
+        
+        // NOTE: Probes the event queue from here on, -Dslime.edtStallMillis=0 turns it off
+        edtWatchdog = startEdtWatchdog();
+        
+        // NOTE: The loop only drives a scene while the game panel is showing
+        gameLoop = new GameLoop(this, GameLoop.TICK_RATE, GameLoop.configuredMaxFps());
         
+        // NOTE: One scheduler thread plays every battle of the session
+        battleScheduler = new BattleScheduler();
+        replayRecorder = new ReplayRecorder();
+        
+        // NOTE: Decode the panels' images in the background, the loading screen shows until the menu's images are ready
+        List<String> preload = new ArrayList<>(MenuPanel.requiredAssets());
+        preload.addAll(GamePanel.requiredAssets());
+        assets = new AssetLoader(AssetCache.getInstance()).start(preload);
+        mainPanel.add(new LoadingPanel(assets), "LOADING");
+        
+        add(mainPanel);
+        
+        cardLayout.show(mainPanel, "LOADING");
+        assets.whenReady(MenuPanel.requiredAssets()).thenRunAsync(this::showMenu, SwingUtilities::invokeLater);
+    }
+    
+    private void showMenu() {
         // Create menu panel
         MenuPanel menuPanel = new MenuPanel(this);
         mainPanel.add(menuPanel, "MENU");
+        cardLayout.show(mainPanel, "MENU");
         
-        add(mainPanel);
+        // The menu accepts input once this switch has been painted
+        SwingUtilities.invokeLater(assets::markInteractive);
+        if (awayResult != null) {
+            SwingUtilities.invokeLater(() -> showAwayReport(menuPanel));
+        }
         
-        cardLayout.show(mainPanel, "MENU");
+        // -Dslime.replay=FILE plays a recorded session instead of waiting on the menu
+        String replayFile = System.getProperty("slime.replay");
+        if (replayFile != null && !replayFile.isEmpty()) {
+            try {
+                Replay replay = Replay.read(Paths.get(replayFile));
+                assets.whenReady(GamePanel.requiredAssets()).thenRunAsync(() -> showReplay(replay), SwingUtilities::invokeLater);
+            } catch (IOException e) {
+                System.err.println("Could not load replay " + replayFile + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Plays the rounds the slime would have fought since the player was last seen, -Dslime.idle=false skips them
+     */
+    private void catchUpWhileAway() {
+        long lastSeen = autoSave.getLastSeenMillis();
+        if (lastSeen == 0 || "false".equals(System.getProperty("slime.idle"))) {
+            return;
+        }
+        long away = System.currentTimeMillis() - lastSeen;
+        IdleProgression idle = new IdleProgression(EnemyStats.getDefault(), IdleProgression.DEFAULT_ROUND_GAP_MILLIS);
+        IdleProgression.Result result = idle.apply(player, away);
+        if (result.getRoundsCleared() > 0) {
+            autoSave.progressChanged(player);
+            awayResult = result;
+        }
+    }
+    
+    private void showAwayReport(Component parent) {
+        IdleProgression.Result result = awayResult;
+        awayResult = null;
+        long minutes = result.getMillisUsed() / 60_000;
+        JOptionPane.showMessageDialog(parent,
+            "While you were away your slime fought on for " + (minutes / 60) + " h " + (minutes % 60) + " min.\n" +
+            "Rounds Won: " + result.getRoundsCleared() + " (levels " + result.getStartLevel() + " to " + (result.getStartLevel() + result.getRoundsCleared() - 1) + ")\n" +
+            "Skill Points Earned: " + result.getSkillPointsEarned() + "\n" +
+            (result.isBlocked() ? "\nThe level " + (result.getStartLevel() + result.getRoundsCleared()) + " enemy stopped it, time to upgrade!" : ""),
+            "Welcome Back",
+            JOptionPane.INFORMATION_MESSAGE);
     }
     
     public void showPanel(String panelName) {
+        if (!"GAME".equals(panelName) && !"WAVE".equals(panelName)) {
+            gameLoop.setScene(null, null);
+        }
         cardLayout.show(mainPanel, panelName);
     }
     
     public void startGame() {
-        // Remove old game panel if exists
+        // Usually already decoded, otherwise the panel is built once its images arrive
+        assets.whenReady(GamePanel.requiredAssets()).thenRunAsync(this::showGamePanel, SwingUtilities::invokeLater);
+    }
+    
+    private void showGamePanel() {
+        // Remove old game panel if exists, along with anything it still had scheduled
+        battleScheduler.cancelAll();
         Component[] components = mainPanel.getComponents();
         for (Component comp : components) {
             if (comp instanceof GamePanel) {
@@ -54,6 +162,91 @@ public class Main extends JFrame {
         GamePanel gamePanel = new GamePanel(this, player);
         mainPanel.add(gamePanel, "GAME");
         cardLayout.show(mainPanel, "GAME");
+        gameLoop.setScene(gamePanel, gamePanel);
+    }
+    
+    /**
+     * Starts a wave of the player's slime army against a horde of the next level, see {@link WavePanel}
+     */
+    public void startWave() {
+        for (Component comp : mainPanel.getComponents()) {
+            if (comp instanceof WavePanel) {
+                mainPanel.remove(comp);
+            }
+        }
+        WavePanel wavePanel = new WavePanel(this, player);
+        mainPanel.add(wavePanel, "WAVE");
+        cardLayout.show(mainPanel, "WAVE");
+        gameLoop.setScene(wavePanel, wavePanel);
+    }
+    
+    private void showReplay(Replay replay) {
+        battleScheduler.cancelAll();
+        for (Component comp : mainPanel.getComponents()) {
+            if (comp instanceof GamePanel) {
+                mainPanel.remove(comp);
+            }
+        }
+        GamePanel replayPanel = new GamePanel(this, replay);
+        mainPanel.add(replayPanel, "GAME");
+        cardLayout.show(mainPanel, "GAME");
+        gameLoop.setScene(replayPanel, replayPanel);
+    }
+    
+    /**
+     * Sets up active rendering and starts the game loop, the frame must be visible
+     */
+    public void startGameLoop() {
+        createBufferStrategy(2);
+        gameLoop.start();
+    }
+    
+    /**
+     * Starts the EDT watchdog, the latency histogram is written on exit with -Dslime.edtHistogram=FILE
+     * @return the running watchdog, or null when it is turned off
+     */
+    private static EdtWatchdog startEdtWatchdog() {
+        long stallMillis = Long.getLong("slime.edtStallMillis", 250);
+        if (stallMillis <= 0) {
+            return null;
+        }
+        EdtWatchdog watchdog = new EdtWatchdog(100, stallMillis);
+        watchdog.start();
+        String histogramFile = System.getProperty("slime.edtHistogram");
+        if (histogramFile != null && !histogramFile.isEmpty()) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    watchdog.export(Paths.get(histogramFile));
+                } catch (IOException e) {
+                    System.err.println("Could not write EDT histogram " + histogramFile + ": " + e.getMessage());
+                }
+            }, "edt-histogram"));
+        }
+        return watchdog;
+    }
+    
+    public BattleScheduler getBattleScheduler() {
+        return battleScheduler;
+    }
+    
+    public AutoSave getAutoSave() {
+        return autoSave;
+    }
+    
+    /**
+     *
+     * @return recorder of every battle played since the game started
+     */
+    public ReplayRecorder getReplayRecorder() {
+        return replayRecorder;
+    }
+    
+    /**
+     *
+     * @return the EDT watchdog, null when -Dslime.edtStallMillis=0
+     */
+    public EdtWatchdog getEdtWatchdog() {
+        return edtWatchdog;
     }
     
     public PlayerSlime getPlayer() {
@@ -67,11 +260,81 @@ public class Main extends JFrame {
     public static void main(String[] args) {
         Main game = new Main();
         game.setVisible(true);
+        game.startGameLoop();
+    }
+}
+
+class LoadingPanel extends JPanel {
+    private static final int REPAINT_DELAY = 50;
+    private static final Color BACKGROUND = new Color(30, 30, 40);
+    private static final Color BAR_COLOR = new Color(100, 150, 255);
+    private static final Font TITLE_FONT = new Font("Minecraft", Font.BOLD, 48);
+    private static final Font PROGRESS_FONT = new Font("Arial", Font.BOLD, 18);
+    
+    private final AssetLoader assets;
+    private final Timer repaintTimer;
+    
+    public LoadingPanel(AssetLoader assets) {
+        this.assets = assets;
+        setBackground(BACKGROUND);
+        
+        // Repaints the progress bar until every image is decoded
+        repaintTimer = new Timer(REPAINT_DELAY, e -> repaint());
+        repaintTimer.start();
+        assets.allLoaded().thenRunAsync(repaintTimer::stop, SwingUtilities::invokeLater);
+    }
+    
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        assets.markFirstFrame();
+        Graphics2D g2d = (Graphics2D) g;
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        
+        int loaded = assets.getLoadedCount();
+        int total = Math.max(1, assets.getTotalCount());
+        int barWidth = 600;
+        int barX = (getWidth() - barWidth) / 2;
+        int barY = getHeight() / 2;
+        
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(TITLE_FONT);
+        String title = "Slime Domination";
+        g2d.drawString(title, (getWidth() - g2d.getFontMetrics().stringWidth(title)) / 2, barY - 60);
+        
+        g2d.drawRect(barX - 2, barY - 2, barWidth + 3, 23);
+        g2d.setColor(BAR_COLOR);
+        g2d.fillRect(barX, barY, barWidth * loaded / total, 20);
+        
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(PROGRESS_FONT);
+        g2d.drawString("Loading assets " + loaded + "/" + assets.getTotalCount(), barX, barY + 50);
     }
 }
 
 class MenuPanel extends JPanel {
-    private BufferedImage backgroundImage;
+    private static final String SLIME_PATH = "/images/player/idle/idle_00.png";
+    private static final int SLIME_SIZE = 280;
+    private static final int BACKGROUND_ANIMATION_DELAY = 33;
+    private static final BufferedImage SUN = createSun(120, new Color(255, 255, 255, 200));
+    private static final Color GRADIENT_TOP = new Color(255, 182, 193);
+    private static final Color GRADIENT_BOTTOM = new Color(210, 180, 140);
+    
+    private static final int LOGICAL_WIDTH = 1600;
+    private static final int LOGICAL_HEIGHT = 900;
+    // NOTE: The low-resolution buffer is always drawn in logical coordinates, so its gradient never changes
+    private static final GradientPaint LOGICAL_GRADIENT = new GradientPaint(0, 0, GRADIENT_TOP, 0, LOGICAL_HEIGHT, GRADIENT_BOTTOM);
+    
+    private final BackgroundCompositor background = new BackgroundCompositor("no_pillars");
+    
+    // Low-resolution mode (-Dslime.lowRes=true), null when drawing at full resolution
+    private final PixelScaler lowRes = PixelScaler.isEnabled() ? new PixelScaler(LOGICAL_WIDTH, LOGICAL_HEIGHT) : null;
+    private final BackgroundCompositor lowResBackground = lowRes == null ? null
+        : new BackgroundCompositor("no_pillars", PixelScaler.ASSET_RESOLUTION, BackgroundCompositor.DEFAULT_SCROLL_SPEEDS);
+    private BufferedImage lowResSlimeImage;
+    private Timer backgroundTimer;
+    private GradientPaint fallbackGradient;
+    private int fallbackGradientHeight;
     private BufferedImage slimeImage;
     private Main mainFrame;
     
@@ -82,19 +345,47 @@ class MenuPanel extends JPanel {
         
         loadImages();
         createMenuButtons();
+        startBackgroundAnimation();
     }
     
-    private void loadImages() {
-        try {
-            // Load background image
-            backgroundImage = ImageIO.read(getClass().getResourceAsStream("/images/background/no_pillars/1920X1080/Full.png"));
-            
-            // Load slime idle image
-            slimeImage = ImageIO.read(getClass().getResourceAsStream("/images/player/idle/idle_00.png"));
-        } catch (Exception e) {
-            System.err.println("Error loading images: " + e.getMessage());
-            e.printStackTrace();
+    /**
+     *
+     * @return classpaths of the images the menu needs, Main waits for them before building the panel
+     */
+    static List<String> requiredAssets() {
+        List<String> paths = new ArrayList<>(new BackgroundCompositor("no_pillars").getLayerPaths());
+        if (PixelScaler.isEnabled()) {
+            paths.addAll(new BackgroundCompositor("no_pillars", PixelScaler.ASSET_RESOLUTION, BackgroundCompositor.DEFAULT_SCROLL_SPEEDS).getLayerPaths());
         }
+        paths.add(SLIME_PATH);
+        return paths;
+    }
+    
+    private void loadImages() {
+        AssetCache assets = AssetCache.getInstance();
+        
+        // Load slime idle image, pre-scaled to its drawn size
+        slimeImage = assets.getScaled(SLIME_PATH, SLIME_SIZE, SLIME_SIZE);
+    }
+    
+    private void startBackgroundAnimation() {
+        // NOTE: Repaint only the rows of the layers that actually moved
+        long startTime = System.currentTimeMillis();
+        backgroundTimer = new Timer(BACKGROUND_ANIMATION_DELAY, e -> {
+            if (!isShowing()) {
+                return;
+            }
+            long millis = System.currentTimeMillis() - startTime;
+            if (lowRes != null) {
+                // The low-resolution buffer is presented whole
+                if (lowResBackground.advance(millis)) {
+                    repaint();
+                }
+            } else if (background.advance(millis)) {
+                repaint(background.getDirtyBounds());
+            }
+        });
+        backgroundTimer.start();
     }
     
     private void createMenuButtons() {
@@ -105,6 +396,7 @@ class MenuPanel extends JPanel {
         
         // Create buttons
         JButton playButton = createStyledButton("PLAY", buttonFont, buttonColor, borderColor);
+        JButton waveButton = createStyledButton("WAVES", buttonFont, buttonColor, borderColor);
         JButton statsButton = createStyledButton("STATS", buttonFont, buttonColor, borderColor);
         JButton upgradeButton = createStyledButton("UPGRADE", buttonFont, buttonColor, borderColor);
         JButton exitButton = createStyledButton("EXIT", buttonFont, buttonColor, borderColor);
@@ -117,9 +409,10 @@ class MenuPanel extends JPanel {
         int spacing = 110;
         
         playButton.setBounds(buttonX, startY, buttonWidth, buttonHeight);
-        statsButton.setBounds(buttonX, startY + spacing, buttonWidth, buttonHeight);
-        upgradeButton.setBounds(buttonX, startY + spacing * 2, buttonWidth, buttonHeight);
-        exitButton.setBounds(buttonX, startY + spacing * 3, buttonWidth, buttonHeight);
+        waveButton.setBounds(buttonX, startY + spacing, buttonWidth, buttonHeight);
+        statsButton.setBounds(buttonX, startY + spacing * 2, buttonWidth, buttonHeight);
+        upgradeButton.setBounds(buttonX, startY + spacing * 3, buttonWidth, buttonHeight);
+        exitButton.setBounds(buttonX, startY + spacing * 4, buttonWidth, buttonHeight);
         
         // Add action listeners
         playButton.addActionListener(new ActionListener() {
@@ -128,12 +421,14 @@ class MenuPanel extends JPanel {
                 startGame();
             }
         });
+        waveButton.addActionListener(e -> mainFrame.startWave());
         statsButton.addActionListener(e -> showStats());
         upgradeButton.addActionListener(e -> showUpgrade());
         exitButton.addActionListener(e -> System.exit(0));
         
         // Add buttons to panel
         add(playButton);
+        add(waveButton);
         add(statsButton);
         add(upgradeButton);
         add(exitButton);
@@ -167,36 +462,74 @@ class MenuPanel extends JPanel {
         return button;
     }
     
+    // NOTE: Translucent sun pre-rendered once, blitting it does not allocate
+    private static BufferedImage createSun(int size, Color color) {
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(color);
+            g.fillOval(0, 0, size, size);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+    
     @Override
     protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
+        // The background covers every pixel, no need for the UI delegate's fill
         Graphics2D g2d = (Graphics2D) g;
+        if (lowRes != null) {
+            paintLowRes(g2d);
+            return;
+        }
         
         // Draw background
-        if (backgroundImage != null) {
-            // Scale background to fit window
-            g2d.drawImage(backgroundImage, 0, 0, getWidth(), getHeight(), this);
-        } else {
-            // Fallback gradient background
-            GradientPaint gradient = new GradientPaint(
-                0, 0, new Color(255, 182, 193),
-                0, getHeight(), new Color(210, 180, 140)
-            );
-            g2d.setPaint(gradient);
+        if (!background.render(g2d, getWidth(), getHeight())) {
+            // Fallback gradient background, rebuilt only when the height changes
+            if (fallbackGradient == null || fallbackGradientHeight != getHeight()) {
+                fallbackGradientHeight = getHeight();
+                fallbackGradient = new GradientPaint(
+                    0, 0, GRADIENT_TOP,
+                    0, getHeight(), GRADIENT_BOTTOM
+                );
+            }
+            g2d.setPaint(fallbackGradient);
             g2d.fillRect(0, 0, getWidth(), getHeight());
         }
         
         // Draw slime character (left side)
         if (slimeImage != null) {
-            int slimeSize = 280;
             int slimeX = 300;
             int slimeY = 280;
-            g2d.drawImage(slimeImage, slimeX, slimeY, slimeSize, slimeSize, this);
+            g2d.drawImage(slimeImage, slimeX, slimeY, this);
         }
         
         // Draw sun (top left)
-        g2d.setColor(new Color(255, 255, 255, 200));
-        g2d.fillOval(30, 80, 120, 120);
+        g2d.drawImage(SUN, 30, 80, null);
+    }
+    
+    /**
+     * Draws the menu scene into the low-resolution buffer and scales it up, the buttons stay sharp on top
+     */
+    private void paintLowRes(Graphics2D g2d) {
+        if (lowRes.update(getWidth(), getHeight(), g2d.getDeviceConfiguration().getDefaultTransform())) {
+            int size = lowRes.toInternal(SLIME_SIZE);
+            lowResSlimeImage = AssetCache.getInstance().getScaled(SLIME_PATH, size, size);
+        }
+        
+        Graphics2D buffer = lowRes.getGraphics();
+        boolean drawn = lowResBackground.render(buffer, lowRes.getInternalWidth(), lowRes.getInternalHeight());
+        lowRes.useLogicalCoordinates();
+        if (!drawn) {
+            buffer.setPaint(LOGICAL_GRADIENT);
+            buffer.fillRect(0, 0, LOGICAL_WIDTH, LOGICAL_HEIGHT);
+        }
+        if (lowResSlimeImage != null) {
+            buffer.drawImage(lowResSlimeImage, 300, 280, SLIME_SIZE, SLIME_SIZE, null);
+        }
+        buffer.drawImage(SUN, 30, 80, null);
+        lowRes.present(g2d);
     }
     
     private void startGame() {
@@ -224,6 +557,7 @@ class MenuPanel extends JPanel {
 }
 
 class UpgradeDialog extends JDialog {
+    private Main mainFrame;
     private PlayerSlime player;
     private JLabel skillPointsLabel;
     private JLabel healthStatLabel;
@@ -231,17 +565,18 @@ class UpgradeDialog extends JDialog {
     private JLabel attackSpeedStatLabel;
     
     // Upgrade costs
-    private static final int HEALTH_COST = 1;
-    private static final int ATTACK_COST = 2;
-    private static final int ATTACK_SPEED_COST = 2;
+    private static final int HEALTH_COST = Upgrade.HEALTH.getCost();
+    private static final int ATTACK_COST = Upgrade.ATTACK.getCost();
+    private static final int ATTACK_SPEED_COST = Upgrade.ATTACK_SPEED.getCost();
     
     // Upgrade amounts
-    private static final int HEALTH_UPGRADE = 20;
-    private static final double ATTACK_UPGRADE = 5.0;
-    private static final double ATTACK_SPEED_UPGRADE = 0.1;
+    private static final int HEALTH_UPGRADE = (int) Upgrade.HEALTH.getAmount();
+    private static final double ATTACK_UPGRADE = Upgrade.ATTACK.getAmount();
+    private static final double ATTACK_SPEED_UPGRADE = Upgrade.ATTACK_SPEED.getAmount();
     
     public UpgradeDialog(Main mainFrame, PlayerSlime player) {
         super(mainFrame, "Upgrade Your Slime", true);
+        this.mainFrame = mainFrame;
         this.player = player;
         
         setSize(600, 500);
@@ -319,6 +654,11 @@ class UpgradeDialog extends JDialog {
         closeButton.setFont(new Font("Arial", Font.BOLD, 16));
         closeButton.setPreferredSize(new Dimension(150, 40));
         closeButton.addActionListener(e -> dispose());
+        JButton recommendButton = new JButton("Recommend");
+        recommendButton.setFont(new Font("Arial", Font.BOLD, 16));
+        recommendButton.setPreferredSize(new Dimension(150, 40));
+        recommendButton.addActionListener(e -> recommend());
+        bottomPanel.add(recommendButton);
         bottomPanel.add(closeButton);
         add(bottomPanel, BorderLayout.SOUTH);
     }
@@ -368,8 +708,8 @@ class UpgradeDialog extends JDialog {
     }
     
     private void upgradeHealth() {
-        if (player.spendSkillPoints(HEALTH_COST)) {
-            player.upgradeMaxHealth(HEALTH_UPGRADE);
+        if (Upgrade.HEALTH.purchase(player)) {
+            mainFrame.getAutoSave().progressChanged(player);
             updateLabels();
             JOptionPane.showMessageDialog(this, 
                 "Max Health increased by " + HEALTH_UPGRADE + "!\nNew Max Health: " + player.getMaxHealth(),
@@ -384,8 +724,8 @@ class UpgradeDialog extends JDialog {
     }
     
     private void upgradeAttack() {
-        if (player.spendSkillPoints(ATTACK_COST)) {
-            player.upgradeAttack(ATTACK_UPGRADE);
+        if (Upgrade.ATTACK.purchase(player)) {
+            mainFrame.getAutoSave().progressChanged(player);
             updateLabels();
             JOptionPane.showMessageDialog(this,
                 "Attack increased by " + (int)ATTACK_UPGRADE + "!\nNew Attack: " + (int)player.getDamege(),
@@ -400,8 +740,8 @@ class UpgradeDialog extends JDialog {
     }
     
     private void upgradeAttackSpeed() {
-        if (player.spendSkillPoints(ATTACK_SPEED_COST)) {
-            player.upgradeAttackSpeed(ATTACK_SPEED_UPGRADE);
+        if (Upgrade.ATTACK_SPEED.purchase(player)) {
+            mainFrame.getAutoSave().progressChanged(player);
             updateLabels();
             JOptionPane.showMessageDialog(this,
                 String.format("Attack Speed increased by %.1f!\nNew Attack Speed: %.1f", 
@@ -416,6 +756,35 @@ class UpgradeDialog extends JDialog {
         }
     }
     
+    // NOTE: Plans on the EDT, the planner answers in milliseconds even for thousands of points
+    private void recommend() {
+        if (player.getSkillPoints() < HEALTH_COST) {
+            JOptionPane.showMessageDialog(this,
+                "Not enough skill points!\nRequired: " + HEALTH_COST + " | Available: " + player.getSkillPoints(),
+                "Insufficient Skill Points",
+                JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        UpgradePlanner planner = new UpgradePlanner(EnemyStats.getDefault());
+        UpgradePlanner.Plan plan = planner.plan(player);
+        int nextLevel = player.getRoundsWon() + 1;
+        int choice = JOptionPane.showConfirmDialog(this,
+            "Recommended for " + plan.getCost() + " SP:\n" +
+            "Max Health x" + plan.getPurchases(Upgrade.HEALTH) + " (+" + plan.getPurchases(Upgrade.HEALTH) * HEALTH_UPGRADE + " HP)\n" +
+            "Attack Damage x" + plan.getPurchases(Upgrade.ATTACK) + " (+" + (int) (plan.getPurchases(Upgrade.ATTACK) * ATTACK_UPGRADE) + " DMG)\n" +
+            "Attack Speed x" + plan.getPurchases(Upgrade.ATTACK_SPEED) + String.format(" (+%.1f SPD)", plan.getPurchases(Upgrade.ATTACK_SPEED) * ATTACK_SPEED_UPGRADE) + "\n\n" +
+            "Wins " + plan.getRoundsWon() + " rounds in a row from level " + nextLevel + ", " + planner.roundsWon(player) + " without upgrading.\n" +
+            "Buy these upgrades?",
+            "Recommended Upgrades",
+            JOptionPane.YES_NO_OPTION,
+            JOptionPane.QUESTION_MESSAGE);
+        if (choice == JOptionPane.YES_OPTION) {
+            plan.apply(player);
+            mainFrame.getAutoSave().progressChanged(player);
+            updateLabels();
+        }
+    }
+    
     private void updateLabels() {
         skillPointsLabel.setText("Available Skill Points: " + player.getSkillPoints());
         healthStatLabel.setText("Current: " + player.getMaxHealth() + " → +" + HEALTH_UPGRADE + " HP");
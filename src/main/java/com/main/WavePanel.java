@@ -0,0 +1,162 @@
+package com.main;
+
+import com.battle.PlayField;
+import com.player.PlayerSlime;
+import com.render.GlyphAtlas;
+import com.wave.WaveWorld;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Wave mode: an army of copies of the player's slime against a horde of the
+ * next level's enemies, simulated by a {@link WaveWorld} on the game loop.
+ * Every unit is drawn as a small square where the last tick left it, and the
+ * counts are drawn from a {@link GlyphAtlas}, so a frame does not allocate.
+ * A wave pays no skill points and does not count as a round won, it can be
+ * fought again at will, so progress comes from rounds only. The wave size is
+ * set with -Dslime.waveSize (units per side, 2000 by default).
+ */
+public class WavePanel extends JPanel implements GameLoop.Scene {
+    private static final int LOGICAL_WIDTH = PlayField.WIDTH;
+    private static final int LOGICAL_HEIGHT = PlayField.HEIGHT;
+    private static final int UNIT_SIZE = 4;
+    
+    // NOTE: Shared paint resources, painting a frame must not allocate
+    private static final Color BACKGROUND = new Color(210, 180, 140);
+    private static final Color PLAYER_COLOR = new Color(100, 150, 255);
+    private static final Color ENEMY_COLOR = new Color(180, 100, 255);
+    // NOTE: A translucent fill allocates on every call, the header's box is blitted from an image instead
+    private static final BufferedImage HEADER_BOX = createBox(600, 45, new Color(0, 0, 0, 150));
+    private static final GlyphAtlas HEADER_GLYPHS = GlyphAtlas.get(new Font("Arial", Font.BOLD, 22), Color.WHITE);
+    
+    private final Main mainFrame;
+    private final int level;
+    private final int waveSize;
+    // Ticked and drawn on the game loop thread only
+    private final WaveWorld world;
+    private long waveTicks;
+    private long previousMillis;
+    private boolean finished;
+    
+    public WavePanel(Main mainFrame, PlayerSlime player) {
+        this.mainFrame = mainFrame;
+        this.level = player.getRoundsWon() + 1;
+        this.waveSize = Math.max(1, Integer.getInteger("slime.waveSize", 2000));
+        this.world = new WaveWorld(waveSize * 2, ForkJoinPool.commonPool());
+        world.spawnArmy(player, waveSize);
+        world.spawnHorde(level, waveSize);
+        
+        setPreferredSize(new Dimension(LOGICAL_WIDTH, LOGICAL_HEIGHT));
+        getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0), "returnToMenu");
+        getActionMap().put("returnToMenu", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                if (isShowing()) {
+                    mainFrame.showPanel("MENU");
+                }
+            }
+        });
+    }
+    
+    @Override
+    public void update(long tick) {
+        if (finished) {
+            return;
+        }
+        // NOTE: Tick lengths alternate 16/17 ms so 60 ticks add up to exactly one second
+        long millis = ++waveTicks * 1000 / GameLoop.TICK_RATE;
+        world.tick(millis - previousMillis);
+        previousMillis = millis;
+        if (world.isOver()) {
+            finished = true;
+            boolean won = world.isPlayerWon();
+            SwingUtilities.invokeLater(() -> endWave(won));
+        }
+    }
+    
+    @Override
+    public void render(Graphics2D g, double alpha) {
+        renderScene(g);
+    }
+    
+    @Override
+    protected void paintComponent(Graphics g) {
+        // NOTE: Only without active rendering, the units may be mid-tick but a frame never writes to them
+        renderScene((Graphics2D) g);
+    }
+    
+    private void renderScene(Graphics2D g) {
+        Graphics2D scene = g;
+        boolean scaled = getWidth() != LOGICAL_WIDTH || getHeight() != LOGICAL_HEIGHT;
+        if (scaled) {
+            scene = (Graphics2D) g.create();
+            scene.scale((double) getWidth() / LOGICAL_WIDTH, (double) getHeight() / LOGICAL_HEIGHT);
+        }
+        try {
+            scene.setColor(BACKGROUND);
+            scene.fillRect(0, 0, LOGICAL_WIDTH, LOGICAL_HEIGHT);
+            drawUnits(scene, WaveWorld.PLAYER_TEAM, PLAYER_COLOR);
+            drawUnits(scene, WaveWorld.ENEMY_TEAM, ENEMY_COLOR);
+            drawHeader(scene);
+        } finally {
+            if (scaled) {
+                scene.dispose();
+            }
+        }
+    }
+    
+    // NOTE: One team at a time so the color is set once per team
+    private void drawUnits(Graphics2D g, int team, Color color) {
+        g.setColor(color);
+        int count = world.getUnitCount();
+        for (int id = 0; id < count; id++) {
+            if (world.getTeam(id) == team && world.isAlive(id)) {
+                g.fillRect((int) world.getX(id) - UNIT_SIZE / 2, (int) world.getY(id) - UNIT_SIZE / 2, UNIT_SIZE, UNIT_SIZE);
+            }
+        }
+    }
+    
+    private void drawHeader(Graphics2D g) {
+        g.drawImage(HEADER_BOX, 500, 20, null);
+        int baseline = 50;
+        int x = HEADER_GLYPHS.drawText(g, "Army ", 520, baseline);
+        x = HEADER_GLYPHS.drawInt(g, world.getAliveCount(WaveWorld.PLAYER_TEAM), x, baseline);
+        x = HEADER_GLYPHS.drawText(g, "  Horde ", x, baseline);
+        x = HEADER_GLYPHS.drawInt(g, world.getAliveCount(WaveWorld.ENEMY_TEAM), x, baseline);
+        x = HEADER_GLYPHS.drawText(g, "  Level ", x, baseline);
+        x = HEADER_GLYPHS.drawInt(g, level, x, baseline);
+        HEADER_GLYPHS.drawText(g, "  ESC: menu", x, baseline);
+    }
+    
+    private static BufferedImage createBox(int width, int height, Color color) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(color);
+            g.fillRect(0, 0, width, height);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+    
+    private void endWave(boolean won) {
+        if (!isShowing()) {
+            return; // left for the menu while the last tick ran
+        }
+        int choice = JOptionPane.showConfirmDialog(this,
+            (won ? "Wave cleared!\n" : "Your army was defeated!\n") +
+            "Army: " + waveSize + " slimes | Horde: " + waveSize + " level " + level + " enemies\n\n" +
+            "Fight another wave?",
+            won ? "Wave Cleared" : "Wave Lost",
+            JOptionPane.YES_NO_OPTION);
+        if (choice == JOptionPane.YES_OPTION) {
+            mainFrame.startWave();
+        } else {
+            mainFrame.showPanel("MENU");
+        }
+    }
+}
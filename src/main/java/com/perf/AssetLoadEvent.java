@@ -0,0 +1,38 @@
+package com.perf;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * An image the asset cache did not have, loaded from the sprite atlas,
+ * decoded from its PNG or scaled from another image.
+ */
+@Name("slime.AssetLoad")
+@Label("Asset Load")
+@Category({"Slime Domination", "Assets"})
+@Description("An image loaded into the asset cache")
+public class AssetLoadEvent extends jdk.jfr.Event {
+    public static final String ATLAS = "atlas";
+    public static final String DECODE = "decode";
+    public static final String SCALE = "scale";
+
+    @Label("Path")
+    public String path;
+
+    @Label("Source")
+    @Description("atlas, decode or scale")
+    public String source;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+}
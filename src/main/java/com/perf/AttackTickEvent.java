@@ -0,0 +1,48 @@
+package com.perf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One attack played by the battle scheduler. Compares when the attack was
+ * due on the wall clock ({@code 1000 / attackSpeed} apart per side) with
+ * when the scheduler thread actually ran it. The event's duration is the
+ * step itself, listeners included. Created only when {@link #enabled()}, a
+ * long battle steps thousands of times.
+ */
+@Name("slime.AttackTick")
+@Label("Attack Tick")
+@Category({"Slime Domination", "Battle"})
+@Description("An attack stepped by the battle scheduler, with how late it ran")
+@StackTrace(false)
+public class AttackTickEvent extends jdk.jfr.Event {
+    private static final AttackTickEvent PROBE = new AttackTickEvent();
+
+    @Label("Player Attack")
+    public boolean playerAttack;
+
+    @Label("Battle Time")
+    @Description("Virtual time of the attack since the battle started")
+    @Timespan(Timespan.MILLISECONDS)
+    public long battleTime;
+
+    @Label("Lateness")
+    @Description("How long after its due time the attack ran")
+    @Timespan(Timespan.NANOSECONDS)
+    public long lateness;
+
+    @Label("Target Health")
+    public int targetHealth;
+
+    /**
+     *
+     * @return true if a running recording has this event enabled
+     */
+    public static boolean enabled() {
+        return PROBE.isEnabled();
+    }
+}
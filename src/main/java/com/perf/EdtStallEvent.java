@@ -0,0 +1,27 @@
+package com.perf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A watchdog probe that waited in the event queue past the stall threshold,
+ * with where the Event Dispatch Thread was when the threshold passed.
+ */
+@Name("slime.EdtStall")
+@Label("EDT Stall")
+@Category({"Slime Domination", "Rendering"})
+@Description("The Event Dispatch Thread did not run a probe in time")
+@StackTrace(false)
+public class EdtStallEvent extends jdk.jfr.Event {
+    @Label("Waited")
+    @Description("How long the probe had waited when the stack was taken")
+    @Timespan(Timespan.NANOSECONDS)
+    public long waited;
+
+    @Label("EDT Stack")
+    public String edtStack;
+}
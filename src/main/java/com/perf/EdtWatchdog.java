@@ -0,0 +1,162 @@
+package com.perf;
+
+import java.awt.EventQueue;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures how responsive the Event Dispatch Thread is. A daemon thread posts
+ * a probe to the event queue every {@code probeMillis} and records how long
+ * it waited before the EDT ran it. A probe still waiting after
+ * {@code stallMillis} is a stall: the EDT's stack is printed to
+ * {@code System.err} and sent to JFR as {@code slime.EdtStall}.
+ * <p>
+ * Modal dialogs pump the queue themselves, so an open dialog is not a stall,
+ * a long listener or a decode on the EDT is. Only one probe is in flight at
+ * a time, so a stall shows up as one long sample rather than a backlog.
+ */
+public class EdtWatchdog {
+    private static final int STACK_DEPTH = 24;
+
+    private final long probeNanos;
+    private final long stallNanos;
+    private final LatencyHistogram histogram;
+    private final Runnable probe;
+
+    // Post time of the probe in flight, 0 once the EDT has run it
+    private volatile long postedAt;
+    private volatile long lastLatency;
+    private volatile Thread eventThread;
+    private volatile int stallCount;
+    private Thread thread;
+
+    /**
+     *
+     * @param probeMillis time between probes
+     * @param stallMillis queue wait that counts as a stall
+     */
+    public EdtWatchdog(long probeMillis, long stallMillis) {
+        this.probeNanos = TimeUnit.MILLISECONDS.toNanos(probeMillis);
+        this.stallNanos = TimeUnit.MILLISECONDS.toNanos(stallMillis);
+        this.histogram = new LatencyHistogram();
+        this.probe = this::probeRan;
+    }
+
+    /**
+     * Starts probing, does nothing if already started
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        thread = new Thread(this::run, "edt-watchdog");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops probing, a probe in flight is still recorded when it runs
+     */
+    public synchronized void stop() {
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     *
+     * @return number of probes that waited past the stall threshold
+     */
+    public int getStallCount() {
+        return stallCount;
+    }
+
+    /**
+     * Writes the queue latency histogram
+     * @param file text file to write, replaced if it exists
+     */
+    public void export(Path file) throws IOException {
+        histogram.writeTo(file, String.format("EDT queue latency, probe every %d ms, %d stalls over %d ms",
+            TimeUnit.NANOSECONDS.toMillis(probeNanos), stallCount, TimeUnit.NANOSECONDS.toMillis(stallNanos)));
+    }
+
+    // NOTE: Runs on the EDT, the post time was published before the probe was queued
+    private void probeRan() {
+        eventThread = Thread.currentThread();
+        long latency = System.nanoTime() - postedAt;
+        histogram.record(latency);
+        lastLatency = latency;
+        postedAt = 0;
+    }
+
+    private void run() {
+        // Check a waiting probe a few times per threshold so a stall is caught close to it
+        long pollNanos = Math.max(1_000_000L, Math.min(probeNanos, stallNanos / 4));
+        while (!Thread.currentThread().isInterrupted()) {
+            long posted = System.nanoTime();
+            postedAt = posted;
+            EventQueue.invokeLater(probe);
+
+            boolean stalled = false;
+            while (postedAt != 0 && !Thread.currentThread().isInterrupted()) {
+                LockSupport.parkNanos(pollNanos);
+                long waited = System.nanoTime() - posted;
+                if (!stalled && postedAt != 0 && waited >= stallNanos) {
+                    stalled = true;
+                    stallCount++;
+                    reportStall(waited);
+                }
+            }
+            if (stalled) {
+                System.err.printf("EDT responsive again, probe waited %d ms%n", TimeUnit.NANOSECONDS.toMillis(lastLatency));
+            }
+
+            long next = posted + probeNanos;
+            for (long wait = next - System.nanoTime(); wait > 0 && !Thread.currentThread().isInterrupted(); wait = next - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+
+    private void reportStall(long waited) {
+        Thread edt = eventThread != null ? eventThread : findEventThread();
+        StringBuilder stack = new StringBuilder();
+        if (edt == null) {
+            stack.append("\t(event dispatch thread not found)\n");
+        } else {
+            StackTraceElement[] frames = edt.getStackTrace();
+            for (int i = 0; i < Math.min(frames.length, STACK_DEPTH); i++) {
+                stack.append("\tat ").append(frames[i]).append('\n');
+            }
+            if (frames.length > STACK_DEPTH) {
+                stack.append("\t... ").append(frames.length - STACK_DEPTH).append(" more\n");
+            }
+        }
+        System.err.print("EDT stalled, probe waiting " + TimeUnit.NANOSECONDS.toMillis(waited) + " ms, "
+            + (edt == null ? "" : edt.getName() + " ") + "is at:\n" + stack);
+
+        EdtStallEvent event = new EdtStallEvent();
+        if (event.shouldCommit()) {
+            event.waited = waited;
+            event.edtStack = stack.toString();
+            event.commit();
+        }
+    }
+
+    // NOTE: Until the first probe has run the EDT is only known by its name
+    private static Thread findEventThread() {
+        for (Thread candidate : Thread.getAllStackTraces().keySet()) {
+            if (candidate.getName().startsWith("AWT-EventQueue")) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,130 @@
+package com.perf;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Log-linear histogram of latencies in microseconds. Every power of two is
+ * split into 16 buckets, so a value is known to within about 6% from 16 µs
+ * up to an hour, in a fixed array that recording never grows.
+ * Thread-safe.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 31;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_COUNT;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+    private long maxMicros;
+    private long sumMicros;
+
+    /**
+     * Records one latency
+     * @param nanos the latency, negative values count as zero
+     */
+    public synchronized void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        counts[bucketOf(micros)]++;
+        total++;
+        sumMicros += micros;
+        maxMicros = Math.max(maxMicros, micros);
+    }
+
+    public synchronized long getCount() {
+        return total;
+    }
+
+    /**
+     *
+     * @return largest recorded latency in microseconds
+     */
+    public synchronized long getMaxMicros() {
+        return maxMicros;
+    }
+
+    /**
+     *
+     * @return mean latency in microseconds, 0 when nothing was recorded
+     */
+    public synchronized double getMeanMicros() {
+        return total == 0 ? 0 : sumMicros / (double) total;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile
+     * @param percentile between 0 and 100
+     * @return latency in microseconds, never above the largest recorded one
+     */
+    public synchronized long getPercentileMicros(double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), maxMicros);
+            }
+        }
+        return maxMicros;
+    }
+
+    public synchronized void reset() {
+        Arrays.fill(counts, 0);
+        total = 0;
+        maxMicros = 0;
+        sumMicros = 0;
+    }
+
+    /**
+     * Writes the non-empty buckets as tab-separated text, one line per bucket
+     * with its upper bound in milliseconds, its count and the cumulative percentage
+     * @param title first comment line of the file
+     */
+    public synchronized void writeTo(Path file, String title) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("# " + title + "\n");
+            out.write(String.format("# count %d, mean %.3f ms, p50 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms%n",
+                total, getMeanMicros() / 1000, getPercentileMicros(50) / 1000.0, getPercentileMicros(99) / 1000.0,
+                getPercentileMicros(99.9) / 1000.0, maxMicros / 1000.0));
+            out.write("upper_ms\tcount\tcumulative_percent\n");
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                if (counts[i] == 0) {
+                    continue;
+                }
+                seen += counts[i];
+                out.write(String.format("%.3f\t%d\t%.3f%n", upperBound(i) / 1000.0, counts[i], 100.0 * seen / total));
+            }
+        }
+    }
+
+    // NOTE: Values below 16 get a bucket each, above that the top 5 bits pick the bucket
+    private static int bucketOf(long micros) {
+        if (micros < SUB_COUNT) {
+            return (int) micros;
+        }
+        int exponent = Math.min(MAX_EXPONENT, 63 - Long.numberOfLeadingZeros(micros));
+        if (exponent == MAX_EXPONENT && micros >= 1L << (MAX_EXPONENT + 1)) {
+            return BUCKETS - 1;
+        }
+        int shift = exponent - SUB_BITS;
+        return (shift + 1) * SUB_COUNT + (int) ((micros >>> shift) & (SUB_COUNT - 1));
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_COUNT - 1;
+        long mantissa = SUB_COUNT + bucket % SUB_COUNT;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
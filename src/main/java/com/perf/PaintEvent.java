@@ -0,0 +1,47 @@
+package com.perf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One paint pass of a scene, from the first redrawn region to the finished
+ * frame. The event's duration is the paint time. Scenes paint every frame, so
+ * they go through {@link #start()} and create no event while JFR is not
+ * recording this one.
+ */
+@Name("slime.Paint")
+@Label("Paint Pass")
+@Category({"Slime Domination", "Rendering"})
+@Description("A frame painted by a scene")
+@StackTrace(false)
+public class PaintEvent extends jdk.jfr.Event {
+    // Asking an instance is a field read, looking up the EventType would start JFR's metadata
+    private static final PaintEvent PROBE = new PaintEvent();
+
+    @Label("Scene")
+    public String scene;
+
+    @Label("Regions")
+    @Description("Dirty rectangles redrawn, 0 when the whole view was painted")
+    public int regions;
+
+    @Label("Clip Pixels")
+    @Description("Area redrawn in pixels")
+    public long clipPixels;
+
+    /**
+     * Begins a paint event if a recording wants one
+     * @return the begun event, or null when the event is disabled
+     */
+    public static PaintEvent start() {
+        if (!PROBE.isEnabled()) {
+            return null;
+        }
+        PaintEvent event = new PaintEvent();
+        event.begin();
+        return event;
+    }
+}
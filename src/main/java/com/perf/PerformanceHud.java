@@ -0,0 +1,248 @@
+package com.perf;
+
+import com.render.GlyphAtlas;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Overlay with the frame rate, frame-time percentiles, how late simulation
+ * ticks run, the heap allocation rate and the particle pool. The owning
+ * scene reports every frame and tick while the overlay is visible; the
+ * numbers are recomputed twice a second and drawn glyph by glyph from a
+ * {@link GlyphAtlas}, so showing them allocates nothing. While hidden nothing
+ * is measured and the cost is one volatile read per frame and tick.
+ * <p>
+ * Toggled with F2, or shown from the start with {@code -Dslime.perfHud=true}.
+ */
+public class PerformanceHud {
+    private static final long REFRESH_NANOS = 500_000_000L;
+    private static final int FRAME_SAMPLES = 256;
+    private static final GlyphAtlas GLYPHS = GlyphAtlas.get(new Font("Monospaced", Font.BOLD, 16), Color.WHITE);
+    private static final int LINE_HEIGHT = 20;
+    private static final int WIDTH = 420;
+    private static final BufferedImage BOX = createBox(WIDTH, 5 * LINE_HEIGHT + 14);
+
+    private final long tickNanos;
+    private final com.sun.management.ThreadMXBean threads;
+    private volatile boolean visible = Boolean.getBoolean("slime.perfHud");
+
+    // Frame intervals in a ring buffer, sorted into the scratch copy on refresh
+    private final long[] frameTimes = new long[FRAME_SAMPLES];
+    private final long[] sorted = new long[FRAME_SAMPLES];
+    private int frameCount;
+    private int frameIndex;
+    private long lastFrame;
+    private int framesInWindow;
+
+    // Tick lateness against an ideal schedule anchored at the first tick seen
+    private long tickAnchor;
+    private long anchorTick;
+    private long lateSum;
+    private long lateMax;
+    private int ticksInWindow;
+
+    private int particles;
+    private long particlesDropped;
+
+    private long windowStart;
+    private long allocatedAtWindowStart;
+
+    // What the overlay shows, fixed-point tenths (hundredths for the allocation rate) from the last refresh
+    private boolean measured;
+    private int fpsTenths;
+    private int p50Tenths;
+    private int p95Tenths;
+    private int p99Tenths;
+    private int lateAverageTenths;
+    private int lateMaxTenths;
+    private int allocationHundredths;
+    private int shownParticles;
+    private int shownDropped;
+
+    /**
+     *
+     * @param tickNanos nominal length of a simulation tick
+     */
+    public PerformanceHud(long tickNanos) {
+        this.tickNanos = tickNanos;
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        this.threads = bean instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) bean : null;
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    public void toggle() {
+        visible = !visible;
+    }
+
+    /**
+     * Records a frame, call it at the start of every frame while visible
+     */
+    public void frameStarted(long now) {
+        if (lastFrame != 0 && now - lastFrame < 5 * REFRESH_NANOS) {
+            frameTimes[frameIndex] = now - lastFrame;
+            frameIndex = (frameIndex + 1) % FRAME_SAMPLES;
+            frameCount = Math.min(frameCount + 1, FRAME_SAMPLES);
+            framesInWindow++;
+        } else {
+            // First frame, or back from being hidden, start a fresh window
+            Arrays.fill(frameTimes, 0);
+            frameCount = 0;
+            framesInWindow = 0;
+            windowStart = now;
+            allocatedAtWindowStart = allocatedBytes();
+            tickAnchor = 0;
+        }
+        lastFrame = now;
+        if (now - windowStart >= REFRESH_NANOS) {
+            refresh(now);
+        }
+    }
+
+    /**
+     * Records a simulation tick, call it from every tick while visible
+     * @param tick the loop clock
+     */
+    public void tickStarted(long tick, long now) {
+        if (tickAnchor == 0) {
+            tickAnchor = now;
+            anchorTick = tick;
+            return;
+        }
+        long late = now - (tickAnchor + (tick - anchorTick) * tickNanos);
+        if (late < 0 || late > 5 * tickNanos) {
+            // Early ticks mean the anchor was late, a long stall means the loop dropped ticks
+            tickAnchor = now;
+            anchorTick = tick;
+            late = 0;
+        }
+        lateSum += late;
+        lateMax = Math.max(lateMax, late);
+        ticksInWindow++;
+    }
+
+    /**
+     * Reports the scene's particle pool, shown from the next refresh
+     * @param dropped particles left out of bursts since the pool was made
+     */
+    public void particlesUpdated(int live, long dropped) {
+        particles = live;
+        particlesDropped = dropped;
+    }
+
+    /**
+     * Draws the overlay
+     * @param x left edge
+     * @param y top edge
+     */
+    public void draw(Graphics2D g, int x, int y) {
+        g.drawImage(BOX, x, y, null);
+        int left = x + 10;
+        if (!measured) {
+            GLYPHS.drawText(g, "FPS measuring...", left, y + LINE_HEIGHT);
+            return;
+        }
+        int at = GLYPHS.drawText(g, "FPS ", left, y + LINE_HEIGHT);
+        GLYPHS.drawFixed(g, fpsTenths, 1, at, y + LINE_HEIGHT);
+
+        int baseline = y + 2 * LINE_HEIGHT;
+        at = GLYPHS.drawText(g, "frame p50 ", left, baseline);
+        at = GLYPHS.drawFixed(g, p50Tenths, 1, at, baseline);
+        at = GLYPHS.drawText(g, " p95 ", at, baseline);
+        at = GLYPHS.drawFixed(g, p95Tenths, 1, at, baseline);
+        at = GLYPHS.drawText(g, " p99 ", at, baseline);
+        at = GLYPHS.drawFixed(g, p99Tenths, 1, at, baseline);
+        GLYPHS.drawText(g, " ms", at, baseline);
+
+        baseline = y + 3 * LINE_HEIGHT;
+        at = GLYPHS.drawText(g, "tick late avg ", left, baseline);
+        at = GLYPHS.drawFixed(g, lateAverageTenths, 1, at, baseline);
+        at = GLYPHS.drawText(g, " max ", at, baseline);
+        at = GLYPHS.drawFixed(g, lateMaxTenths, 1, at, baseline);
+        GLYPHS.drawText(g, " ms", at, baseline);
+
+        baseline = y + 4 * LINE_HEIGHT;
+        if (allocationHundredths < 0) {
+            GLYPHS.drawText(g, "alloc n/a", left, baseline);
+        } else {
+            at = GLYPHS.drawText(g, "alloc ", left, baseline);
+            at = GLYPHS.drawFixed(g, allocationHundredths, 2, at, baseline);
+            GLYPHS.drawText(g, " MB/s", at, baseline);
+        }
+
+        baseline = y + 5 * LINE_HEIGHT;
+        at = GLYPHS.drawText(g, "particles ", left, baseline);
+        at = GLYPHS.drawInt(g, shownParticles, at, baseline);
+        at = GLYPHS.drawText(g, " live ", at, baseline);
+        at = GLYPHS.drawInt(g, shownDropped, at, baseline);
+        GLYPHS.drawText(g, " dropped", at, baseline);
+    }
+
+    private void refresh(long now) {
+        double seconds = (now - windowStart) / 1e9;
+        fpsTenths = fixed(framesInWindow / seconds, 10);
+
+        System.arraycopy(frameTimes, 0, sorted, 0, frameCount);
+        Arrays.sort(sorted, 0, frameCount);
+        p50Tenths = fixed(percentile(0.50), 10);
+        p95Tenths = fixed(percentile(0.95), 10);
+        p99Tenths = fixed(percentile(0.99), 10);
+
+        double lateAverage = ticksInWindow == 0 ? 0 : lateSum / (double) ticksInWindow / 1e6;
+        lateAverageTenths = fixed(lateAverage, 10);
+        lateMaxTenths = fixed(lateMax / 1e6, 10);
+
+        long allocated = allocatedBytes();
+        allocationHundredths = allocated < 0 ? -1
+            : fixed((allocated - allocatedAtWindowStart) / seconds / (1024 * 1024), 100);
+
+        shownParticles = particles;
+        shownDropped = (int) Math.min(Integer.MAX_VALUE, particlesDropped);
+        measured = true;
+
+        windowStart = now;
+        allocatedAtWindowStart = allocated;
+        framesInWindow = 0;
+        lateSum = 0;
+        lateMax = 0;
+        ticksInWindow = 0;
+    }
+
+    private static int fixed(double value, int unit) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.round(value * unit));
+    }
+
+    private double percentile(double fraction) {
+        if (frameCount == 0) {
+            return 0;
+        }
+        int index = Math.min(frameCount - 1, (int) Math.ceil(fraction * frameCount) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    // NOTE: Bytes allocated by every thread since the JVM started, -1 where the JVM cannot tell
+    private long allocatedBytes() {
+        if (threads == null || !threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        return threads.getTotalThreadAllocatedBytes();
+    }
+
+    private static BufferedImage createBox(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(new Color(0, 0, 0, 170));
+            g.fillRect(0, 0, width, height);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+}
@@ -0,0 +1,32 @@
+package com.perf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A round of the battle screen, from its start to its outcome.
+ */
+@Name("slime.Round")
+@Label("Round")
+@Category({"Slime Domination", "Battle"})
+@Description("A battle round from its start to its end")
+@StackTrace(false)
+public class RoundEvent extends jdk.jfr.Event {
+    public static final String WON = "won";
+    public static final String LOST = "lost";
+    public static final String ABANDONED = "abandoned";
+
+    @Label("Level")
+    public int level;
+
+    @Label("Outcome")
+    @Description("won, lost, or abandoned when the player left or restarted")
+    public String outcome;
+
+    @Label("Player Health")
+    @Description("Player's health at the end")
+    public int playerHealth;
+}
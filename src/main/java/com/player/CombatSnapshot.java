@@ -0,0 +1,47 @@
+package com.player;
+
+/**
+ * Immutable copy of an entity's combat stats. Battle threads update the live
+ * {@link Player} with atomic operations; the renderer takes one snapshot per
+ * frame so the stats cannot change while the frame is drawn. Each stat is
+ * read on its own, so HP and max HP may come from either side of an update
+ * that changes both.
+ */
+public final class CombatSnapshot {
+    private final int health;
+    private final int maxHealth;
+    private final double damage;
+    private final double attackSpeed;
+
+    public CombatSnapshot(int health, int maxHealth, double damage, double attackSpeed) {
+        this.health = health;
+        this.maxHealth = maxHealth;
+        this.damage = damage;
+        this.attackSpeed = attackSpeed;
+    }
+
+    public int getHealth() {
+        return health;
+    }
+
+    public int getMaxHealth() {
+        return maxHealth;
+    }
+
+    public double getDamage() {
+        return damage;
+    }
+
+    public double getAttackSpeed() {
+        return attackSpeed;
+    }
+
+    public boolean isAlive() {
+        return health > 0;
+    }
+
+    boolean matches(int health, int maxHealth, double damage, double attackSpeed) {
+        return this.health == health && this.maxHealth == maxHealth
+            && this.damage == damage && this.attackSpeed == attackSpeed;
+    }
+}
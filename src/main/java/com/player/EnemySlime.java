@@ -4,29 +4,43 @@ public class EnemySlime extends Player {
     // NOTE: Encapsulation -> level attribute
     private int level;
     
-    // NOTE: Constructor to initialize EnemySlime with level-based stats
+    private final int skillPointReward;
+    
+    // NOTE: Constructor to initialize EnemySlime with the level's stats from the configured curve
     public EnemySlime(int level) {
+        this(level, EnemyStats.getDefault());
+    }
+    
+    /**
+     * Creates an enemy with the stats another curve gives its level
+     * @param stats the curve to read, e.g. one loaded for a balance run
+     */
+    public EnemySlime(int level, EnemyStats stats) {
         super();
         this.level = level;
         setName("Enemy Slime");
         
-        // Scale stats based on level
-        int baseHealth = 80;
-        double baseDamage = 8.0;
-        double baseAttackSpeed = 1.0;
-
-        setMaxHealth(baseHealth + (level * 10)); // +10 HP per level
+        setMaxHealth(stats.getHealth(level));
         setHealth(getMaxHealth());
-        setDamege(baseDamage + (level * 2)); // +2 damage per level
-        setAttackSpeed(baseAttackSpeed + (level * 0.1)); // +0.1 attack speed per level
+        setDamege(stats.getDamage(level));
+        setAttackSpeed(stats.getAttackSpeed(level));
+        this.skillPointReward = stats.getReward(level);
     }
     
     public int getLevel() {
         return level;
     }
     
+    /**
+     * 
+     * @return skill points the player earns for defeating this enemy
+     */
+    public int getSkillPointReward() {
+        return skillPointReward;
+    }
+    
+    @Override
     public void takeDamage(double damage) {
-        int newHealth = (int) Math.max(0, getHealth() - damage);
-        setHealth(newHealth);
+        applyDamage(damage);
     }
 }
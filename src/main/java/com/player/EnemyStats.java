@@ -0,0 +1,276 @@
+package com.player;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Enemy stats per level, the one place the difficulty curve is defined. Each
+ * stat is {@code base + level * perLevel} unless a level row of the curve
+ * file overrides it. Levels are precomputed into primitive arrays that grow
+ * lazily up to 65536 levels, so looking a level up is an array read however
+ * far the player gets. Thread-safe, a grown table is published whole.
+ * <p>
+ * The default curve is built in, {@code -Dslime.enemyStats=FILE} replaces it
+ * with a curve file:
+ * <pre>
+ * # columns: health damage attackSpeed reward
+ * base      80  8.0  1.0  2
+ * perLevel  10  2.0  0.1  2
+ * 5         160 18.0 1.5  12   # a level row overrides the formula for that level
+ * </pre>
+ */
+public class EnemyStats {
+    private static final int INITIAL_LEVELS = 64;
+    // Past this the formula is evaluated per lookup instead of growing the arrays further
+    private static final int MAX_TABLE_LEVELS = 1 << 16;
+
+    private static volatile EnemyStats defaultStats;
+
+    private final int baseHealth;
+    private final double baseDamage;
+    private final double baseAttackSpeed;
+    private final int baseReward;
+    private final int healthPerLevel;
+    private final double damagePerLevel;
+    private final double attackSpeedPerLevel;
+    private final int rewardPerLevel;
+    private final Table overrides;
+
+    private volatile Table table;
+
+    /**
+     * Curve without overrides
+     */
+    public EnemyStats(int baseHealth, double baseDamage, double baseAttackSpeed, int baseReward,
+                      int healthPerLevel, double damagePerLevel, double attackSpeedPerLevel, int rewardPerLevel) {
+        this(baseHealth, baseDamage, baseAttackSpeed, baseReward, healthPerLevel, damagePerLevel, attackSpeedPerLevel, rewardPerLevel, null);
+    }
+
+    private EnemyStats(int baseHealth, double baseDamage, double baseAttackSpeed, int baseReward,
+                       int healthPerLevel, double damagePerLevel, double attackSpeedPerLevel, int rewardPerLevel, Table overrides) {
+        this.baseHealth = baseHealth;
+        this.baseDamage = baseDamage;
+        this.baseAttackSpeed = baseAttackSpeed;
+        this.baseReward = baseReward;
+        this.healthPerLevel = healthPerLevel;
+        this.damagePerLevel = damagePerLevel;
+        this.attackSpeedPerLevel = attackSpeedPerLevel;
+        this.rewardPerLevel = rewardPerLevel;
+        this.overrides = overrides;
+        this.table = build(Math.max(INITIAL_LEVELS, overrides == null ? 0 : overrides.health.length));
+    }
+
+    /**
+     * Gets the curve of this run, loading -Dslime.enemyStats on first use
+     * @return the configured curve, or the built-in one if none is set or it cannot be read
+     */
+    public static EnemyStats getDefault() {
+        EnemyStats stats = defaultStats;
+        if (stats == null) {
+            synchronized (EnemyStats.class) {
+                stats = defaultStats;
+                if (stats == null) {
+                    stats = loadConfigured();
+                    defaultStats = stats;
+                }
+            }
+        }
+        return stats;
+    }
+
+    /**
+     *
+     * @return the curve the game shipped with, 80 HP, 8 damage and 1 attack per second growing by 10, 2 and 0.1 a level
+     */
+    public static EnemyStats builtIn() {
+        return new EnemyStats(80, 8.0, 1.0, 2, 10, 2.0, 0.1, 2);
+    }
+
+    /**
+     * Reads a curve file
+     * @param file base and perLevel lines, optionally followed by level rows
+     * @return the curve
+     * @throws IOException if the file cannot be read or a line is malformed
+     */
+    public static EnemyStats load(Path file) throws IOException {
+        double[] base = null;
+        double[] perLevel = null;
+        int[] rowLevel = new int[8];
+        double[][] rows = new double[8][];
+        int rowCount = 0;
+        int maxLevel = -1;
+
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                int comment = line.indexOf('#');
+                String[] columns = (comment < 0 ? line : line.substring(0, comment)).trim().split("\\s+");
+                if (columns.length == 1 && columns[0].isEmpty()) {
+                    continue;
+                }
+                if (columns.length != 5) {
+                    throw new IOException(file + " line " + lineNumber + ": expected a key and 4 columns");
+                }
+                double[] values = new double[4];
+                try {
+                    for (int i = 0; i < 4; i++) {
+                        values[i] = Double.parseDouble(columns[i + 1]);
+                    }
+                    if ("base".equals(columns[0])) {
+                        base = values;
+                    } else if ("perLevel".equals(columns[0])) {
+                        perLevel = values;
+                    } else {
+                        int level = Integer.parseInt(columns[0]);
+                        if (level < 0) {
+                            throw new IOException(file + " line " + lineNumber + ": negative level " + level);
+                        }
+                        if (rowCount == rows.length) {
+                            rowLevel = Arrays.copyOf(rowLevel, rowCount * 2);
+                            rows = Arrays.copyOf(rows, rowCount * 2);
+                        }
+                        rowLevel[rowCount] = level;
+                        rows[rowCount++] = values;
+                        maxLevel = Math.max(maxLevel, level);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IOException(file + " line " + lineNumber + ": " + e.getMessage());
+                }
+            }
+        }
+        if (base == null || perLevel == null) {
+            throw new IOException(file + ": needs a base and a perLevel line");
+        }
+
+        Table overrides = null;
+        if (rowCount > 0) {
+            overrides = new Table(maxLevel + 1);
+            Arrays.fill(overrides.health, -1);
+            for (int i = 0; i < rowCount; i++) {
+                overrides.set(rowLevel[i], (int) rows[i][0], rows[i][1], rows[i][2], (int) rows[i][3]);
+            }
+        }
+        return new EnemyStats((int) base[0], base[1], base[2], (int) base[3],
+            (int) perLevel[0], perLevel[1], perLevel[2], (int) perLevel[3], overrides);
+    }
+
+    public int getHealth(int level) {
+        Table current = tableFor(level);
+        return current != null ? current.health[level] : baseHealth + level * healthPerLevel;
+    }
+
+    public double getDamage(int level) {
+        Table current = tableFor(level);
+        return current != null ? current.damage[level] : baseDamage + level * damagePerLevel;
+    }
+
+    /**
+     *
+     * @return attacks per second of an enemy at the level
+     */
+    public double getAttackSpeed(int level) {
+        Table current = tableFor(level);
+        return current != null ? current.attackSpeed[level] : baseAttackSpeed + level * attackSpeedPerLevel;
+    }
+
+    /**
+     *
+     * @return skill points for defeating an enemy at the level
+     */
+    public int getReward(int level) {
+        Table current = tableFor(level);
+        return current != null ? current.reward[level] : baseReward + level * rewardPerLevel;
+    }
+
+    /**
+     *
+     * @return first level from which every level follows base + level * perLevel, past any override rows
+     */
+    public int getFirstFormulaLevel() {
+        return overrides == null ? 0 : overrides.health.length;
+    }
+
+    /**
+     *
+     * @return number of levels precomputed so far
+     */
+    public int getComputedLevels() {
+        return table.health.length;
+    }
+
+    // NOTE: The table holding the level, null past the table cap where the caller applies the formula
+    private Table tableFor(int level) {
+        Table current = table;
+        if (level < current.health.length) {
+            if (level < 0) {
+                throw new IllegalArgumentException("Negative enemy level " + level);
+            }
+            return current;
+        }
+        return level < MAX_TABLE_LEVELS ? grow(level) : null;
+    }
+
+    private synchronized Table grow(int level) {
+        Table current = table;
+        if (level >= current.health.length) {
+            // Double so endless runs regrow a logarithmic number of times
+            current = build(Math.min(MAX_TABLE_LEVELS, Math.max(level + 1, current.health.length * 2)));
+            table = current;
+        }
+        return current;
+    }
+
+    private Table build(int levels) {
+        Table built = new Table(levels);
+        for (int level = 0; level < levels; level++) {
+            if (overrides != null && level < overrides.health.length && overrides.health[level] >= 0) {
+                built.set(level, overrides.health[level], overrides.damage[level], overrides.attackSpeed[level], overrides.reward[level]);
+            } else {
+                built.set(level, baseHealth + level * healthPerLevel, baseDamage + level * damagePerLevel,
+                    baseAttackSpeed + level * attackSpeedPerLevel, baseReward + level * rewardPerLevel);
+            }
+        }
+        return built;
+    }
+
+    private static EnemyStats loadConfigured() {
+        String configured = System.getProperty("slime.enemyStats");
+        if (configured != null && !configured.isEmpty()) {
+            try {
+                return load(Paths.get(configured));
+            } catch (IOException e) {
+                System.err.println("Could not load enemy stats " + configured + ", using the built-in curve: " + e.getMessage());
+            }
+        }
+        return builtIn();
+    }
+
+    // NOTE: One column per stat, indexed by level
+    private static final class Table {
+        final int[] health;
+        final double[] damage;
+        final double[] attackSpeed;
+        final int[] reward;
+
+        Table(int levels) {
+            this.health = new int[levels];
+            this.damage = new double[levels];
+            this.attackSpeed = new double[levels];
+            this.reward = new int[levels];
+        }
+
+        void set(int level, int health, double damage, double attackSpeed, int reward) {
+            this.health[level] = health;
+            this.damage[level] = damage;
+            this.attackSpeed[level] = attackSpeed;
+            this.reward[level] = reward;
+        }
+    }
+}
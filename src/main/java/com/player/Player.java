@@ -1,12 +1,26 @@
 package com.player;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
 // NOTE: Abstract -> Player root game entity
 public abstract class Player {
-    // NOTE: Encapsulation -> Player attributes
-    private int health;
-    private int maxHealth;
-    private double Damege, attackSpeed;
+    // NOTE: Health is updated with CAS through this handle, attackers never lock
+    private static final VarHandle HEALTH;
+    static {
+        try {
+            HEALTH = MethodHandles.lookup().findVarHandle(Player.class, "health", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
+    // NOTE: Encapsulation -> Player attributes, volatile so the renderer sees battle updates
+    private volatile int health;
+    private volatile int maxHealth;
+    private volatile double Damege, attackSpeed;
     private String name;
+    private volatile CombatSnapshot snapshot;
     
     // NOTE: Default constructor
     public Player() {
@@ -103,4 +117,55 @@ public abstract class Player {
     public boolean isAlive() {
         return this.health > 0;
     }
+
+    /**
+     * Gets an immutable copy of the combat stats, rebuilt only after they changed,
+     * so a frame draws every stat from one object. The fields are read one by one,
+     * not as an atomic set: a writer that changes two of them, like
+     * {@link PlayerSlime#upgradeMaxHealth(int)}, may be seen half done
+     * @return the current snapshot
+     */
+    public CombatSnapshot snapshot() {
+        CombatSnapshot current = this.snapshot;
+        int health = getHealth();
+        int maxHealth = getMaxHealth();
+        double damage = getDamege();
+        double attackSpeed = getAttackSpeed();
+        if (current == null || !current.matches(health, maxHealth, damage, attackSpeed)) {
+            current = new CombatSnapshot(health, maxHealth, damage, attackSpeed);
+            this.snapshot = current;
+        }
+        return current;
+    }
+
+    /**
+     * Atomically subtracts damage from health, clamped at zero. Concurrent
+     * attackers retry instead of blocking, and no hit is lost.
+     * @param damage the amount of damage as a double
+     * @return health after the hit
+     */
+    protected final int applyDamage(double damage) {
+        int current;
+        int next;
+        do {
+            current = this.health;
+            next = (int) Math.max(0, current - damage);
+        } while (!HEALTH.compareAndSet(this, current, next));
+        return next;
+    }
+
+    /**
+     * Atomically adds to health, used when an upgrade raises it during play
+     * @param amount health to add
+     * @return health after the change
+     */
+    protected final int addHealth(int amount) {
+        return (int) HEALTH.getAndAdd(this, amount) + amount;
+    }
+
+    /**
+     * Applies incoming damage to the entity, never dropping health below zero
+     * @param damage the amount of damage to take as a double
+     */
+    public abstract void takeDamage(double damage);
 }
@@ -39,19 +39,24 @@ public class PlayerSlime extends Player {
         this.roundsWon++;
     }
     
+    // NOTE: Only for restoring a saved game
+    public void setRoundsWon(int roundsWon) {
+        this.roundsWon = roundsWon;
+    }
+    
     public void resetForNewRound() {
         setHealth(getMaxHealth());
     }
     
+    @Override
     public void takeDamage(double damage) {
-        int newHealth = (int) Math.max(0, getHealth() - damage);
-        setHealth(newHealth);
+        applyDamage(damage);
     }
     
     // Upgrade methods
     public void upgradeMaxHealth(int amount) {
         setMaxHealth(getMaxHealth() + amount);
-        setHealth(getHealth() + amount); // Also increase current health
+        addHealth(amount); // Also increase current health
     }
     
     public void upgradeAttack(double amount) {
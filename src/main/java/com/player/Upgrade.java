@@ -0,0 +1,55 @@
+package com.player;
+
+// NOTE: Skill point upgrades offered to the player, shared by the UI and the simulators
+public enum Upgrade {
+    HEALTH(1, 20),
+    ATTACK(2, 5.0),
+    ATTACK_SPEED(2, 0.1);
+
+    private final int cost;
+    private final double amount;
+
+    Upgrade(int cost, double amount) {
+        this.cost = cost;
+        this.amount = amount;
+    }
+
+    /**
+     *
+     * @return skill point cost of the upgrade as an int
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     *
+     * @return how much the stat grows per purchase as a double
+     */
+    public double getAmount() {
+        return amount;
+    }
+
+    /**
+     * Spends the skill points and applies the upgrade if the player can afford it
+     * @param player the slime to upgrade
+     * @return true if the upgrade was bought
+     */
+    public boolean purchase(PlayerSlime player) {
+        if (!player.spendSkillPoints(cost)) {
+            return false;
+        }
+        switch (this) {
+            case HEALTH:
+                player.upgradeMaxHealth((int) amount);
+                break;
+            case ATTACK:
+                player.upgradeAttack(amount);
+                break;
+            case ATTACK_SPEED:
+                player.upgradeAttackSpeed(amount);
+                break;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,261 @@
+package com.render;
+
+import com.asset.AssetCache;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the battle and menu backgrounds from the ten numbered layer slices
+ * ({@code 0.png} is the sky, {@code 9.png} the nearest foreground).
+ * <p>
+ * Consecutive static layers are merged into one image per run when the
+ * target size is set, so they cost a single blit. Layers with a scroll speed
+ * are kept separate and wrap horizontally. The composed frame is cached, and
+ * only the rows covered by a layer whose pixel offset changed are redrawn, so
+ * an unchanged background costs one clipped blit per paint.
+ */
+public class BackgroundCompositor {
+    public static final int LAYER_COUNT = 10;
+
+    // NOTE: Scroll speed per layer in source pixels per second, only the clouds drift by default
+    public static final double[] DEFAULT_SCROLL_SPEEDS = {0, 4, 0, 0, 0, 0, 0, 0, 0, 0};
+
+    private final String set;
+    private final String resolution;
+    private final double[] scrollSpeeds;
+
+    private final List<Element> elements;
+    private BufferedImage composed;
+    // NOTE: The moving layers damage the same bands every frame, so the clipped graphics is kept
+    private final ClipCache composedClips = new ClipCache(2);
+    private final Rectangle dirty;
+    private int width;
+    private int height;
+
+    /**
+     * Creates a compositor for one background set
+     * @param set "pillars" or "no_pillars"
+     * @param resolution "1920X1080" or "320X180"
+     * @param scrollSpeeds source pixels per second for each of the ten layers
+     */
+    public BackgroundCompositor(String set, String resolution, double[] scrollSpeeds) {
+        this.set = set;
+        this.resolution = resolution;
+        this.scrollSpeeds = scrollSpeeds.clone();
+        this.elements = new ArrayList<>();
+        this.dirty = new Rectangle();
+    }
+
+    public BackgroundCompositor(String set) {
+        this(set, "1920X1080", DEFAULT_SCROLL_SPEEDS);
+    }
+
+    /**
+     *
+     * @param index layer number, 0 to 9
+     * @return classpath of the layer slice
+     */
+    public String getLayerPath(int index) {
+        return "/images/background/" + set + "/" + resolution + "/" + index + ".png";
+    }
+
+    /**
+     *
+     * @return classpaths of all ten layer slices, for preloading
+     */
+    public List<String> getLayerPaths() {
+        List<String> paths = new ArrayList<>(LAYER_COUNT);
+        for (int i = 0; i < LAYER_COUNT; i++) {
+            paths.add(getLayerPath(i));
+        }
+        return paths;
+    }
+
+    /**
+     * Advances the moving layers to the given time and records the rows that changed
+     * @param millis elapsed animation time in milliseconds
+     * @return true if any part of the background has to be redrawn
+     */
+    public synchronized boolean advance(long millis) {
+        if (composed == null) {
+            return false;
+        }
+        for (int i = 0; i < elements.size(); i++) {
+            Element element = elements.get(i);
+            if (!element.moving) {
+                continue;
+            }
+            int offset = (int) ((long) (element.speed * millis / 1000.0) % width);
+            if (offset != element.offset) {
+                element.offset = offset;
+                markDirty(0, element.top, width, element.image.getHeight());
+            }
+        }
+        return !dirty.isEmpty();
+    }
+
+    /**
+     *
+     * @return the area changed since the last render, empty if nothing moved
+     */
+    public synchronized Rectangle getDirtyBounds() {
+        return new Rectangle(dirty);
+    }
+
+    /**
+     * Copies the area changed since the last render into a caller's rectangle,
+     * for callers that ask every tick and must not allocate
+     * @param result rectangle to overwrite
+     * @return result, empty if nothing moved
+     */
+    public synchronized Rectangle getDirtyBounds(Rectangle result) {
+        result.setBounds(dirty);
+        return result;
+    }
+
+    /**
+     * Draws the background, rebuilding the layer cache if the size changed.
+     * The blit is limited by the clip of the graphics, so callers repainting
+     * a small region only pay for that region.
+     * @param g target graphics
+     * @param width target width in pixels
+     * @param height target height in pixels
+     * @return false if no layer could be loaded and nothing was drawn
+     */
+    public synchronized boolean render(Graphics2D g, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return false;
+        }
+        if (composed == null || width != this.width || height != this.height) {
+            rebuild(width, height);
+        }
+        if (elements.isEmpty()) {
+            return false;
+        }
+        if (!dirty.isEmpty()) {
+            recompose();
+        }
+        g.drawImage(composed, 0, 0, null);
+        return true;
+    }
+
+    private void markDirty(int x, int y, int w, int h) {
+        if (dirty.isEmpty()) {
+            dirty.setBounds(x, y, w, h);
+        } else {
+            int left = Math.min(dirty.x, x);
+            int top = Math.min(dirty.y, y);
+            int right = Math.max(dirty.x + dirty.width, x + w);
+            int bottom = Math.max(dirty.y + dirty.height, y + h);
+            dirty.setBounds(left, top, right - left, bottom - top);
+        }
+    }
+
+    private void rebuild(int width, int height) {
+        this.width = width;
+        this.height = height;
+        elements.clear();
+
+        AssetCache assets = AssetCache.getInstance();
+        Element band = null;
+        for (int i = 0; i < LAYER_COUNT; i++) {
+            BufferedImage source = assets.getImage(getLayerPath(i));
+            if (source == null) {
+                continue;
+            }
+            double scaleX = (double) width / source.getWidth();
+            double scaleY = (double) height / source.getHeight();
+
+            if (scrollSpeeds[i] == 0) {
+                // Merge runs of static layers into one band
+                if (band == null) {
+                    band = new Element(createImage(width, height), 0, false, 0);
+                    elements.add(band);
+                }
+                drawScaled(band.image, source, 0, 0, width, height);
+            } else {
+                band = null;
+                int[] rows = opaqueRows(source);
+                int top = (int) Math.floor(rows[0] * scaleY);
+                int bottom = (int) Math.ceil((rows[1] + 1) * scaleY);
+                BufferedImage strip = createImage(width, Math.max(1, bottom - top));
+                drawScaled(strip, source, 0, -top, width, height);
+                elements.add(new Element(strip, top, true, scrollSpeeds[i] * scaleX));
+            }
+        }
+
+        // Layer 0 is opaque, so the composed frame needs no alpha
+        composed = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        composedClips.setTarget(composed);
+        dirty.setBounds(0, 0, width, height);
+    }
+
+    private void recompose() {
+        Graphics2D g = composedClips.get(dirty);
+        g.setColor(Color.BLACK);
+        g.fillRect(dirty.x, dirty.y, dirty.width, dirty.height);
+        for (int i = 0; i < elements.size(); i++) {
+            Element element = elements.get(i);
+            if (element.moving) {
+                g.drawImage(element.image, -element.offset, element.top, null);
+                g.drawImage(element.image, width - element.offset, element.top, null);
+            } else {
+                g.drawImage(element.image, 0, 0, null);
+            }
+        }
+        dirty.setBounds(0, 0, 0, 0);
+    }
+
+    private static void drawScaled(BufferedImage target, BufferedImage source, int x, int y, int width, int height) {
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            g.drawImage(source, x, y, width, height, null);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    // NOTE: First and last row holding any visible pixel, a moving layer only dirties those rows
+    private static int[] opaqueRows(BufferedImage image) {
+        int top = image.getHeight();
+        int bottom = -1;
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                if ((image.getRGB(x, y) >>> 24) != 0) {
+                    top = Math.min(top, y);
+                    bottom = y;
+                    break;
+                }
+            }
+        }
+        if (bottom < 0) {
+            return new int[] {0, 0};
+        }
+        return new int[] {top, bottom};
+    }
+
+    private static BufferedImage createImage(int width, int height) {
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+
+    private static final class Element {
+        private final BufferedImage image;
+        private final int top;
+        private final boolean moving;
+        private final double speed;
+        private int offset;
+
+        Element(BufferedImage image, int top, boolean moving, double speed) {
+            this.image = image;
+            this.top = top;
+            this.moving = moving;
+            this.speed = speed;
+        }
+    }
+}
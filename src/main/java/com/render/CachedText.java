@@ -0,0 +1,125 @@
+package com.render;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * A text label that is rebuilt and rasterised only when the values it shows
+ * change. Painting it is a single image blit, so the same stats can be drawn
+ * frame after frame without building strings or switching the font of the
+ * target graphics (which makes Java2D allocate new font info every time).
+ * <pre>
+ * if (hpText.isStale(health, maxHealth)) {
+ *     hpText.set("HP: " + health + "/" + maxHealth);
+ * }
+ * hpText.draw(g, x, baseline);
+ * </pre>
+ * Doubles are passed as {@link Double#doubleToLongBits(double)}.
+ */
+public final class CachedText {
+    // NOTE: Scratch graphics only used for font metrics
+    private static final Graphics2D METRICS = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+
+    private final Font font;
+    private final Color color;
+    private long first;
+    private long second;
+    private long third;
+    private Object source;
+    private String text;
+    private BufferedImage image;
+    private int ascent;
+
+    public CachedText(Font font, Color color) {
+        this.font = font;
+        this.color = color;
+    }
+
+    /**
+     *
+     * @return true if the text has never been set or any of the values differ
+     */
+    public boolean isStale(long first, long second, long third) {
+        if (text != null && first == this.first && second == this.second && third == this.third) {
+            return false;
+        }
+        this.first = first;
+        this.second = second;
+        this.third = third;
+        return true;
+    }
+
+    public boolean isStale(long first, long second) {
+        return isStale(first, second, 0);
+    }
+
+    public boolean isStale(long first) {
+        return isStale(first, 0, 0);
+    }
+
+    /**
+     *
+     * @param source object the text is derived from, compared by identity
+     * @return true if the text has never been set or the source object changed
+     */
+    public boolean isStale(Object source) {
+        if (text != null && source == this.source) {
+            return false;
+        }
+        this.source = source;
+        return true;
+    }
+
+    /**
+     * Replaces the text and rasterises it
+     * @param text the new text
+     */
+    public void set(String text) {
+        this.text = text;
+        FontMetrics metrics;
+        synchronized (METRICS) {
+            metrics = METRICS.getFontMetrics(font);
+        }
+        ascent = metrics.getAscent();
+        int width = Math.max(1, metrics.stringWidth(text));
+        int height = Math.max(1, ascent + metrics.getDescent());
+
+        BufferedImage rendered = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = rendered.createGraphics();
+        try {
+            g.setFont(font);
+            g.setColor(color);
+            g.drawString(text, 0, ascent);
+        } finally {
+            g.dispose();
+        }
+        image = rendered;
+    }
+
+    public String get() {
+        return text;
+    }
+
+    /**
+     *
+     * @return advance width of the text in pixels
+     */
+    public int getWidth() {
+        return image == null ? 0 : image.getWidth();
+    }
+
+    /**
+     * Draws the text like drawString would
+     * @param g target graphics
+     * @param x left edge
+     * @param baseline y of the text baseline
+     */
+    public void draw(Graphics2D g, int x, int baseline) {
+        if (image != null) {
+            g.drawImage(image, x, baseline - ascent, null);
+        }
+    }
+}
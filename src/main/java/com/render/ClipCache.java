@@ -0,0 +1,67 @@
+package com.render;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Graphics of one image, each clipped to a rectangle and kept for the next
+ * time the same rectangle is redrawn. Setting a clip makes Java2D allocate a
+ * rectangle and a clip region on every call, and a kept frame that redraws
+ * the same damaged areas frame after frame would pay that on every frame.
+ * Callers are expected to ask for a limited set of rectangles, such as the
+ * tile strips of {@link DirtyRegions}; past the limit every graphics is
+ * dropped and the cache starts over. Graphics state other than the clip
+ * carries over between uses, as it would on a single graphics.
+ * <p>
+ * Belongs to the thread that draws into the image.
+ */
+public final class ClipCache {
+    private final int limit;
+    private final Map<Rectangle, Graphics2D> graphics = new HashMap<>();
+    private BufferedImage target;
+
+    /**
+     *
+     * @param limit most clipped graphics kept at once
+     */
+    public ClipCache(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Switches to a new image, disposing the graphics of the previous one
+     * @param target the image to draw into
+     */
+    public void setTarget(BufferedImage target) {
+        dispose();
+        this.target = target;
+    }
+
+    /**
+     * Gets graphics of the target clipped to the rectangle
+     * @param clip area to draw in, copied
+     * @return graphics owned by the cache, do not dispose
+     */
+    public Graphics2D get(Rectangle clip) {
+        Graphics2D g = graphics.get(clip);
+        if (g == null) {
+            if (graphics.size() == limit) {
+                dispose();
+            }
+            g = target.createGraphics();
+            g.setClip(clip.x, clip.y, clip.width, clip.height);
+            graphics.put(new Rectangle(clip), g);
+        }
+        return g;
+    }
+
+    public void dispose() {
+        for (Graphics2D g : graphics.values()) {
+            g.dispose();
+        }
+        graphics.clear();
+    }
+}
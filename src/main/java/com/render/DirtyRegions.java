@@ -0,0 +1,249 @@
+package com.render;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+
+/**
+ * Damage tracking for a panel that keeps its last frame in a buffer. Each
+ * visual element registers its bounds once; state changes invalidate the
+ * elements they affect, and {@link #collect()} turns the pending damage into
+ * a short list of rectangles to redraw for the next frame. The damage is
+ * snapped out to a coarse grid, eight columns across by 64 pixel rows, and
+ * redrawn as one strip per run of damaged cells in a row, so only a few
+ * hundred different strips can ever come up and a {@link ClipCache} can keep
+ * a clipped graphics for each of them.
+ * <p>
+ * Invalidation may come from any thread; collecting and reading the frame
+ * rectangles belongs to the rendering thread.
+ */
+public class DirtyRegions {
+    private static final int MAX_FRAME_RECTS = 64;
+    private static final int COLUMNS = 8;
+    private static final int ROW_HEIGHT = 64;
+    private static final Color OVERLAY_COLOR = new Color(255, 0, 0, 160);
+    private static final Font OVERLAY_FONT = new Font("Arial", Font.BOLD, 16);
+
+    private final Rectangle[] elements;
+    private final boolean[] elementDirty;
+    private int elementCount;
+
+    // Arbitrary damage that does not belong to a registered element
+    private final Rectangle extra;
+    private boolean allDirty;
+
+    private final Rectangle[] frameRects;
+    private int frameCount;
+    private int width;
+    private int height;
+    private int columnWidth = 1;
+    // Damaged cells of each row of the grid, one bit per column
+    private int[] rowCells = new int[0];
+    private long framePixels;
+
+    private final CachedText overlayText;
+
+    public DirtyRegions(int maxElements) {
+        this.elements = new Rectangle[maxElements];
+        this.elementDirty = new boolean[maxElements];
+        this.extra = new Rectangle();
+        this.frameRects = new Rectangle[MAX_FRAME_RECTS];
+        for (int i = 0; i < MAX_FRAME_RECTS; i++) {
+            frameRects[i] = new Rectangle();
+        }
+        this.overlayText = new CachedText(OVERLAY_FONT, Color.RED);
+        this.allDirty = true;
+    }
+
+    /**
+     * Registers a visual element
+     * @return the element id used with {@link #invalidate(int)}
+     */
+    public synchronized int register(int x, int y, int width, int height) {
+        int id = elementCount++;
+        elements[id] = new Rectangle(x, y, width, height);
+        elementDirty[id] = true;
+        return id;
+    }
+
+    /**
+     * Sets the size of the tracked surface, which damages all of it
+     */
+    public synchronized void setSize(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.columnWidth = Math.max(1, (width + COLUMNS - 1) / COLUMNS);
+        this.rowCells = new int[(height + ROW_HEIGHT - 1) / ROW_HEIGHT];
+        allDirty = true;
+    }
+
+    public synchronized void invalidate(int id) {
+        elementDirty[id] = true;
+    }
+
+    public synchronized void invalidate(Rectangle area) {
+        if (area.isEmpty()) {
+            return;
+        }
+        if (extra.isEmpty()) {
+            extra.setBounds(area);
+        } else {
+            extra.add(area);
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        allDirty = true;
+    }
+
+    /**
+     * Turns pending damage into this frame's rectangles and clears it
+     * @return number of rectangles to redraw, 0 if nothing changed
+     */
+    public synchronized int collect() {
+        frameCount = 0;
+        if (allDirty) {
+            frameRects[frameCount++].setBounds(0, 0, width, height);
+        } else {
+            for (int id = 0; id < elementCount; id++) {
+                if (elementDirty[id]) {
+                    add(elements[id]);
+                }
+            }
+            if (!extra.isEmpty()) {
+                add(extra);
+            }
+        }
+        boolean full = allDirty;
+        allDirty = false;
+        extra.setBounds(0, 0, 0, 0);
+        for (int id = 0; id < elementCount; id++) {
+            elementDirty[id] = false;
+        }
+        if (!full && frameCount > 0) {
+            toStrips();
+        }
+
+        framePixels = 0;
+        for (int i = 0; i < frameCount; i++) {
+            Rectangle rect = frameRects[i];
+            int left = Math.max(rect.x, 0);
+            int top = Math.max(rect.y, 0);
+            int right = Math.min(rect.x + rect.width, width);
+            int bottom = Math.min(rect.y + rect.height, height);
+            rect.setBounds(left, top, Math.max(0, right - left), Math.max(0, bottom - top));
+            framePixels += (long) rect.width * rect.height;
+        }
+        return frameCount;
+    }
+
+    /**
+     *
+     * @param index 0 to collect() - 1
+     * @return a rectangle to redraw this frame, owned by the tracker
+     */
+    public Rectangle getFrameRect(int index) {
+        return frameRects[index];
+    }
+
+    /**
+     *
+     * @return share of the surface redrawn this frame, 0 to 100
+     */
+    public double getFramePercent() {
+        long total = (long) width * height;
+        return total == 0 ? 0 : framePixels * 100.0 / total;
+    }
+
+    /**
+     * Outlines this frame's rectangles and prints the share of pixels touched
+     */
+    public void drawOverlay(Graphics2D g) {
+        g.setColor(OVERLAY_COLOR);
+        for (int i = 0; i < frameCount; i++) {
+            Rectangle rect = frameRects[i];
+            g.drawRect(rect.x, rect.y, rect.width - 1, rect.height - 1);
+        }
+        int permille = (int) Math.round(getFramePercent() * 10);
+        if (overlayText.isStale(permille, frameCount)) {
+            overlayText.set("Repainted: " + permille / 10 + "." + permille % 10 + "% (" + frameCount + " rects)");
+        }
+        overlayText.draw(g, width - overlayText.getWidth() - 20, height - 20);
+    }
+
+    // NOTE: Snaps the merged rectangles out to whole cells, then redraws each row's runs of damaged cells as one strip
+    private void toStrips() {
+        int rows = rowCells.length;
+        for (int row = 0; row < rows; row++) {
+            rowCells[row] = 0;
+        }
+        for (int i = 0; i < frameCount; i++) {
+            Rectangle rect = frameRects[i];
+            int left = Math.max(0, rect.x / columnWidth);
+            int right = Math.min(COLUMNS, (Math.min(width, rect.x + rect.width) + columnWidth - 1) / columnWidth);
+            int top = Math.max(0, rect.y / ROW_HEIGHT);
+            int bottom = Math.min(rows, (Math.min(height, rect.y + rect.height) + ROW_HEIGHT - 1) / ROW_HEIGHT);
+            if (rect.isEmpty() || left >= right || top >= bottom) {
+                continue;
+            }
+            int cells = (1 << right) - (1 << left);
+            for (int row = top; row < bottom; row++) {
+                rowCells[row] |= cells;
+            }
+        }
+        frameCount = 0;
+        for (int row = 0; row < rows; row++) {
+            int cells = rowCells[row];
+            while (cells != 0) {
+                int left = Integer.numberOfTrailingZeros(cells);
+                int right = left + Integer.numberOfTrailingZeros(~(cells >>> left));
+                cells &= -1 << right;
+                if (frameCount == MAX_FRAME_RECTS) {
+                    frameCount = 1;
+                    frameRects[0].setBounds(0, 0, width, height);
+                    return;
+                }
+                int x = left * columnWidth;
+                int y = row * ROW_HEIGHT;
+                frameRects[frameCount++].setBounds(x, y, Math.min(width, right * columnWidth) - x,
+                    Math.min(height, y + ROW_HEIGHT) - y);
+            }
+        }
+    }
+
+    // NOTE: Merge into an overlapping rectangle where possible, fall back to a full redraw on overflow
+    private void add(Rectangle area) {
+        for (int i = 0; i < frameCount; i++) {
+            if (frameRects[i].intersects(area)) {
+                frameRects[i].add(area);
+                mergeInto(i);
+                return;
+            }
+        }
+        if (frameCount == MAX_FRAME_RECTS) {
+            frameCount = 1;
+            frameRects[0].setBounds(0, 0, width, height);
+            return;
+        }
+        frameRects[frameCount++].setBounds(area);
+    }
+
+    private void mergeInto(int index) {
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            for (int i = 0; i < frameCount; i++) {
+                if (i != index && frameRects[i].intersects(frameRects[index])) {
+                    frameRects[index].add(frameRects[i]);
+                    frameRects[i].setBounds(frameRects[--frameCount]);
+                    if (index == frameCount) {
+                        index = i;
+                    }
+                    merged = true;
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.render;
+
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+
+/**
+ * Damage numbers that rise and fade above whatever was hit, held in a small
+ * fixed pool of primitive arrays. Live numbers are packed at the front and
+ * one that expires is replaced by the last live one. When the pool is full
+ * the oldest number makes room for the new one. A number is drawn from its
+ * int value with a {@link GlyphAtlas}, and its rise and fade at every age are
+ * tables built once, so spawning, stepping and drawing never allocate.
+ * <p>
+ * Spawning, updating and drawing belong to the game loop thread.
+ */
+public class FloatingNumbers {
+    // Part of its life a number stays fully opaque before it starts to fade, in percent
+    private static final int OPAQUE_PERCENT = 50;
+
+    private final GlyphAtlas[] styles;
+    private final int capacity;
+    private final float[] x;
+    private final float[] y;
+    private final int[] value;
+    private final short[] age;
+    private final byte[] style;
+    private int count;
+
+    // Indexed by age
+    private final float[] riseAt;
+    private final AlphaComposite[] fadeAt;
+
+    /**
+     *
+     * @param capacity most numbers on screen at once
+     * @param lifeTicks ticks a number is shown for
+     * @param rise pixels a number rises over its life
+     * @param styles one atlas per style index, the font and color numbers of that style are drawn in
+     */
+    public FloatingNumbers(int capacity, int lifeTicks, int rise, GlyphAtlas... styles) {
+        this.styles = styles;
+        this.capacity = capacity;
+        this.x = new float[capacity];
+        this.y = new float[capacity];
+        this.value = new int[capacity];
+        this.age = new short[capacity];
+        this.style = new byte[capacity];
+        this.riseAt = new float[lifeTicks];
+        this.fadeAt = new AlphaComposite[lifeTicks];
+        int opaqueTicks = lifeTicks * OPAQUE_PERCENT / 100;
+        for (int tick = 0; tick < lifeTicks; tick++) {
+            // Fast at first and easing out, like something thrown up
+            float progress = (float) tick / lifeTicks;
+            riseAt[tick] = rise * progress * (2 - progress);
+            float opacity = tick < opaqueTicks ? 1f : 1f - (float) (tick - opaqueTicks) / (lifeTicks - opaqueTicks);
+            fadeAt[tick] = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, Math.max(0f, opacity));
+        }
+    }
+
+    /**
+     * Shows a number centered on a point, rising from there
+     * @param styleIndex index into the constructor's atlases
+     */
+    public void spawn(float centerX, float bottomY, int number, int styleIndex) {
+        int i;
+        if (count < capacity) {
+            i = count++;
+        } else {
+            i = oldest();
+        }
+        x[i] = centerX;
+        y[i] = bottomY;
+        value[i] = number;
+        age[i] = 0;
+        style[i] = (byte) styleIndex;
+    }
+
+    private int oldest() {
+        int oldest = 0;
+        for (int i = 1; i < count; i++) {
+            if (age[i] > age[oldest]) {
+                oldest = i;
+            }
+        }
+        return oldest;
+    }
+
+    /**
+     * Ages every number one tick and removes the ones that expire
+     */
+    public void update() {
+        int i = 0;
+        while (i < count) {
+            if (++age[i] >= riseAt.length) {
+                remove(i);
+                continue; // the last number moved into this slot and still needs its tick
+            }
+            i++;
+        }
+    }
+
+    // NOTE: Swap-remove, the order of numbers does not matter
+    private void remove(int i) {
+        int last = --count;
+        x[i] = x[last];
+        y[i] = y[last];
+        value[i] = value[last];
+        age[i] = age[last];
+        style[i] = style[last];
+    }
+
+    private int left(int i, GlyphAtlas atlas) {
+        return Math.round(x[i]) - atlas.intWidth(value[i]) / 2;
+    }
+
+    private int baseline(int i) {
+        return Math.round(y[i] - riseAt[age[i]]);
+    }
+
+    /**
+     * Draws every live number at its age's height and opacity
+     */
+    public void draw(Graphics2D g) {
+        if (count == 0) {
+            return;
+        }
+        Composite saved = g.getComposite();
+        try {
+            for (int i = 0; i < count; i++) {
+                GlyphAtlas atlas = styles[style[i]];
+                g.setComposite(fadeAt[age[i]]);
+                atlas.drawInt(g, value[i], left(i, atlas), baseline(i));
+            }
+        } finally {
+            g.setComposite(saved);
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void clear() {
+        count = 0;
+    }
+}
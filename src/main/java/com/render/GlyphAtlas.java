@@ -0,0 +1,216 @@
+package com.render;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The printable ASCII glyphs of one font and color, rasterised once side by
+ * side into a single image. Text is drawn glyph by glyph as blits of that
+ * image, and numbers straight from their int value, so a number that changes
+ * every frame (an interpolating HP value, a damage number) is drawn without
+ * building a string or rasterising anything.
+ * <pre>
+ * int x = atlas.drawInt(g, health, left, baseline);
+ * x = atlas.drawChar(g, '/', x, baseline);
+ * atlas.drawInt(g, maxHealth, x, baseline);
+ * </pre>
+ * Glyphs are placed at their advance widths, without kerning. Text that
+ * changes rarely reads better as a {@link CachedText}.
+ */
+public final class GlyphAtlas {
+    private static final char FIRST = ' ';
+    private static final char LAST = '~';
+    // NOTE: Scratch graphics only used for font metrics
+    private static final Graphics2D METRICS = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+    private static final Map<List<Object>, GlyphAtlas> ATLASES = new HashMap<>();
+
+    // One view into the atlas image per glyph, drawing a whole image is the blit that never allocates
+    private final BufferedImage[] glyphs;
+    private final int[] advances;
+    private final int ascent;
+    private final int height;
+
+    /**
+     * Rasterises the glyphs of a font and color the first time they are asked for
+     * @return the atlas shared by everything drawing with that font and color
+     */
+    public static GlyphAtlas get(Font font, Color color) {
+        synchronized (ATLASES) {
+            return ATLASES.computeIfAbsent(List.of(font, color), key -> new GlyphAtlas(font, color));
+        }
+    }
+
+    private GlyphAtlas(Font font, Color color) {
+        FontMetrics metrics;
+        synchronized (METRICS) {
+            metrics = METRICS.getFontMetrics(font);
+        }
+        this.ascent = metrics.getAscent();
+        this.height = Math.max(1, ascent + metrics.getDescent());
+        this.advances = new int[LAST - FIRST + 1];
+        int width = 0;
+        for (char c = FIRST; c <= LAST; c++) {
+            advances[c - FIRST] = metrics.charWidth(c);
+            width += Math.max(1, advances[c - FIRST]);
+        }
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        this.glyphs = new BufferedImage[advances.length];
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setFont(font);
+            g.setColor(color);
+            int x = 0;
+            for (char c = FIRST; c <= LAST; c++) {
+                int cell = Math.max(1, advances[c - FIRST]);
+                // NOTE: Each glyph is clipped to its own cell so an overhang does not bleed into the next one
+                g.setClip(x, 0, cell, height);
+                g.drawString(String.valueOf(c), x, ascent);
+                glyphs[c - FIRST] = image.getSubimage(x, 0, cell, height);
+                x += cell;
+            }
+        } finally {
+            g.dispose();
+        }
+    }
+
+    /**
+     * Draws one glyph like drawString would, a character outside printable ASCII is skipped
+     * @param x left edge
+     * @param baseline y of the text baseline
+     * @return x of the next glyph
+     */
+    public int drawChar(Graphics2D g, char c, int x, int baseline) {
+        if (c < FIRST || c > LAST) {
+            return x;
+        }
+        g.drawImage(glyphs[c - FIRST], x, baseline - ascent, null);
+        return x + advances[c - FIRST];
+    }
+
+    /**
+     * Draws a number in decimal, with a minus sign when negative
+     * @return x after the last digit
+     */
+    public int drawInt(Graphics2D g, int value, int x, int baseline) {
+        if (value < 0) {
+            x = drawChar(g, '-', x, baseline);
+        }
+        return drawDigits(g, Math.abs((long) value), 1, x, baseline);
+    }
+
+    /**
+     * Draws a fixed-point number, e.g. 15 with one decimal as 1.5
+     * @param scaled the number times ten to the power of decimals
+     * @return x after the last digit
+     */
+    public int drawFixed(Graphics2D g, int scaled, int decimals, int x, int baseline) {
+        if (scaled < 0) {
+            x = drawChar(g, '-', x, baseline);
+        }
+        long rest = Math.abs((long) scaled);
+        long unit = pow10(decimals);
+        x = drawDigits(g, rest / unit, 1, x, baseline);
+        if (decimals > 0) {
+            x = drawChar(g, '.', x, baseline);
+            x = drawDigits(g, rest % unit, unit / 10, x, baseline);
+        }
+        return x;
+    }
+
+    // NOTE: Digits from the most significant one down, at least down to minDivisor so fractions keep their leading zeros
+    private int drawDigits(Graphics2D g, long value, long minDivisor, int x, int baseline) {
+        for (long divisor = Math.max(minDivisor, divisor(value)); divisor > 0; divisor /= 10) {
+            x = drawChar(g, (char) ('0' + value / divisor % 10), x, baseline);
+        }
+        return x;
+    }
+
+    /**
+     * Draws constant text, e.g. a label next to a number
+     * @return x after the last glyph
+     */
+    public int drawText(Graphics2D g, String text, int x, int baseline) {
+        for (int i = 0; i < text.length(); i++) {
+            x = drawChar(g, text.charAt(i), x, baseline);
+        }
+        return x;
+    }
+
+    // NOTE: Largest power of ten not above the value, the place of its first digit
+    private static long divisor(long value) {
+        long divisor = 1;
+        while (divisor * 10 <= value) {
+            divisor *= 10;
+        }
+        return divisor;
+    }
+
+    private static long pow10(int exponent) {
+        long power = 1;
+        for (int i = 0; i < exponent; i++) {
+            power *= 10;
+        }
+        return power;
+    }
+
+    public int charWidth(char c) {
+        return c < FIRST || c > LAST ? 0 : advances[c - FIRST];
+    }
+
+    /**
+     *
+     * @return width drawInt takes for the value, in pixels
+     */
+    public int intWidth(int value) {
+        return (value < 0 ? charWidth('-') : 0) + digitsWidth(Math.abs((long) value), 1);
+    }
+
+    /**
+     *
+     * @return width drawFixed takes for the number, in pixels
+     */
+    public int fixedWidth(int scaled, int decimals) {
+        long rest = Math.abs((long) scaled);
+        long unit = pow10(decimals);
+        int width = (scaled < 0 ? charWidth('-') : 0) + digitsWidth(rest / unit, 1);
+        if (decimals > 0) {
+            width += charWidth('.') + digitsWidth(rest % unit, unit / 10);
+        }
+        return width;
+    }
+
+    private int digitsWidth(long value, long minDivisor) {
+        int width = 0;
+        for (long divisor = Math.max(minDivisor, divisor(value)); divisor > 0; divisor /= 10) {
+            width += charWidth((char) ('0' + value / divisor % 10));
+        }
+        return width;
+    }
+
+    public int textWidth(String text) {
+        int width = 0;
+        for (int i = 0; i < text.length(); i++) {
+            width += charWidth(text.charAt(i));
+        }
+        return width;
+    }
+
+    public int getAscent() {
+        return ascent;
+    }
+
+    /**
+     *
+     * @return height of a line of glyphs, ascent plus descent
+     */
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,304 @@
+package com.render;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+
+/**
+ * Particles for hit sparks, deaths and level-ups, held in fixed-capacity
+ * primitive arrays. A particle is one slot across the position, velocity,
+ * life and color arrays. Live particles are packed at the front and one that
+ * dies is replaced by the last live one, so a tick is a single pass over the
+ * live particles and nothing is allocated after construction. A burst that
+ * does not fit is cut short and the particles left out are counted as
+ * dropped.
+ * <p>
+ * Particles fade through a few shades as they age. They are drawn as one
+ * batch blended into copies of the frame's pixels a band of rows at a time, a
+ * draw call per particle is far too slow for tens of thousands of them. The
+ * copies go in and out through the raster, never through the image's data
+ * array, so the frame stays eligible for acceleration. Emitting, updating and
+ * drawing belong to the game loop thread.
+ */
+public class ParticleSystem {
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    static final int SIZE = 4;
+    private static final int SHADES = 4;
+    // Pixels per tick squared, pulls sparks back down
+    private static final float GRAVITY = 0.25f;
+    // Rows of the frame copied and blended at a time, small enough for the copy to stay in cache
+    private static final int BAND_ROWS = 32;
+
+    private final int capacity;
+    private final float[] x;
+    private final float[] y;
+    private final float[] vx;
+    private final float[] vy;
+    private final short[] life;
+    private final short[] lifetime;
+    private final byte[] color;
+    private int count;
+    private long dropped;
+    private long seed = 0x9E3779B97F4A7C15L;
+
+    // Each color at every shade, premultiplied by its opacity, and how much of the pixel under it is kept out of 256
+    private final int[] premultiplied;
+    private final int[] keptAlpha;
+
+    private final Rectangle bounds = new Rectangle();
+    // Particles ordered by band, where each band's particles start, and the pixels of the band being blended
+    private final int[] order;
+    private int[] bandStart = new int[0];
+    private int[] scratch = new int[0];
+
+    /**
+     *
+     * @param capacity most live particles, a burst past it is dropped
+     * @param colors one per color index, each faded through its shades as particles age
+     */
+    public ParticleSystem(int capacity, Color... colors) {
+        this.capacity = capacity;
+        this.x = new float[capacity];
+        this.y = new float[capacity];
+        this.vx = new float[capacity];
+        this.vy = new float[capacity];
+        this.life = new short[capacity];
+        this.lifetime = new short[capacity];
+        this.color = new byte[capacity];
+        this.order = new int[capacity];
+        this.premultiplied = new int[colors.length * SHADES];
+        this.keptAlpha = new int[colors.length * SHADES];
+        for (int i = 0; i < colors.length; i++) {
+            for (int shade = 0; shade < SHADES; shade++) {
+                Color base = colors[i];
+                int alpha = 256 - shade * 256 / SHADES;
+                premultiplied[i * SHADES + shade] = (base.getRed() * alpha >> 8) << 16 | (base.getGreen() * alpha >> 8) << 8 | base.getBlue() * alpha >> 8;
+                keptAlpha[i * SHADES + shade] = 256 - alpha;
+            }
+        }
+    }
+
+    /**
+     * Emits particles from a point in random directions
+     * @param count particles in the burst
+     * @param speed fastest initial speed, in pixels per tick
+     * @param lift upward speed added to every particle, in pixels per tick
+     * @param colorIndex index into the constructor's colors
+     * @param lifeTicks longest life, each particle lives 60 to 100% of it
+     * @return particles emitted, fewer than count if the pool filled up
+     */
+    public int burst(float centerX, float centerY, int count, float speed, float lift, int colorIndex, int lifeTicks) {
+        int emitted = Math.min(count, capacity - this.count);
+        dropped += count - emitted;
+        short longest = (short) Math.min(Short.MAX_VALUE, lifeTicks);
+        for (int n = 0; n < emitted; n++) {
+            int i = this.count++;
+            double angle = nextFloat() * 2 * Math.PI;
+            float velocity = speed * (float) Math.sqrt(nextFloat());
+            x[i] = centerX;
+            y[i] = centerY;
+            vx[i] = velocity * (float) Math.cos(angle);
+            vy[i] = velocity * (float) Math.sin(angle) - lift;
+            lifetime[i] = (short) Math.max(1, longest * (6 + (int) (nextFloat() * 5)) / 10);
+            life[i] = lifetime[i];
+            color[i] = (byte) colorIndex;
+        }
+        // NOTE: Drawing only touches the bounds, a burst drawn before the next update must be inside them
+        if (emitted > 0) {
+            int px = (int) centerX;
+            int py = (int) centerY;
+            if (bounds.isEmpty()) {
+                bounds.setBounds(px, py, SIZE, SIZE);
+            } else {
+                bounds.add(px, py);
+                bounds.add(px + SIZE, py + SIZE);
+            }
+        }
+        return emitted;
+    }
+
+    /**
+     * Moves every particle one tick and removes the ones that expire
+     */
+    public void update() {
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        int i = 0;
+        while (i < count) {
+            if (--life[i] <= 0) {
+                remove(i);
+                continue; // the last particle moved into this slot and still needs its tick
+            }
+            vy[i] += GRAVITY;
+            x[i] += vx[i];
+            y[i] += vy[i];
+            int px = (int) x[i];
+            int py = (int) y[i];
+            minX = Math.min(minX, px);
+            minY = Math.min(minY, py);
+            maxX = Math.max(maxX, px);
+            maxY = Math.max(maxY, py);
+            i++;
+        }
+        if (count == 0) {
+            bounds.setBounds(0, 0, 0, 0);
+        } else {
+            bounds.setBounds(minX, minY, maxX - minX + SIZE, maxY - minY + SIZE);
+        }
+    }
+
+    // NOTE: Swap-remove, the order of particles does not matter
+    private void remove(int i) {
+        int last = --count;
+        x[i] = x[last];
+        y[i] = y[last];
+        vx[i] = vx[last];
+        vy[i] = vy[last];
+        life[i] = life[last];
+        lifetime[i] = lifetime[last];
+        color[i] = color[last];
+    }
+
+    /**
+     * Blends every live particle into the pixels of an RGB image, one pass
+     * over the particles and no draw calls
+     * @param target a TYPE_INT_RGB image
+     * @param scale target pixels per unit of particle position
+     */
+    public void draw(BufferedImage target, double scale) {
+        int live = count;
+        if (live == 0) {
+            return;
+        }
+        int size = Math.max(1, (int) Math.round(SIZE * scale));
+        // NOTE: The bounds of the last update scaled to the target, a pixel of slack for rounding
+        int areaLeft = Math.max(0, (int) Math.floor(bounds.x * scale) - 1);
+        int areaTop = Math.max(0, (int) Math.floor(bounds.y * scale) - 1);
+        int areaRight = Math.min(target.getWidth(), (int) Math.ceil((bounds.x + bounds.width) * scale) + size);
+        int areaBottom = Math.min(target.getHeight(), (int) Math.ceil((bounds.y + bounds.height) * scale) + size);
+        if (areaLeft >= areaRight || areaTop >= areaBottom) {
+            return;
+        }
+        int width = areaRight - areaLeft;
+        int height = areaBottom - areaTop;
+        int bands = (height + BAND_ROWS - 1) / BAND_ROWS;
+        // NOTE: Sized for the whole target, not this frame's area, so a spreading burst does not regrow them
+        if (bandStart.length < bands + 1) {
+            bandStart = new int[(target.getHeight() + BAND_ROWS - 1) / BAND_ROWS + 1];
+        }
+        if (scratch.length < width * (BAND_ROWS + size)) {
+            scratch = new int[target.getWidth() * (BAND_ROWS + size)];
+        }
+        // NOTE: Counting sort by the band holding each particle's top row, then each band is copied out of
+        // the raster, blended and copied back while it is hot. Copying the whole area at once is a few
+        // megabytes each way and runs the frame out of budget
+        Arrays.fill(bandStart, 0, bands + 1, 0);
+        for (int i = 0; i < live; i++) {
+            int band = band(i, scale, areaTop, height, size);
+            if (band >= 0) {
+                bandStart[band + 1]++;
+            }
+        }
+        for (int band = 0; band < bands; band++) {
+            bandStart[band + 1] += bandStart[band];
+        }
+        for (int i = 0; i < live; i++) {
+            int band = band(i, scale, areaTop, height, size);
+            if (band >= 0) {
+                order[bandStart[band]++] = i;
+            }
+        }
+        // Each start was advanced to the next band's start, the first band starts at zero
+        int[] pixels = scratch;
+        WritableRaster raster = target.getRaster();
+        int first = 0;
+        for (int band = 0; band < bands; band++) {
+            int last = bandStart[band];
+            if (first == last) {
+                continue;
+            }
+            // A particle may reach below its band, the next band reads those rows back after they are written
+            int bandTop = band * BAND_ROWS;
+            int bandHeight = Math.min(height, bandTop + BAND_ROWS + size - 1) - bandTop;
+            raster.getDataElements(areaLeft, areaTop + bandTop, width, bandHeight, pixels);
+            for (int k = first; k < last; k++) {
+                int i = order[k];
+                // Relative to the copied band
+                int left = (int) (x[i] * scale) - areaLeft;
+                int top = (int) (y[i] * scale) - areaTop - bandTop;
+                int right = Math.min(width, left + size);
+                int bottom = Math.min(bandHeight, top + size);
+                left = Math.max(0, left);
+                top = Math.max(0, top);
+                if (left >= right || top >= bottom) {
+                    continue;
+                }
+                int shade = Math.min(SHADES - 1, Math.max(0, (lifetime[i] - life[i]) * SHADES / Math.max(1, lifetime[i])));
+                int key = Math.min(premultiplied.length - 1, color[i] * SHADES + shade);
+                int source = premultiplied[key];
+                int keep = keptAlpha[key];
+                for (int row = top; row < bottom; row++) {
+                    int offset = row * width;
+                    for (int column = left; column < right; column++) {
+                        int destination = pixels[offset + column];
+                        int redBlue = ((destination & 0xFF00FF) * keep >>> 8) & 0xFF00FF;
+                        int green = ((destination & 0x00FF00) * keep >>> 8) & 0x00FF00;
+                        pixels[offset + column] = source + redBlue + green;
+                    }
+                }
+            }
+            raster.setDataElements(areaLeft, areaTop + bandTop, width, bandHeight, pixels);
+            first = last;
+        }
+    }
+
+    // NOTE: Band of the particle's top row within the area, -1 when the particle misses the area's rows
+    private int band(int i, double scale, int areaTop, int height, int size) {
+        int top = (int) (y[i] * scale) - areaTop;
+        if (top >= height || top + size <= 0) {
+            return -1;
+        }
+        return Math.max(0, top) / BAND_ROWS;
+    }
+
+    /**
+     *
+     * @return area covered by the live particles after the last update and the bursts since, empty if there are none
+     */
+    public Rectangle getBounds() {
+        return bounds;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     *
+     * @return particles left out of bursts because the pool was full
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    public void clear() {
+        count = 0;
+        bounds.setBounds(0, 0, 0, 0);
+    }
+
+    // NOTE: xorshift, the bursts need no better randomness and must not allocate
+    private float nextFloat() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        return (seed >>> 40) / (float) (1 << 24);
+    }
+}
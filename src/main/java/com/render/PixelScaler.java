@@ -0,0 +1,203 @@
+package com.render;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Low-resolution render target for the pixel-art look. A scene laid out in
+ * logical coordinates (the 1600x900 window) is drawn into a 320x180 or
+ * 640x360 buffer and presented with a whole-number nearest-neighbour scale,
+ * centred with black bars if the view is not an exact multiple.
+ * <p>
+ * The internal size is picked from the view's size in device pixels, so the
+ * HiDPI transform is taken into account: the candidate that fills most of the
+ * view wins, the sharper one on a tie. 1600x900 at 100% gets 320x180 times 5,
+ * 1920x1080 or 1600x900 at 200% get 640x360 times 3 or 5.
+ */
+public class PixelScaler {
+    private static final int[][] TARGETS = {{640, 360}, {320, 180}};
+    private static final AffineTransform IDENTITY = new AffineTransform();
+
+    // NOTE: Both internal sizes use the 320X180 slices, at 640x360 they are simply doubled
+    public static final String ASSET_RESOLUTION = "320X180";
+
+    private final int logicalWidth;
+    private final int logicalHeight;
+
+    private BufferedImage buffer;
+    private Graphics2D graphics;
+    private int scale;
+    private int deviceWidth;
+    private int deviceHeight;
+    private double deviceScaleX;
+    private double deviceScaleY;
+    private int offsetX;
+    private int offsetY;
+    // Inverse of the logical transform, replaced whole so the event thread can map mouse points
+    private volatile AffineTransform viewToLogical = new AffineTransform();
+
+    public PixelScaler(int logicalWidth, int logicalHeight) {
+        this.logicalWidth = logicalWidth;
+        this.logicalHeight = logicalHeight;
+    }
+
+    /**
+     *
+     * @return true if the low-resolution mode is requested with -Dslime.lowRes=true
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean("slime.lowRes");
+    }
+
+    /**
+     * Picks the internal size and scale for the view, reallocating the buffer when they change
+     * @param viewWidth view width in user space
+     * @param viewHeight view height in user space
+     * @param deviceTransform the view's default transform, carries the HiDPI scale
+     * @return true if the internal size changed and everything has to be redrawn
+     */
+    public boolean update(int viewWidth, int viewHeight, AffineTransform deviceTransform) {
+        int width = (int) Math.round(viewWidth * deviceTransform.getScaleX());
+        int height = (int) Math.round(viewHeight * deviceTransform.getScaleY());
+        if (buffer != null && width == deviceWidth && height == deviceHeight) {
+            return false;
+        }
+        deviceWidth = width;
+        deviceHeight = height;
+        deviceScaleX = deviceTransform.getScaleX();
+        deviceScaleY = deviceTransform.getScaleY();
+
+        int bestWidth = TARGETS[TARGETS.length - 1][0];
+        int bestHeight = TARGETS[TARGETS.length - 1][1];
+        int bestScale = 1;
+        long bestArea = -1;
+        for (int[] target : TARGETS) {
+            int s = Math.max(1, Math.min(width / target[0], height / target[1]));
+            long area = (long) target[0] * s * target[1] * s;
+            if (area > bestArea) {
+                bestArea = area;
+                bestWidth = target[0];
+                bestHeight = target[1];
+                bestScale = s;
+            }
+        }
+        scale = bestScale;
+        offsetX = (width - bestWidth * scale) / 2;
+        offsetY = (height - bestHeight * scale) / 2;
+
+        AffineTransform logicalToView = new AffineTransform();
+        logicalToView.translate(offsetX / deviceScaleX, offsetY / deviceScaleY);
+        logicalToView.scale(bestWidth * scale / (logicalWidth * deviceScaleX), bestHeight * scale / (logicalHeight * deviceScaleY));
+        try {
+            viewToLogical = logicalToView.createInverse();
+        } catch (NoninvertibleTransformException e) {
+            System.err.println("Cannot map the view back to logical coordinates: " + e.getMessage());
+        }
+
+        boolean resized = buffer == null || buffer.getWidth() != bestWidth || buffer.getHeight() != bestHeight;
+        if (resized) {
+            if (graphics != null) {
+                graphics.dispose();
+            }
+            buffer = new BufferedImage(bestWidth, bestHeight, BufferedImage.TYPE_INT_RGB);
+            graphics = buffer.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        }
+        return resized;
+    }
+
+    /**
+     * Gets the buffer's graphics with the transform reset to internal pixels
+     * @return graphics owned by the scaler, do not dispose
+     */
+    public Graphics2D getGraphics() {
+        graphics.setTransform(IDENTITY);
+        graphics.setClip(null);
+        return graphics;
+    }
+
+    /**
+     * Switches the buffer's graphics to logical coordinates, scaled down to internal pixels
+     */
+    public void useLogicalCoordinates() {
+        graphics.setTransform(IDENTITY);
+        graphics.scale((double) buffer.getWidth() / logicalWidth, (double) buffer.getHeight() / logicalHeight);
+    }
+
+    /**
+     * Converts a logical length to internal pixels, e.g. to pre-scale sprites
+     */
+    public int toInternal(int logical) {
+        return Math.max(1, logical * buffer.getWidth() / logicalWidth);
+    }
+
+    /**
+     * Blits the buffer to the view in device pixels with the integer scale
+     * @param g the view's graphics, its transform is restored afterwards
+     */
+    public void present(Graphics2D g) {
+        AffineTransform saved = g.getTransform();
+        Object interpolation = g.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+        try {
+            // Undo the HiDPI scale so one buffer pixel is exactly scale x scale device pixels
+            g.setTransform(IDENTITY);
+            g.translate(saved.getTranslateX(), saved.getTranslateY());
+            if (offsetX > 0 || offsetY > 0) {
+                g.setColor(Color.BLACK);
+                g.fillRect(0, 0, deviceWidth, deviceHeight);
+            }
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            g.drawImage(buffer, offsetX, offsetY, buffer.getWidth() * scale, buffer.getHeight() * scale, null);
+        } finally {
+            g.setTransform(saved);
+            if (interpolation != null) {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+            }
+        }
+    }
+
+    /**
+     * Maps logical coordinates onto the presented area of the view, for
+     * drawing overlays such as text at full resolution on top of the buffer
+     * @param g the view's graphics
+     */
+    public void applyLogicalTransform(Graphics2D g) {
+        g.translate(offsetX / deviceScaleX, offsetY / deviceScaleY);
+        g.scale(buffer.getWidth() * scale / (logicalWidth * deviceScaleX),
+            buffer.getHeight() * scale / (logicalHeight * deviceScaleY));
+    }
+
+    /**
+     * Maps a point of the view back to logical coordinates, e.g. a mouse
+     * position. Safe to call from any thread.
+     * @param point view coordinates, replaced by the logical ones
+     */
+    public void toLogical(Point2D point) {
+        viewToLogical.transform(point, point);
+    }
+
+    /**
+     *
+     * @return the low-resolution frame, redrawn whole every frame
+     */
+    public BufferedImage getBuffer() {
+        return buffer;
+    }
+
+    public int getInternalWidth() {
+        return buffer == null ? 0 : buffer.getWidth();
+    }
+
+    public int getInternalHeight() {
+        return buffer == null ? 0 : buffer.getHeight();
+    }
+
+    public int getScale() {
+        return scale;
+    }
+}
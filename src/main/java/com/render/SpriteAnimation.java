@@ -0,0 +1,141 @@
+package com.render;
+
+import com.asset.AssetCache;
+import com.asset.SpriteAtlas;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The idle, attack and die clips of one kind of slime, shared by every slime
+ * of that kind. The frames of all clips are numbered together as sprites, and
+ * each clip's frame rate is turned into a table from ticks since the clip
+ * started to the sprite on screen, so a {@link SpriteAnimator} advances with
+ * one array read and never allocates.
+ * <p>
+ * Frames are listed from the {@link SpriteAtlas} by directory:
+ * {@code <root>/idle} loops, {@code <root>/run} plays once per attack and
+ * {@code <root>/die} plays once and holds its last frame.
+ */
+public class SpriteAnimation {
+    public static final int IDLE = 0;
+    public static final int ATTACK = 1;
+    public static final int DIE = 2;
+
+    static final int IDLE_FPS = 6;
+    // NOTE: Six run frames in the 300 ms the attack arc is shown for
+    static final int ATTACK_FPS = 20;
+    static final int DIE_FPS = 10;
+
+    private static final String[] DIRECTORIES = {"idle", "run", "die"};
+
+    private final String[] spritePaths;
+    private final int[] firstSprite;
+    private final int[][] spriteAtTick;
+
+    /**
+     *
+     * @param root resource directory of the slime, e.g. /images/player
+     * @param tickRate ticks per second the animation is advanced at
+     */
+    public SpriteAnimation(String root, int tickRate) {
+        this(root, tickRate, new int[] {IDLE_FPS, ATTACK_FPS, DIE_FPS});
+    }
+
+    /**
+     *
+     * @param framesPerSecond rate of each clip, indexed by IDLE, ATTACK and DIE
+     */
+    SpriteAnimation(String root, int tickRate, int[] framesPerSecond) {
+        SpriteAtlas atlas = SpriteAtlas.getDefault();
+        List<String> paths = new ArrayList<>();
+        this.firstSprite = new int[DIRECTORIES.length];
+        this.spriteAtTick = new int[DIRECTORIES.length][];
+        for (int state = 0; state < DIRECTORIES.length; state++) {
+            firstSprite[state] = paths.size();
+            for (int index : atlas.getAnimation(root + "/" + DIRECTORIES[state])) {
+                paths.add(atlas.getFrameName(index));
+            }
+            if (paths.size() == firstSprite[state]) {
+                // NOTE: Without the atlas only the first idle frame is known by name, every clip shows it
+                paths.add(root + "/idle/idle_00.png");
+            }
+            int frames = paths.size() - firstSprite[state];
+            spriteAtTick[state] = timingTable(firstSprite[state], frames, framesPerSecond[state], tickRate, state == IDLE);
+        }
+        this.spritePaths = paths.toArray(new String[0]);
+    }
+
+    /**
+     * Precomputes which frame shows at each tick of a clip. A looping clip's
+     * table covers the ticks until frame and tick line up again, a one-shot
+     * clip's covers it once.
+     */
+    private static int[] timingTable(int first, int frames, int fps, int tickRate, boolean loops) {
+        long cycle = (long) frames * tickRate;
+        int length = (int) (loops ? cycle / gcd(cycle, fps) : (cycle + fps - 1) / fps);
+        int[] table = new int[length];
+        for (int tick = 0; tick < length; tick++) {
+            int frame = (int) ((long) tick * fps / tickRate);
+            table[tick] = first + (loops ? frame % frames : Math.min(frame, frames - 1));
+        }
+        return table;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long rest = a % b;
+            a = b;
+            b = rest;
+        }
+        return a;
+    }
+
+    /**
+     *
+     * @param state IDLE, ATTACK or DIE
+     * @param ticks ticks since the clip started
+     * @return the sprite on screen, a looping clip wraps and a one-shot clip holds its last frame
+     */
+    public int spriteAt(int state, long ticks) {
+        int[] table = spriteAtTick[state];
+        if (state == IDLE) {
+            return table[(int) (ticks % table.length)];
+        }
+        return table[(int) Math.min(ticks, table.length - 1)];
+    }
+
+    /**
+     *
+     * @return ticks a clip takes to play once, or one loop of it
+     */
+    public int getDurationTicks(int state) {
+        return spriteAtTick[state].length;
+    }
+
+    public int getSpriteCount() {
+        return spritePaths.length;
+    }
+
+    /**
+     *
+     * @return resource path of every frame a clip of this slime can show
+     */
+    public List<String> getSpritePaths() {
+        return Arrays.asList(spritePaths.clone());
+    }
+
+    /**
+     * Takes every sprite from the shared cache at the size it is drawn at, for painting by sprite number
+     * @return the sprites, null where a frame could not be loaded
+     */
+    public BufferedImage[] loadSprites(int width, int height) {
+        AssetCache assets = AssetCache.getInstance();
+        BufferedImage[] sprites = new BufferedImage[spritePaths.length];
+        for (int i = 0; i < sprites.length; i++) {
+            sprites[i] = assets.getScaled(spritePaths[i], width, height);
+        }
+        return sprites;
+    }
+}
@@ -0,0 +1,102 @@
+package com.render;
+
+/**
+ * Animation state of one slime, a few primitive fields stepped on the game
+ * loop's tick. Idle loops until an attack plays the attack clip once and
+ * returns to idle, a new attack restarts it. Dying plays the die clip and
+ * holds its last frame until {@link #reset}.
+ * <p>
+ * Only the loop thread changes the state. Starting a clip or resetting only
+ * changes the state, the sprite follows on the next {@link #advance}, which
+ * reports it like any other frame change. The sprite on screen is a single
+ * int, so a paint on another thread always reads a whole frame number.
+ */
+public class SpriteAnimator {
+    private final SpriteAnimation animation;
+    private final int phaseTicks;
+    private int state;
+    private long stateTick;
+    private long idleTick;
+    private volatile int sprite;
+
+    /**
+     *
+     * @param animation clips of the slime's kind
+     * @param phaseTicks how far into its idle loop the slime starts, so slimes side by side do not bob in step
+     */
+    public SpriteAnimator(SpriteAnimation animation, int phaseTicks) {
+        this.animation = animation;
+        this.phaseTicks = phaseTicks;
+        reset(0);
+        this.sprite = animation.spriteAt(state, phaseTicks);
+    }
+
+    /**
+     * Back to idle, alive again, shown from the next advance
+     */
+    public void reset(long tick) {
+        state = SpriteAnimation.IDLE;
+        idleTick = tick - phaseTicks;
+        stateTick = idleTick;
+    }
+
+    /**
+     * Starts the attack clip over, unless the slime is dying
+     */
+    public void attack(long tick) {
+        if (state != SpriteAnimation.DIE) {
+            start(SpriteAnimation.ATTACK, tick);
+        }
+    }
+
+    /**
+     * Starts the die clip, once
+     */
+    public void die(long tick) {
+        if (state != SpriteAnimation.DIE) {
+            start(SpriteAnimation.DIE, tick);
+        }
+    }
+
+    // NOTE: The sprite is left to advance, so the clip's first frame is reported as a change
+    private void start(int next, long tick) {
+        state = next;
+        stateTick = tick;
+    }
+
+    /**
+     * Moves the clip to the tick
+     * @return true if a different sprite is now on screen
+     */
+    public boolean advance(long tick) {
+        long elapsed = tick - stateTick;
+        if (state == SpriteAnimation.ATTACK && elapsed >= animation.getDurationTicks(SpriteAnimation.ATTACK)) {
+            // The idle loop picks up where it would have been had the attack not interrupted it
+            state = SpriteAnimation.IDLE;
+            stateTick = idleTick;
+            elapsed = tick - stateTick;
+        }
+        int next = animation.spriteAt(state, Math.max(0, elapsed));
+        if (next == sprite) {
+            return false;
+        }
+        sprite = next;
+        return true;
+    }
+
+    /**
+     *
+     * @return IDLE, ATTACK or DIE
+     */
+    public int getState() {
+        return state;
+    }
+
+    /**
+     *
+     * @return the sprite on screen, an index into the animation's sprites
+     */
+    public int getSprite() {
+        return sprite;
+    }
+}
@@ -0,0 +1,155 @@
+package com.save;
+
+import com.battle.Replay;
+import com.player.PlayerSlime;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves progression in the background. Callers on the EDT take a
+ * {@link Progress} snapshot, which costs a few field reads, and the save
+ * thread appends it to the {@link SaveFile} and waits for the disk. Saves are
+ * written in the order they were requested.
+ * <p>
+ * If the save cannot be loaded (unreadable, corrupt or from a newer version)
+ * the game starts fresh and autosave stays off, so the old file is left
+ * untouched for the player to recover.
+ */
+public class AutoSave {
+    private final ExecutorService executor;
+    private final SaveFile file;
+    private final Path replayPath;
+
+    /**
+     * Loads the save in a directory on the calling thread, which takes milliseconds even with a long history
+     * @param directory where the save lives, see {@link #defaultDirectory()}
+     */
+    public AutoSave(Path directory) {
+        SaveFile opened = null;
+        try {
+            opened = SaveFile.open(directory);
+        } catch (IOException e) {
+            System.err.println("Could not load save, progress will not be saved: " + e.getMessage());
+        }
+        this.file = opened;
+        this.replayPath = directory.resolve("replays")
+            .resolve(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".replay");
+        this.executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     *
+     * @return the directory set with -Dslime.saveDir, or .slime_domination in the home directory
+     */
+    public static Path defaultDirectory() {
+        String configured = System.getProperty("slime.saveDir");
+        if (configured != null && !configured.isEmpty()) {
+            return Paths.get(configured);
+        }
+        return Paths.get(System.getProperty("user.home"), ".slime_domination");
+    }
+
+    /**
+     *
+     * @return the saved slime with full health, or a new one if there is no save
+     */
+    public PlayerSlime loadPlayer() {
+        Progress progress = file == null ? null : file.getProgress();
+        return progress == null ? new PlayerSlime() : progress.restore();
+    }
+
+    /**
+     *
+     * @return when the player was last seen before this session, their last save or exit, in epoch milliseconds, 0 if there is no save
+     */
+    public long getLastSeenMillis() {
+        return file == null || file.getProgress() == null ? 0 : file.getLastSeenMillis();
+    }
+
+    public boolean isEnabled() {
+        return file != null;
+    }
+
+    /**
+     * Saves the slime after an upgrade, call it on the thread that changed the slime
+     */
+    public void progressChanged(PlayerSlime player) {
+        if (file == null) {
+            return;
+        }
+        Progress progress = Progress.capture(player);
+        executor.execute(() -> {
+            try {
+                file.recordProgress(progress);
+            } catch (IOException e) {
+                System.err.println("Autosave failed: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Saves the slime and the outcome after a round ends
+     * @param level level of the enemy fought
+     * @param won true if the player won
+     * @param reward skill points earned
+     */
+    public void roundFinished(PlayerSlime player, int level, boolean won, int reward) {
+        if (file == null) {
+            return;
+        }
+        Progress progress = Progress.capture(player);
+        executor.execute(() -> {
+            try {
+                file.recordRound(progress, level, won, reward);
+            } catch (IOException e) {
+                System.err.println("Autosave failed: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Rewrites this session's replay, one file per session under {@code replays/} in the save directory.
+     * Replays are kept even when autosave is off, they never touch the save itself.
+     * @param replay everything recorded so far, see {@link com.battle.ReplayRecorder#snapshot()}
+     */
+    public void saveReplay(Replay replay) {
+        executor.execute(() -> {
+            try {
+                Files.createDirectories(replayPath.getParent());
+                replay.write(replayPath);
+            } catch (IOException e) {
+                System.err.println("Could not save replay: " + e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * Writes everything still queued, checkpoints with the time the player left and stops the save thread
+     * @param timeoutMillis how long to wait for the disk
+     * @return true if the save finished in time
+     */
+    public boolean close(long timeoutMillis) throws InterruptedException {
+        if (file != null) {
+            executor.execute(() -> {
+                try {
+                    file.close();
+                } catch (IOException e) {
+                    System.err.println("Could not write save checkpoint: " + e.getMessage());
+                }
+            });
+        }
+        executor.shutdown();
+        return executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,67 @@
+package com.save;
+
+import com.player.PlayerSlime;
+
+/**
+ * Immutable copy of everything about the player's slime that outlives the
+ * process. It is taken on the EDT and handed to the save thread, which never
+ * touches the live {@link PlayerSlime}.
+ */
+public final class Progress {
+    private final int skillPoints;
+    private final int roundsWon;
+    private final int maxHealth;
+    private final double damage;
+    private final double attackSpeed;
+
+    public Progress(int skillPoints, int roundsWon, int maxHealth, double damage, double attackSpeed) {
+        this.skillPoints = skillPoints;
+        this.roundsWon = roundsWon;
+        this.maxHealth = maxHealth;
+        this.damage = damage;
+        this.attackSpeed = attackSpeed;
+    }
+
+    /**
+     *
+     * @return the slime's current progression
+     */
+    public static Progress capture(PlayerSlime player) {
+        return new Progress(player.getSkillPoints(), player.getRoundsWon(), player.getMaxHealth(),
+            player.getDamege(), player.getAttackSpeed());
+    }
+
+    /**
+     * Builds a slime with this progression and full health
+     */
+    public PlayerSlime restore() {
+        PlayerSlime player = new PlayerSlime();
+        player.setMaxHealth(maxHealth);
+        player.setHealth(maxHealth);
+        player.setDamege(damage);
+        player.setAttackSpeed(attackSpeed);
+        player.addSkillPoints(skillPoints);
+        player.setRoundsWon(roundsWon);
+        return player;
+    }
+
+    public int getSkillPoints() {
+        return skillPoints;
+    }
+
+    public int getRoundsWon() {
+        return roundsWon;
+    }
+
+    public int getMaxHealth() {
+        return maxHealth;
+    }
+
+    public double getDamage() {
+        return damage;
+    }
+
+    public double getAttackSpeed() {
+        return attackSpeed;
+    }
+}
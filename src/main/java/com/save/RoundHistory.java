@@ -0,0 +1,64 @@
+package com.save;
+
+import java.util.Arrays;
+
+/**
+ * Every round played, in order, kept in primitive arrays so a save with
+ * thousands of rounds is a few flat arrays rather than thousands of objects.
+ * Only the save thread appends to it.
+ */
+public class RoundHistory {
+    private int[] level;
+    private int[] reward;
+    private boolean[] won;
+    private int size;
+
+    public RoundHistory() {
+        this(16);
+    }
+
+    RoundHistory(int capacity) {
+        int initial = Math.max(1, capacity);
+        this.level = new int[initial];
+        this.reward = new int[initial];
+        this.won = new boolean[initial];
+    }
+
+    void add(int roundLevel, boolean roundWon, int roundReward) {
+        if (size == level.length) {
+            int grown = size * 2;
+            level = Arrays.copyOf(level, grown);
+            reward = Arrays.copyOf(reward, grown);
+            won = Arrays.copyOf(won, grown);
+        }
+        level[size] = roundLevel;
+        reward[size] = roundReward;
+        won[size] = roundWon;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     *
+     * @param index 0 for the first round ever played
+     * @return level of the enemy fought
+     */
+    public int getLevel(int index) {
+        return level[index];
+    }
+
+    /**
+     *
+     * @return skill points earned in the round, 0 for a defeat
+     */
+    public int getReward(int index) {
+        return reward[index];
+    }
+
+    public boolean isWon(int index) {
+        return won[index];
+    }
+}
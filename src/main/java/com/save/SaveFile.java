@@ -0,0 +1,404 @@
+package com.save;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Crash-safe save of the player's progression, made of two files in one
+ * directory.
+ * <p>
+ * {@code save.journal} is append-only. Every autosave adds one record and
+ * forces it to disk before the next one starts, so a crash loses at most the
+ * record being written. Each record carries a sequence number and a CRC32;
+ * on load the journal is read up to the first torn or corrupt record and
+ * truncated there. A journal whose header is not recognised is moved aside to
+ * {@code save.journal.unreadable-<millis>} and a new one is started.
+ * <p>
+ * {@code save.dat} is the checkpoint: the latest progress plus the whole
+ * round history. It is written to {@code save.dat.tmp}, forced, and renamed
+ * over the old one atomically, so it is always either the old or the new
+ * checkpoint, and the directory is forced so the rename is on disk. Only
+ * then is the journal emptied. A file system that cannot rename atomically
+ * gets no checkpoint, the error is reported and every record stays in the
+ * journal. Records at or below the checkpoint's sequence number are skipped
+ * on load, which covers a crash between the rename and the truncation. A
+ * checkpoint is written every {@link #CHECKPOINT_INTERVAL} records and on
+ * close.
+ * <p>
+ * Every record and checkpoint carries the time it was written, so the save
+ * knows when the player was last seen. Closing always writes a checkpoint,
+ * which stamps the time the game was quit even when nothing changed.
+ * <p>
+ * All numbers are big-endian. Both files start with a magic number and the
+ * format {@link #VERSION}; a save from a newer version is refused rather
+ * than overwritten. Format 1 had no times, its files' modified times stand
+ * in for them and the journal is rewritten in the current format on load.
+ * Not thread-safe, {@link AutoSave} keeps it on one thread.
+ */
+public class SaveFile {
+    public static final int VERSION = 2;
+    public static final int CHECKPOINT_INTERVAL = 256;
+
+    static final String CHECKPOINT_NAME = "save.dat";
+    static final String JOURNAL_NAME = "save.journal";
+    private static final int CHECKPOINT_MAGIC = 0x534C5356; // "SLSV"
+    private static final int JOURNAL_MAGIC = 0x534C4A4E; // "SLJN"
+    private static final int HEADER_SIZE = 8;
+
+    private static final byte RECORD_PROGRESS = 1;
+    private static final byte RECORD_ROUND = 2;
+    private static final int PROGRESS_SIZE = 4 + 4 + 4 + 8 + 8;
+    // NOTE: Record -> length, then sequence, type, time written (from format 2), progress (+ level, won, reward), then CRC32
+    private static final int MAX_RECORD_BODY = 8 + 1 + 8 + PROGRESS_SIZE + 4 + 1 + 4;
+
+    private final Path checkpointPath;
+    private final Path checkpointTemp;
+    private final Path journalPath;
+    private final RoundHistory history;
+    private final ByteBuffer record;
+    private final CRC32 crc;
+    private FileChannel journal;
+    private Progress progress;
+    private long sequence;
+    private int journalRecords;
+    private long lastSeenMillis;
+
+    private SaveFile(Path directory) {
+        this.checkpointPath = directory.resolve(CHECKPOINT_NAME);
+        this.checkpointTemp = directory.resolve(CHECKPOINT_NAME + ".tmp");
+        this.journalPath = directory.resolve(JOURNAL_NAME);
+        this.history = new RoundHistory();
+        this.record = ByteBuffer.allocate(4 + MAX_RECORD_BODY + 4);
+        this.crc = new CRC32();
+    }
+
+    /**
+     * Loads the save in a directory, creating the directory and an empty journal if needed
+     * @param directory where the save lives
+     * @return the open save, ready to record
+     * @throws IOException if the files cannot be read or written, or the checkpoint is corrupt or from a newer version
+     */
+    public static SaveFile open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        SaveFile save = new SaveFile(directory);
+        long checkpointSequence = save.readCheckpoint();
+        save.openJournal(checkpointSequence);
+        return save;
+    }
+
+    /**
+     *
+     * @return the latest saved progression, or null if nothing was ever saved
+     */
+    public Progress getProgress() {
+        return progress;
+    }
+
+    /**
+     *
+     * @return when the player was last seen, the time of the last save or exit before the save was opened, in epoch milliseconds, 0 for a new save
+     */
+    public long getLastSeenMillis() {
+        return lastSeenMillis;
+    }
+
+    public RoundHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Appends a progression change, such as an upgrade
+     */
+    public void recordProgress(Progress next) throws IOException {
+        beginRecord(RECORD_PROGRESS);
+        putProgress(record, next);
+        endRecord();
+        progress = next;
+        checkpointIfDue();
+    }
+
+    /**
+     * Appends a finished round and the progression after it
+     */
+    public void recordRound(Progress next, int level, boolean won, int reward) throws IOException {
+        beginRecord(RECORD_ROUND);
+        putProgress(record, next);
+        record.putInt(level).put((byte) (won ? 1 : 0)).putInt(reward);
+        endRecord();
+        progress = next;
+        history.add(level, won, reward);
+        checkpointIfDue();
+    }
+
+    /**
+     * Writes the checkpoint and empties the journal
+     */
+    public void checkpoint() throws IOException {
+        if (progress == null) {
+            return;
+        }
+        ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + 8 + 8 + PROGRESS_SIZE + 4 + history.size() * 10 + 4);
+        out.putInt(CHECKPOINT_MAGIC).putShort((short) VERSION).putShort((short) 0);
+        out.putLong(sequence).putLong(System.currentTimeMillis());
+        putProgress(out, progress);
+        out.putInt(history.size());
+        for (int i = 0; i < history.size(); i++) {
+            // NOTE: Levels and rewards are small, varints keep a round at two or three bytes
+            putVarint(out, history.getLevel(i) << 1 | (history.isWon(i) ? 1 : 0));
+            putVarint(out, history.getReward(i));
+        }
+        crc.reset();
+        crc.update(out.array(), 0, out.position());
+        out.putInt((int) crc.getValue());
+        out.flip();
+
+        try (FileChannel channel = FileChannel.open(checkpointTemp,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(checkpointTemp, checkpointPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // NOTE: A plain move can leave no checkpoint at all, the journal keeps every record instead
+            throw new IOException("Cannot replace " + checkpointPath + " atomically, the save stays in the journal", e);
+        }
+        // The rename must be on disk before the journal is emptied, or a power cut can leave the old checkpoint and no journal
+        forceDirectory(checkpointPath.getParent());
+
+        journal.truncate(HEADER_SIZE);
+        journal.position(HEADER_SIZE);
+        journal.force(true);
+        journalRecords = 0;
+    }
+
+    /**
+     * Writes a final checkpoint, which also records when the player left, then closes the journal
+     */
+    public void close() throws IOException {
+        try {
+            checkpoint();
+        } finally {
+            journal.close();
+        }
+    }
+
+    // NOTE: Leaves the journal as it is, like a crash right after the last record; for checks and benchmarks
+    void closeWithoutCheckpoint() throws IOException {
+        journal.close();
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    private void checkpointIfDue() throws IOException {
+        if (journalRecords >= CHECKPOINT_INTERVAL) {
+            checkpoint();
+        }
+    }
+
+    private void beginRecord(byte type) {
+        record.clear();
+        record.putInt(0); // length, filled in by endRecord
+        record.putLong(sequence + 1).put(type).putLong(System.currentTimeMillis());
+    }
+
+    private void endRecord() throws IOException {
+        int bodyLength = record.position() - 4;
+        record.putInt(0, bodyLength);
+        crc.reset();
+        crc.update(record.array(), 4, bodyLength);
+        record.putInt((int) crc.getValue());
+        record.flip();
+        while (record.hasRemaining()) {
+            journal.write(record);
+        }
+        journal.force(false);
+        sequence++;
+        journalRecords++;
+    }
+
+    private static void forceDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (AccessDeniedException e) {
+            // NOTE: Windows cannot open a directory, its renames are journaled by the file system
+            if (!System.getProperty("os.name", "").startsWith("Windows")) {
+                throw e;
+            }
+        }
+    }
+
+    private static long lastModified(Path path) throws IOException {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(checkpointPath);
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        if (bytes.length < HEADER_SIZE + 8 + PROGRESS_SIZE + 8 || in.getInt() != CHECKPOINT_MAGIC) {
+            throw new IOException(checkpointPath + " is not a save file");
+        }
+        short version = checkVersion(in.getShort(), checkpointPath);
+        in.getShort();
+        crc.reset();
+        crc.update(bytes, 0, bytes.length - 4);
+        if ((int) crc.getValue() != in.getInt(bytes.length - 4)) {
+            throw new IOException(checkpointPath + " is corrupt");
+        }
+
+        long checkpointSequence = in.getLong();
+        lastSeenMillis = version >= 2 ? in.getLong() : lastModified(checkpointPath);
+        progress = getProgress(in);
+        int rounds = in.getInt();
+        for (int i = 0; i < rounds; i++) {
+            int levelAndWon = getVarint(in);
+            history.add(levelAndWon >>> 1, (levelAndWon & 1) != 0, getVarint(in));
+        }
+        sequence = checkpointSequence;
+        return checkpointSequence;
+    }
+
+    private void openJournal(long checkpointSequence) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(journalPath);
+        } catch (NoSuchFileException e) {
+            bytes = new byte[0];
+        }
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        int validEnd = 0;
+        short version = VERSION;
+        if (bytes.length >= HEADER_SIZE && in.getInt() == JOURNAL_MAGIC) {
+            version = checkVersion(in.getShort(), journalPath);
+            in.getShort();
+            validEnd = replay(in, checkpointSequence, version);
+            if (version < 2 && journalRecords > 0) {
+                lastSeenMillis = Math.max(lastSeenMillis, lastModified(journalPath));
+            }
+        } else if (bytes.length >= HEADER_SIZE) {
+            // NOTE: Not a journal this version wrote, kept aside for the player to recover instead of truncated
+            Path backup = journalPath.resolveSibling(JOURNAL_NAME + ".unreadable-" + System.currentTimeMillis());
+            Files.move(journalPath, backup);
+            System.err.println("Unreadable save journal moved to " + backup + ", starting a new one");
+        }
+
+        journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (validEnd != 0 && version < VERSION) {
+            // NOTE: Older records cannot share a file with new ones, they go into a checkpoint before the journal is restarted
+            if (journalRecords > 0) {
+                checkpoint();
+            }
+            validEnd = 0;
+        }
+        if (validEnd == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(JOURNAL_MAGIC).putShort((short) VERSION).putShort((short) 0).flip();
+            journal.truncate(0);
+            journal.write(header, 0);
+            validEnd = HEADER_SIZE;
+        } else if (validEnd < bytes.length) {
+            System.err.println("Dropped " + (bytes.length - validEnd) + " bytes of an unfinished save record");
+        }
+        // Anything past the last good record is a write cut short by a crash
+        journal.truncate(validEnd);
+        journal.position(validEnd);
+        journal.force(true);
+    }
+
+    private int replay(ByteBuffer in, long checkpointSequence, short version) {
+        int validEnd = in.position();
+        while (in.remaining() >= 4) {
+            int start = in.position();
+            int bodyLength = in.getInt();
+            if (bodyLength < 9 || bodyLength > MAX_RECORD_BODY || in.remaining() < bodyLength + 4) {
+                break;
+            }
+            crc.reset();
+            crc.update(in.array(), start + 4, bodyLength);
+            if ((int) crc.getValue() != in.getInt(start + 4 + bodyLength)) {
+                break;
+            }
+
+            long recordSequence = in.getLong();
+            byte type = in.get();
+            long writtenMillis = version >= 2 ? in.getLong() : 0;
+            Progress next = getProgress(in);
+            if (recordSequence > checkpointSequence) {
+                if (type == RECORD_ROUND) {
+                    history.add(in.getInt(), in.get() != 0, in.getInt());
+                }
+                progress = next;
+                lastSeenMillis = Math.max(lastSeenMillis, writtenMillis);
+                sequence = recordSequence;
+                journalRecords++;
+            }
+            in.position(start + 4 + bodyLength + 4);
+            validEnd = in.position();
+        }
+        return validEnd;
+    }
+
+    /**
+     *
+     * @return the version, if this one can read it
+     */
+    private static short checkVersion(short version, Path path) throws IOException {
+        if (version > VERSION) {
+            throw new IOException(path + " was saved by a newer version (format " + version + ")");
+        }
+        return version;
+    }
+
+    private static void putProgress(ByteBuffer out, Progress progress) {
+        out.putInt(progress.getSkillPoints())
+            .putInt(progress.getRoundsWon())
+            .putInt(progress.getMaxHealth())
+            .putDouble(progress.getDamage())
+            .putDouble(progress.getAttackSpeed());
+    }
+
+    private static Progress getProgress(ByteBuffer in) {
+        return new Progress(in.getInt(), in.getInt(), in.getInt(), in.getDouble(), in.getDouble());
+    }
+
+    private static void putVarint(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
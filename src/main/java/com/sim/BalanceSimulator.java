@@ -0,0 +1,176 @@
+package com.sim;
+
+import com.battle.BattleEngine;
+import com.player.EnemySlime;
+import com.player.PlayerSlime;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Command-line Monte Carlo balance simulator. Plays complete runs (fresh
+ * slime, fight enemies of rising level until the first defeat, spend skill
+ * points after every win) on a fork-join pool and reports win rate per enemy
+ * level, the median number of rounds survived and the throughput.
+ * <p>
+ * Every run draws from its own {@link SplittableRandom} seeded from the master
+ * seed and the run index, so the report is identical for any thread count.
+ * <pre>
+ * java -cp target/classes com.sim.BalanceSimulator --runs 1000000 --strategy random --jitter 5
+ * </pre>
+ */
+public class BalanceSimulator {
+    // NOTE: Runs per fork-join leaf, fixed so the split never depends on the pool size
+    private static final int CHUNK_SIZE = 4096;
+
+    private final SpendStrategy strategy;
+    private final int maxRounds;
+    private final int maxJitterMillis;
+    private final long seed;
+
+    public BalanceSimulator(SpendStrategy strategy, int maxRounds, int maxJitterMillis, long seed) {
+        this.strategy = strategy;
+        this.maxRounds = maxRounds;
+        this.maxJitterMillis = maxJitterMillis;
+        this.seed = seed;
+    }
+
+    /**
+     * Simulates a batch of runs on the given pool
+     * @param pool the fork-join pool to run on
+     * @param runs number of complete runs to play
+     * @return the merged tallies
+     */
+    public SimulationResult simulate(ForkJoinPool pool, long runs) {
+        return pool.invoke(new RunRange(0, runs));
+    }
+
+    /**
+     * Plays one complete run and adds it to the result
+     * @param runIndex index of the run, which determines its random stream
+     * @param result the tallies to add to
+     */
+    void playRun(long runIndex, SimulationResult result) {
+        SplittableRandom random = new SplittableRandom(mix(seed + runIndex));
+        PlayerSlime player = new PlayerSlime();
+
+        while (player.getRoundsWon() < maxRounds) {
+            EnemySlime enemy = new EnemySlime(player.getRoundsWon() + 1);
+            player.resetForNewRound();
+
+            boolean won = new BattleEngine(player, enemy, random, maxJitterMillis).run();
+            result.recordBattle(enemy.getLevel(), won);
+            if (!won) {
+                break;
+            }
+            player.incrementRoundsWon();
+            player.addSkillPoints(enemy.getSkillPointReward());
+            strategy.spend(player, random);
+        }
+        result.recordRun(player.getRoundsWon());
+    }
+
+    // NOTE: SplitMix64 finaliser, spreads consecutive run indices over the seed space
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private class RunRange extends RecursiveTask<SimulationResult> {
+        private final long from;
+        private final long to;
+
+        RunRange(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SimulationResult compute() {
+            if (to - from <= CHUNK_SIZE) {
+                SimulationResult result = new SimulationResult(maxRounds);
+                for (long run = from; run < to; run++) {
+                    playRun(run, result);
+                }
+                return result;
+            }
+            // Split on chunk boundaries
+            long chunks = (to - from + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            long mid = from + (chunks / 2) * CHUNK_SIZE;
+            RunRange left = new RunRange(from, mid);
+            RunRange right = new RunRange(mid, to);
+            left.fork();
+            SimulationResult result = right.compute();
+            return result.merge(left.join());
+        }
+    }
+
+    public static void main(String[] args) {
+        long runs = 1_000_000;
+        String strategyName = "random";
+        int maxRounds = 200;
+        int jitter = 0;
+        long seed = 42;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (i + 1 >= args.length) {
+                usage("Missing value for " + arg);
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "--runs":
+                    runs = Long.parseLong(value.replace("_", ""));
+                    break;
+                case "--strategy":
+                    strategyName = value;
+                    break;
+                case "--max-rounds":
+                    maxRounds = Integer.parseInt(value);
+                    break;
+                case "--jitter":
+                    jitter = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(value);
+                    break;
+                default:
+                    usage("Unknown option " + arg);
+            }
+        }
+
+        BalanceSimulator simulator = new BalanceSimulator(SpendStrategies.byName(strategyName), maxRounds, jitter, seed);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        SimulationResult result = simulator.simulate(pool, runs);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        printReport(result, strategyName, threads, seconds);
+    }
+
+    private static void printReport(SimulationResult result, String strategyName, int threads, double seconds) {
+        System.out.println("=== Balance Simulation ===");
+        System.out.println("Strategy: " + strategyName + " | Threads: " + threads);
+        System.out.printf("Runs: %d in %.2f s (%.0f runs/sec)%n", result.getRuns(), seconds, result.getRuns() / seconds);
+        System.out.println("Median rounds survived: " + result.getMedianRoundsSurvived());
+        System.out.println();
+        System.out.println("Level    Battles       Wins   Win rate");
+        for (int level = 1; level <= result.getMaxLevelReached(); level++) {
+            System.out.printf("%5d %10d %10d %9.2f%%%n",
+                level, result.getAttempts(level), result.getWins(level), result.getWinRate(level) * 100);
+        }
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: BalanceSimulator [--runs N] [--strategy hoard|health|attack|speed|balanced|planned|random|<class>]");
+        System.err.println("                        [--max-rounds N] [--jitter MS] [--seed S] [--threads N]");
+        System.exit(1);
+    }
+}
@@ -0,0 +1,337 @@
+package com.sim;
+
+import com.battle.BattleEngine;
+import com.player.EnemyStats;
+import com.player.PlayerSlime;
+import java.util.function.LongPredicate;
+
+/**
+ * Auto-battle while the game is closed, resolved in closed form instead of
+ * played. With the slime's stats fixed a round depends only on how many hits
+ * each side needs: the player wins if its killing blow lands no later than
+ * the enemy's, as {@link BattleEngine} plays it without jitter, and the round
+ * lasts until that blow plus the pause before the next one.
+ * <p>
+ * Enemies only get stronger, so the first level the slime cannot beat is
+ * found by binary search, and so is the number of rounds that fit in the time
+ * away, with the total round time summed in closed form. Catching up on a
+ * million rounds takes microseconds. Levels overridden by a curve file are
+ * stepped through one at a time, past them the curve must not weaken from
+ * one level to the next. Skill points are collected, not spent.
+ */
+public class IdleProgression {
+    public static final long DEFAULT_ROUND_GAP_MILLIS = 2000;
+    // NOTE: A year of rounds at the default gap, keeps every sum well inside a long
+    public static final int MAX_ROUNDS = 1 << 24;
+
+    private static final long NEVER = Long.MAX_VALUE;
+
+    private final EnemyStats stats;
+    private final long roundGapMillis;
+
+    /**
+     *
+     * @param stats the enemy curve to fight through
+     * @param roundGapMillis pause between two rounds, at least 1
+     */
+    public IdleProgression(EnemyStats stats, long roundGapMillis) {
+        if (roundGapMillis < 1) {
+            throw new IllegalArgumentException("Round gap must be at least 1 ms: " + roundGapMillis);
+        }
+        this.stats = stats;
+        this.roundGapMillis = roundGapMillis;
+    }
+
+    /**
+     * Works out what the slime would have cleared, without changing it
+     * @param player the slime, fighting from the level after its rounds won
+     * @param elapsedMillis time away
+     * @return the rounds cleared and points earned
+     */
+    public Result resolve(PlayerSlime player, long elapsedMillis) {
+        Fighter fighter = new Fighter(player);
+        int start = player.getRoundsWon() + 1;
+        int level = start;
+        long budget = Math.max(0, elapsedMillis);
+        long remaining = budget;
+        long points = 0;
+
+        // Levels a curve file overrides follow no formula, step through them
+        int firstFormula = stats.getFirstFormulaLevel();
+        while (level < firstFormula) {
+            if (level - start >= MAX_ROUNDS) {
+                return new Result(start, level - start, points, budget - remaining, false);
+            }
+            long length = roundMillis(fighter, level);
+            if (length == NEVER || length > remaining) {
+                return new Result(start, level - start, points, budget - remaining, length == NEVER);
+            }
+            remaining -= length;
+            points += stats.getReward(level);
+            level++;
+        }
+
+        // Past the overrides, the rounds the slime can win form one run of levels
+        int from = level;
+        long left = remaining;
+        long cap = Math.min(MAX_ROUNDS - (from - start), Integer.MAX_VALUE - 1L - from);
+        long winnable = winStreak(fighter, from, cap);
+
+        // Round lengths grow with the enemy's health, binary search the rounds that fit
+        Series series = new Series(fighter, from);
+        long rounds = lastTrue(winnable, n -> series.totalMillis(n) <= left);
+        long used = series.totalMillis(rounds);
+        boolean blocked = rounds == winnable && rounds < cap && !wins(fighter, from + (int) rounds);
+        points += series.totalReward(rounds);
+        return new Result(start, (int) (from - start + rounds), points, budget - remaining + used, blocked);
+    }
+
+    /**
+     * Resolves the time away and adds the result to the slime
+     * @return what was added
+     */
+    public Result apply(PlayerSlime player, long elapsedMillis) {
+        Result result = resolve(player, elapsedMillis);
+        player.setRoundsWon(player.getRoundsWon() + result.getRoundsCleared());
+        // NOTE: Skill points are an int, a very long absence saturates them
+        player.addSkillPoints((int) Math.min(result.getSkillPointsEarned(), Integer.MAX_VALUE - (long) player.getSkillPoints()));
+        return result;
+    }
+
+    /**
+     * Counts the rounds won in a row from a level on
+     * @param cap most rounds to count
+     * @return rounds won before the first defeat, at most cap
+     */
+    long winStreak(Fighter fighter, int start, long cap) {
+        int level = start;
+        int firstFormula = stats.getFirstFormulaLevel();
+        while (level < firstFormula && level - start < cap) {
+            if (!wins(fighter, level)) {
+                return level - start;
+            }
+            level++;
+        }
+        int from = level;
+        long rest = Math.min(cap - (from - start), Integer.MAX_VALUE - 1L - from);
+        return from - start + lastTrue(rest, n -> wins(fighter, from + (int) n - 1));
+    }
+
+    /**
+     * Checks a streak without measuring it, past the overrides only its last round needs playing
+     * @return true if the fighter wins every one of the rounds from a level on
+     */
+    boolean clears(Fighter fighter, int start, long rounds) {
+        if (rounds <= 0) {
+            return true;
+        }
+        long last = start + rounds - 1;
+        if (last >= Integer.MAX_VALUE) {
+            return false;
+        }
+        int firstFormula = stats.getFirstFormulaLevel();
+        for (int level = start; level < firstFormula && level <= last; level++) {
+            if (!wins(fighter, level)) {
+                return false;
+            }
+        }
+        return last < firstFormula || wins(fighter, (int) last);
+    }
+
+    /**
+     *
+     * @return the fighter's killing blow over the enemy's, at most 1 when the fighter wins, infinite if it cannot finish
+     */
+    double killRatio(Fighter fighter, int level) {
+        long playerKill = killTime(stats.getHealth(level), fighter.damage, fighter.interval);
+        long enemyKill = killTime(fighter.health, stats.getDamage(level), BattleEngine.attackInterval(stats.getAttackSpeed(level)));
+        return playerKill == NEVER ? Double.POSITIVE_INFINITY : (double) playerKill / enemyKill;
+    }
+
+    // NOTE: Length of a won round including the gap, NEVER if the slime loses or neither side can finish
+    private long roundMillis(Fighter fighter, int level) {
+        if (!wins(fighter, level)) {
+            return NEVER;
+        }
+        return saturatedAdd(killTime(stats.getHealth(level), fighter.damage, fighter.interval), roundGapMillis);
+    }
+
+    private boolean wins(Fighter fighter, int level) {
+        long playerKill = killTime(stats.getHealth(level), fighter.damage, fighter.interval);
+        long enemyKill = killTime(fighter.health, stats.getDamage(level), BattleEngine.attackInterval(stats.getAttackSpeed(level)));
+        // Ties go to the player, who strikes first at the same instant
+        return playerKill != NEVER && playerKill <= enemyKill;
+    }
+
+    // NOTE: Time of the blow that empties the health, the n-th attack lands at n * interval
+    private static long killTime(int health, double damage, long interval) {
+        long hits = hitsToKill(health, damage);
+        if (hits == NEVER) {
+            return NEVER;
+        }
+        return saturatedMultiply(hits, interval);
+    }
+
+    // NOTE: Health drops to (int) (health - damage) per hit, a constant loss until the last one
+    private static long hitsToKill(int health, double damage) {
+        if (health <= 0) {
+            return 0;
+        }
+        long loss = health - (int) Math.max(0, health - damage);
+        if (damage <= 0 || loss <= 0) {
+            return NEVER;
+        }
+        return (health + loss - 1) / loss;
+    }
+
+    /**
+     * Binary search over a monotone predicate, true up to some count and false after it
+     * @return the largest n in [0, max] for which the predicate holds, 0 if it holds for none
+     */
+    private static long lastTrue(long max, LongPredicate holds) {
+        long low = 0;
+        long high = max;
+        while (low < high) {
+            long mid = low + (high - low + 1) / 2;
+            if (holds.test(mid)) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Sum of floor((a * i + b) / m) for i from 0 to n - 1, in O(log m) steps
+     */
+    static long floorSum(long n, long m, long a, long b) {
+        long sum = 0;
+        while (true) {
+            if (a >= m) {
+                sum += n * (n - 1) / 2 * (a / m);
+                a %= m;
+            }
+            if (b >= m) {
+                sum += n * (b / m);
+                b %= m;
+            }
+            long yMax = a * n + b;
+            if (yMax < m) {
+                return sum;
+            }
+            n = yMax / m;
+            b = yMax % m;
+            long swap = m;
+            m = a;
+            a = swap;
+        }
+    }
+
+    private static long saturatedAdd(long x, long y) {
+        long sum = x + y;
+        return ((x ^ sum) & (y ^ sum)) < 0 ? NEVER : sum;
+    }
+
+    private static long saturatedMultiply(long x, long y) {
+        return Math.multiplyHigh(x, y) != 0 || x * y < 0 ? NEVER : x * y;
+    }
+
+    // NOTE: The slime's side of every round, its stats do not change while away
+    static final class Fighter {
+        final int health;
+        final double damage;
+        final long interval;
+
+        Fighter(PlayerSlime player) {
+            this(player.getMaxHealth(), player.getDamege(), BattleEngine.attackInterval(player));
+        }
+
+        Fighter(int health, double damage, long interval) {
+            this.health = health;
+            this.damage = damage;
+            this.interval = interval;
+        }
+    }
+
+    // NOTE: Rounds from a level on, where enemy health and reward grow by a fixed step per level
+    private final class Series {
+        private final Fighter fighter;
+        private final int first;
+        private final long healthStep;
+        private final long rewardStep;
+        private final long lossPerHit;
+
+        Series(Fighter fighter, int first) {
+            this.fighter = fighter;
+            this.first = first;
+            this.healthStep = (long) stats.getHealth(first + 1) - stats.getHealth(first);
+            this.rewardStep = (long) stats.getReward(first + 1) - stats.getReward(first);
+            this.lossPerHit = fighter.damage >= 1e15 ? (long) 1e15 : Math.max(1, (long) Math.ceil(fighter.damage));
+        }
+
+        long totalMillis(long rounds) {
+            if (rounds == 0) {
+                return 0;
+            }
+            // Hits per round are ceil(health / loss), summed as floor((health + loss - 1) / loss)
+            long hits = floorSum(rounds, lossPerHit, healthStep, stats.getHealth(first) + lossPerHit - 1);
+            return saturatedAdd(saturatedMultiply(hits, fighter.interval), rounds * roundGapMillis);
+        }
+
+        long totalReward(long rounds) {
+            return rounds * stats.getReward(first) + rewardStep * (rounds * (rounds - 1) / 2);
+        }
+    }
+
+    /**
+     * What the slime did while away
+     */
+    public static final class Result {
+        private final int startLevel;
+        private final int roundsCleared;
+        private final long skillPointsEarned;
+        private final long millisUsed;
+        private final boolean blocked;
+
+        Result(int startLevel, int roundsCleared, long skillPointsEarned, long millisUsed, boolean blocked) {
+            this.startLevel = startLevel;
+            this.roundsCleared = roundsCleared;
+            this.skillPointsEarned = skillPointsEarned;
+            this.millisUsed = millisUsed;
+            this.blocked = blocked;
+        }
+
+        /**
+         *
+         * @return level of the first enemy fought
+         */
+        public int getStartLevel() {
+            return startLevel;
+        }
+
+        public int getRoundsCleared() {
+            return roundsCleared;
+        }
+
+        public long getSkillPointsEarned() {
+            return skillPointsEarned;
+        }
+
+        /**
+         *
+         * @return time the cleared rounds took, the rest of the time away went into the next round
+         */
+        public long getMillisUsed() {
+            return millisUsed;
+        }
+
+        /**
+         *
+         * @return true if the slime stopped because it cannot beat the next enemy, false if time ran out
+         */
+        public boolean isBlocked() {
+            return blocked;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.sim;
+
+// NOTE: Mergeable tallies of a batch of simulated runs, indexed by enemy level / rounds won
+public class SimulationResult {
+    private final long[] attempts;
+    private final long[] wins;
+    private final long[] roundsSurvived;
+    private long runs;
+
+    public SimulationResult(int maxRounds) {
+        this.attempts = new long[maxRounds + 2];
+        this.wins = new long[maxRounds + 2];
+        this.roundsSurvived = new long[maxRounds + 1];
+        this.runs = 0;
+    }
+
+    void recordBattle(int level, boolean won) {
+        attempts[level]++;
+        if (won) {
+            wins[level]++;
+        }
+    }
+
+    void recordRun(int roundsWon) {
+        roundsSurvived[roundsWon]++;
+        runs++;
+    }
+
+    /**
+     * Adds another result into this one. Merging only sums counters, so the
+     * totals do not depend on how the runs were split between workers.
+     * @param other the result to add
+     * @return this result
+     */
+    public SimulationResult merge(SimulationResult other) {
+        for (int i = 0; i < attempts.length; i++) {
+            attempts[i] += other.attempts[i];
+            wins[i] += other.wins[i];
+        }
+        for (int i = 0; i < roundsSurvived.length; i++) {
+            roundsSurvived[i] += other.roundsSurvived[i];
+        }
+        runs += other.runs;
+        return this;
+    }
+
+    public long getRuns() {
+        return runs;
+    }
+
+    /**
+     *
+     * @return highest enemy level any run reached
+     */
+    public int getMaxLevelReached() {
+        for (int level = attempts.length - 1; level > 0; level--) {
+            if (attempts[level] > 0) {
+                return level;
+            }
+        }
+        return 0;
+    }
+
+    public long getAttempts(int level) {
+        return attempts[level];
+    }
+
+    public long getWins(int level) {
+        return wins[level];
+    }
+
+    /**
+     *
+     * @param level the enemy level
+     * @return fraction of battles at this level the player won, or NaN if none were fought
+     */
+    public double getWinRate(int level) {
+        return attempts[level] == 0 ? Double.NaN : (double) wins[level] / attempts[level];
+    }
+
+    /**
+     *
+     * @return median number of rounds won per run
+     */
+    public int getMedianRoundsSurvived() {
+        long half = (runs + 1) / 2;
+        long seen = 0;
+        for (int rounds = 0; rounds < roundsSurvived.length; rounds++) {
+            seen += roundsSurvived[rounds];
+            if (seen >= half) {
+                return rounds;
+            }
+        }
+        return roundsSurvived.length - 1;
+    }
+}
@@ -0,0 +1,94 @@
+package com.sim;
+
+import com.player.EnemyStats;
+import com.player.PlayerSlime;
+import com.player.Upgrade;
+import java.util.random.RandomGenerator;
+
+// NOTE: Built-in spending strategies selectable by name from the command line
+public enum SpendStrategies implements SpendStrategy {
+    /** Keep every point, the baseline of an un-upgraded slime */
+    HOARD {
+        @Override
+        public void spend(PlayerSlime player, RandomGenerator random) {
+        }
+    },
+    /** Only buy max health */
+    HEALTH {
+        @Override
+        public void spend(PlayerSlime player, RandomGenerator random) {
+            buyRepeatedly(player, Upgrade.HEALTH);
+        }
+    },
+    /** Only buy attack damage */
+    ATTACK {
+        @Override
+        public void spend(PlayerSlime player, RandomGenerator random) {
+            buyRepeatedly(player, Upgrade.ATTACK);
+        }
+    },
+    /** Only buy attack speed */
+    SPEED {
+        @Override
+        public void spend(PlayerSlime player, RandomGenerator random) {
+            buyRepeatedly(player, Upgrade.ATTACK_SPEED);
+        }
+    },
+    /** Cycle through attack, speed and health while points last */
+    BALANCED {
+        @Override
+        public void spend(PlayerSlime player, RandomGenerator random) {
+            boolean bought = true;
+            while (bought) {
+                bought = Upgrade.ATTACK.purchase(player);
+                bought |= Upgrade.ATTACK_SPEED.purchase(player);
+                bought |= Upgrade.HEALTH.purchase(player);
+            }
+        }
+    },
+    /** Buy what {@link UpgradePlanner} finds wins the most rounds in a row */
+    PLANNED {
+        @Override
+        public void spend(PlayerSlime player, RandomGenerator random) {
+            new UpgradePlanner(EnemyStats.getDefault()).plan(player).apply(player);
+        }
+    },
+    /** Buy uniformly random affordable upgrades until nothing is affordable */
+    RANDOM {
+        @Override
+        public void spend(PlayerSlime player, RandomGenerator random) {
+            Upgrade[] upgrades = Upgrade.values();
+            while (player.getSkillPoints() >= Upgrade.HEALTH.getCost()) {
+                Upgrade pick = upgrades[random.nextInt(upgrades.length)];
+                if (!pick.purchase(player) && !Upgrade.HEALTH.purchase(player)) {
+                    break;
+                }
+            }
+        }
+    };
+
+    private static void buyRepeatedly(PlayerSlime player, Upgrade upgrade) {
+        while (upgrade.purchase(player)) {
+            // keep buying
+        }
+    }
+
+    /**
+     * Resolves a strategy by built-in name or by the class name of a
+     * {@link SpendStrategy} implementation with a public no-arg constructor
+     * @param name the strategy name, case-insensitive for built-ins
+     * @return the strategy
+     */
+    public static SpendStrategy byName(String name) {
+        for (SpendStrategies strategy : values()) {
+            if (strategy.name().equalsIgnoreCase(name)) {
+                return strategy;
+            }
+        }
+        try {
+            return (SpendStrategy) Class.forName(name).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalArgumentException("Unknown spend strategy: " + name, e);
+        }
+    }
+}
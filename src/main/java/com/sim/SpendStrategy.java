@@ -0,0 +1,15 @@
+package com.sim;
+
+import com.player.PlayerSlime;
+import java.util.random.RandomGenerator;
+
+// NOTE: Strategy -> decides how a simulated player spends skill points after a win
+@FunctionalInterface
+public interface SpendStrategy {
+    /**
+     * Spends some or all of the player's skill points
+     * @param player the simulated slime, already credited with the round reward
+     * @param random per-run random source, the only randomness a strategy may use
+     */
+    void spend(PlayerSlime player, RandomGenerator random);
+}
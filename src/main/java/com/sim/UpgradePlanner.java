@@ -0,0 +1,193 @@
+package com.sim;
+
+import com.battle.BattleEngine;
+import com.player.EnemyStats;
+import com.player.PlayerSlime;
+import com.player.Upgrade;
+
+/**
+ * Finds the spend of the slime's skill points that wins the most rounds in a
+ * row against the enemy curve, as {@link BattleEngine} plays them without
+ * jitter. Every stat only helps, so the best spend leaves no point the
+ * cheapest upgrade could use, which leaves the attack and speed purchases to
+ * choose, health takes the rest. Those pairs are searched branch and bound:
+ * <ul>
+ * <li>a streak is measured in closed form by {@link IdleProgression}, a
+ * binary search over levels instead of played rounds</li>
+ * <li>a candidate that loses within the best streak so far is dropped after
+ * one analytic round, without measuring its streak</li>
+ * <li>an attack count is skipped whole if even all its remaining points on
+ * speed and on health at once, more than it can afford, cannot match the best</li>
+ * <li>a speed purchase that leaves the attack interval at the same
+ * millisecond as one fewer is dominated, it only costs health</li>
+ * </ul>
+ * Ties go to the spend closest to winning the round that ends the streak.
+ * Budgets past a few thousand points are searched on a coarser grid.
+ */
+public class UpgradePlanner {
+    // NOTE: Purchase counts tried per upgrade before the grid coarsens, keeps large budgets interactive
+    private static final int MAX_STEPS = 512;
+
+    private final IdleProgression progression;
+
+    /**
+     *
+     * @param stats the enemy curve to plan against
+     */
+    public UpgradePlanner(EnemyStats stats) {
+        this.progression = new IdleProgression(stats, IdleProgression.DEFAULT_ROUND_GAP_MILLIS);
+    }
+
+    /**
+     * Plans the spend of every skill point, without changing the slime
+     * @param player the slime, fighting from the level after its rounds won
+     * @return the purchases and the rounds they win
+     */
+    public Plan plan(PlayerSlime player) {
+        int budget = Math.max(0, player.getSkillPoints());
+        int start = player.getRoundsWon() + 1;
+        int healthCost = Upgrade.HEALTH.getCost();
+        int attackCost = Upgrade.ATTACK.getCost();
+        int speedCost = Upgrade.ATTACK_SPEED.getCost();
+        long healthAmount = (int) Upgrade.HEALTH.getAmount();
+
+        int attackStep = Math.max(1, (budget / attackCost + MAX_STEPS - 1) / MAX_STEPS);
+        int speedStep = Math.max(1, (budget / speedCost + MAX_STEPS - 1) / MAX_STEPS);
+        double[] damage = grownStat(player.getDamege(), Upgrade.ATTACK.getAmount(), budget / attackCost / attackStep, attackStep);
+        double[] speed = grownStat(player.getAttackSpeed(), Upgrade.ATTACK_SPEED.getAmount(), budget / speedCost / speedStep, speedStep);
+        long[] interval = new long[speed.length];
+        for (int i = 0; i < speed.length; i++) {
+            interval[i] = BattleEngine.attackInterval(speed[i]);
+        }
+
+        long bestRounds = -1;
+        double bestRatio = Double.POSITIVE_INFINITY;
+        int bestAttack = 0;
+        int bestSpeed = 0;
+        int bestHealth = budget / healthCost;
+        for (int a = 0; a < damage.length; a++) {
+            int attacks = a * attackStep;
+            int afterAttack = budget - attacks * attackCost;
+            int speedIndexes = afterAttack / speedCost / speedStep;
+            if (bestRounds > 0) {
+                IdleProgression.Fighter bound = fighter(player, healthAmount * (afterAttack / healthCost), damage[a], interval[speedIndexes]);
+                if (!progression.clears(bound, start, bestRounds)) {
+                    continue;
+                }
+            }
+            for (int s = 0; s <= speedIndexes; s++) {
+                if (s > 0 && interval[s] == interval[s - 1]) {
+                    continue;
+                }
+                int speeds = s * speedStep;
+                int healths = (afterAttack - speeds * speedCost) / healthCost;
+                IdleProgression.Fighter candidate = fighter(player, healthAmount * healths, damage[a], interval[s]);
+                if (bestRounds > 0 && !progression.clears(candidate, start, bestRounds)) {
+                    continue;
+                }
+                long rounds = progression.winStreak(candidate, start, IdleProgression.MAX_ROUNDS);
+                double ratio = rounds == IdleProgression.MAX_ROUNDS ? 0 : progression.killRatio(candidate, (int) (start + rounds));
+                if (rounds > bestRounds || (rounds == bestRounds && ratio < bestRatio)) {
+                    bestRounds = rounds;
+                    bestRatio = ratio;
+                    bestAttack = attacks;
+                    bestSpeed = speeds;
+                    bestHealth = healths;
+                }
+            }
+        }
+        return new Plan(bestHealth, bestAttack, bestSpeed, (int) bestRounds);
+    }
+
+    /**
+     *
+     * @return rounds in a row the slime wins as it is, from the level after its rounds won
+     */
+    public int roundsWon(PlayerSlime player) {
+        return (int) progression.winStreak(fighter(player, 0, player.getDamege(), BattleEngine.attackInterval(player)),
+            player.getRoundsWon() + 1, IdleProgression.MAX_ROUNDS);
+    }
+
+    // NOTE: The stat after each count of purchases, added one at a time like Upgrade.purchase does on the exact grid
+    private static double[] grownStat(double base, double amount, int steps, int step) {
+        double[] values = new double[steps + 1];
+        values[0] = base;
+        for (int i = 1; i <= steps; i++) {
+            values[i] = step == 1 ? values[i - 1] + amount : base + (double) i * step * amount;
+        }
+        return values;
+    }
+
+    private static IdleProgression.Fighter fighter(PlayerSlime player, long extraHealth, double damage, long interval) {
+        int health = (int) Math.min(Integer.MAX_VALUE, player.getMaxHealth() + extraHealth);
+        return new IdleProgression.Fighter(health, damage, interval);
+    }
+
+    /**
+     * Purchases of each upgrade, best bought in any order
+     */
+    public static final class Plan {
+        private final int healthUpgrades;
+        private final int attackUpgrades;
+        private final int attackSpeedUpgrades;
+        private final int roundsWon;
+
+        Plan(int healthUpgrades, int attackUpgrades, int attackSpeedUpgrades, int roundsWon) {
+            this.healthUpgrades = healthUpgrades;
+            this.attackUpgrades = attackUpgrades;
+            this.attackSpeedUpgrades = attackSpeedUpgrades;
+            this.roundsWon = roundsWon;
+        }
+
+        /**
+         *
+         * @return how many times to buy the upgrade
+         */
+        public int getPurchases(Upgrade upgrade) {
+            switch (upgrade) {
+                case HEALTH:
+                    return healthUpgrades;
+                case ATTACK:
+                    return attackUpgrades;
+                default:
+                    return attackSpeedUpgrades;
+            }
+        }
+
+        /**
+         *
+         * @return skill points the plan spends
+         */
+        public long getCost() {
+            long cost = 0;
+            for (Upgrade upgrade : Upgrade.values()) {
+                cost += (long) getPurchases(upgrade) * upgrade.getCost();
+            }
+            return cost;
+        }
+
+        /**
+         *
+         * @return rounds in a row the upgraded slime wins from its next level
+         */
+        public int getRoundsWon() {
+            return roundsWon;
+        }
+
+        /**
+         * Buys the planned upgrades
+         * @param player the slime the plan was made for
+         * @return false if it could not afford them all, what it could afford is bought
+         */
+        public boolean apply(PlayerSlime player) {
+            for (Upgrade upgrade : Upgrade.values()) {
+                for (int i = getPurchases(upgrade); i > 0; i--) {
+                    if (!upgrade.purchase(player)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+}
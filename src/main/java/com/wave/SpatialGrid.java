@@ -0,0 +1,316 @@
+package com.wave;
+
+import java.util.Arrays;
+
+/**
+ * Uniform-grid spatial index over unit positions in the play field. Each
+ * cell keeps an intrusive doubly linked list of the ids inside it, held in
+ * primitive arrays, so moving a unit only relinks it when it crosses into
+ * another cell. Nothing is allocated after construction except when the
+ * radius buffer grows to a new largest hit count.
+ * <p>
+ * {@link #nearest(float, float)} searches outward ring by ring and stops as
+ * soon as no unsearched cell can hold anything closer. Per-row and
+ * per-column counts bound the search to the occupied rectangle, so the empty
+ * ground between two armies costs nothing to cross.
+ * {@link #queryRadius(float, float, float)} collects its hits into a buffer
+ * owned by the grid, read back with {@link #getResult(int)} until the next
+ * query, or into a caller's buffer with
+ * {@link #queryRadius(float, float, float, int, int[])}. Queries only read, so
+ * several threads may query at once as long as nobody inserts, moves or
+ * removes and each of them brings its own radius buffer.
+ */
+public class SpatialGrid {
+    private static final int NONE = -1;
+
+    private final float cellSize;
+    private final int columns;
+    private final int rows;
+    private final int[] cellHead;
+    private final int[] columnCount;
+    private final int[] rowCount;
+
+    // Per-id state
+    private final float[] x;
+    private final float[] y;
+    private final int[] cellOf;
+    private final int[] next;
+    private final int[] prev;
+    private int size;
+
+    private int[] results;
+    private int resultCount;
+
+    /**
+     * Creates an empty grid over [0, width) x [0, height), positions outside are clamped to the border cells
+     * @param width play field width
+     * @param height play field height
+     * @param cellSize edge length of a cell, about the typical query radius
+     * @param capacity highest id + 1
+     */
+    public SpatialGrid(float width, float height, float cellSize, int capacity) {
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cellHead = new int[columns * rows];
+        Arrays.fill(cellHead, NONE);
+        this.columnCount = new int[columns];
+        this.rowCount = new int[rows];
+        this.x = new float[capacity];
+        this.y = new float[capacity];
+        this.cellOf = new int[capacity];
+        Arrays.fill(cellOf, NONE);
+        this.next = new int[capacity];
+        this.prev = new int[capacity];
+        this.results = new int[64];
+    }
+
+    /**
+     * Picks a cell size of about two units' share of the field, so a full field holds a few units per cell
+     * @param units number of units expected in the field
+     * @return a cell size between 8 and 64
+     */
+    public static float cellSizeFor(float width, float height, int units) {
+        float share = (float) Math.sqrt(width * height / Math.max(1, units));
+        return Math.max(8, Math.min(64, 2 * share));
+    }
+
+    public void insert(int id, float px, float py) {
+        if (cellOf[id] != NONE) {
+            move(id, px, py);
+            return;
+        }
+        x[id] = px;
+        y[id] = py;
+        link(id, cellIndex(px, py));
+        size++;
+    }
+
+    /**
+     * Updates a unit's position, relinking it only if it changed cells
+     */
+    public void move(int id, float px, float py) {
+        x[id] = px;
+        y[id] = py;
+        int cell = cellIndex(px, py);
+        if (cell != cellOf[id]) {
+            unlink(id);
+            link(id, cell);
+        }
+    }
+
+    public void remove(int id) {
+        if (cellOf[id] == NONE) {
+            return;
+        }
+        unlink(id);
+        cellOf[id] = NONE;
+        size--;
+    }
+
+    public boolean contains(int id) {
+        return cellOf[id] != NONE;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the unit closest to a point
+     * @return its id, or -1 if the grid is empty
+     */
+    public int nearest(float px, float py) {
+        return nearest(px, py, Float.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Finds the unit closest to a point within a distance, only searching the cells that distance reaches
+     * @return its id, or -1 if there is none that close
+     */
+    public int nearest(float px, float py, float maxDistance) {
+        if (size == 0) {
+            return NONE;
+        }
+        int column = clamp((int) (px / cellSize), columns);
+        int row = clamp((int) (py / cellSize), rows);
+        int minColumn = firstOccupied(columnCount, 0, 1);
+        int maxColumn = firstOccupied(columnCount, columns - 1, -1);
+        int minRow = firstOccupied(rowCount, 0, 1);
+        int maxRow = firstOccupied(rowCount, rows - 1, -1);
+        int firstRing = Math.max(Math.max(minColumn - column, column - maxColumn), Math.max(minRow - row, row - maxRow));
+        int lastRing = Math.max(Math.max(column - minColumn, maxColumn - column), Math.max(row - minRow, maxRow - row));
+        if (maxDistance < Float.POSITIVE_INFINITY) {
+            lastRing = Math.min(lastRing, (int) (maxDistance / cellSize) + 1);
+        }
+
+        int best = NONE;
+        float bestDistance = maxDistance < Float.POSITIVE_INFINITY ? maxDistance * maxDistance : Float.MAX_VALUE;
+        for (int ring = Math.max(0, firstRing); ring <= lastRing; ring++) {
+            // Every cell of this ring is at least (ring - 1) cells away from the point
+            if (best != NONE) {
+                float reach = (ring - 1) * cellSize;
+                if (reach > 0 && reach * reach > bestDistance) {
+                    break;
+                }
+            }
+            int top = row - ring;
+            int bottom = row + ring;
+            int left = column - ring;
+            int right = column + ring;
+            for (int c = Math.max(left, minColumn); c <= Math.min(right, maxColumn); c++) {
+                if (top >= minRow) {
+                    best = scanNearest(top * columns + c, px, py, best, bestDistance);
+                    bestDistance = best == NONE ? bestDistance : distance(best, px, py);
+                }
+                if (bottom <= maxRow && ring > 0) {
+                    best = scanNearest(bottom * columns + c, px, py, best, bestDistance);
+                    bestDistance = best == NONE ? bestDistance : distance(best, px, py);
+                }
+            }
+            for (int r = Math.max(top + 1, minRow); r <= Math.min(bottom - 1, maxRow); r++) {
+                if (left >= minColumn) {
+                    best = scanNearest(r * columns + left, px, py, best, bestDistance);
+                    bestDistance = best == NONE ? bestDistance : distance(best, px, py);
+                }
+                if (right <= maxColumn && ring > 0) {
+                    best = scanNearest(r * columns + right, px, py, best, bestDistance);
+                    bestDistance = best == NONE ? bestDistance : distance(best, px, py);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Collects every unit within a radius of a point into the result buffer
+     * @return number of hits, read them with getResult(0 .. n - 1)
+     */
+    public int queryRadius(float px, float py, float radius) {
+        resultCount = 0;
+        float radiusSquared = radius * radius;
+        int left = clamp((int) ((px - radius) / cellSize), columns);
+        int right = clamp((int) ((px + radius) / cellSize), columns);
+        int top = clamp((int) ((py - radius) / cellSize), rows);
+        int bottom = clamp((int) ((py + radius) / cellSize), rows);
+        for (int row = top; row <= bottom; row++) {
+            for (int column = left; column <= right; column++) {
+                for (int id = cellHead[row * columns + column]; id != NONE; id = next[id]) {
+                    if (distance(id, px, py) <= radiusSquared) {
+                        if (resultCount == results.length) {
+                            results = Arrays.copyOf(results, resultCount * 2);
+                        }
+                        results[resultCount++] = id;
+                    }
+                }
+            }
+        }
+        return resultCount;
+    }
+
+    /**
+     * Collects units within a radius of a point into a caller's buffer, stopping once it is full
+     * @param exclude id left out of the hits, such as the unit asking, or -1
+     * @param out receives the ids of the hits
+     * @return number of ids written to out
+     */
+    public int queryRadius(float px, float py, float radius, int exclude, int[] out) {
+        int found = 0;
+        float radiusSquared = radius * radius;
+        int left = clamp((int) ((px - radius) / cellSize), columns);
+        int right = clamp((int) ((px + radius) / cellSize), columns);
+        int top = clamp((int) ((py - radius) / cellSize), rows);
+        int bottom = clamp((int) ((py + radius) / cellSize), rows);
+        for (int row = top; row <= bottom; row++) {
+            for (int column = left; column <= right; column++) {
+                for (int id = cellHead[row * columns + column]; id != NONE; id = next[id]) {
+                    if (id != exclude && distance(id, px, py) <= radiusSquared) {
+                        out[found++] = id;
+                        if (found == out.length) {
+                            return found;
+                        }
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     *
+     * @param index 0 to the last query's count - 1
+     * @return id of a hit of the last radius query
+     */
+    public int getResult(int index) {
+        return results[index];
+    }
+
+    public float getX(int id) {
+        return x[id];
+    }
+
+    public float getY(int id) {
+        return y[id];
+    }
+
+    private int scanNearest(int cell, float px, float py, int best, float bestDistance) {
+        for (int id = cellHead[cell]; id != NONE; id = next[id]) {
+            float d = distance(id, px, py);
+            // Ties go to the lower id so the answer does not depend on list order
+            if (d < bestDistance || (d == bestDistance && id < best)) {
+                best = id;
+                bestDistance = d;
+            }
+        }
+        return best;
+    }
+
+    private static int firstOccupied(int[] counts, int from, int direction) {
+        int i = from;
+        while (counts[i] == 0) {
+            i += direction;
+        }
+        return i;
+    }
+
+    private float distance(int id, float px, float py) {
+        float dx = x[id] - px;
+        float dy = y[id] - py;
+        return dx * dx + dy * dy;
+    }
+
+    private int cellIndex(float px, float py) {
+        return clamp((int) (py / cellSize), rows) * columns + clamp((int) (px / cellSize), columns);
+    }
+
+    private static int clamp(int value, int count) {
+        return value < 0 ? 0 : (value >= count ? count - 1 : value);
+    }
+
+    private void link(int id, int cell) {
+        int head = cellHead[cell];
+        next[id] = head;
+        prev[id] = NONE;
+        if (head != NONE) {
+            prev[head] = id;
+        }
+        cellHead[cell] = id;
+        cellOf[id] = cell;
+        columnCount[cell % columns]++;
+        rowCount[cell / columns]++;
+    }
+
+    private void unlink(int id) {
+        int cell = cellOf[id];
+        if (prev[id] != NONE) {
+            next[prev[id]] = next[id];
+        } else {
+            cellHead[cell] = next[id];
+        }
+        if (next[id] != NONE) {
+            prev[next[id]] = prev[id];
+        }
+        columnCount[cell % columns]--;
+        rowCount[cell / columns]--;
+    }
+}
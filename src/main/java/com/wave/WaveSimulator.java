@@ -0,0 +1,100 @@
+package com.wave;
+
+import com.player.PlayerSlime;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Command-line runner that plays one wave at a fixed 60 Hz tick as fast as it
+ * can and reports the outcome and the cost of a tick against the 16.7 ms
+ * frame budget.
+ * <pre>
+ * java -cp target/classes com.wave.WaveSimulator --army 5000 --horde 5000 --level 1 --threads 1
+ * </pre>
+ */
+public class WaveSimulator {
+    private static final int TICK_RATE = 60;
+    private static final double BUDGET_MICROS = 1_000_000.0 / TICK_RATE;
+
+    public static void main(String[] args) {
+        int army = 5_000;
+        int horde = 5_000;
+        int level = 1;
+        int threads = 1;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (i + 1 >= args.length) {
+                usage("Missing value for " + arg);
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "--army":
+                    army = Integer.parseInt(value.replace("_", ""));
+                    break;
+                case "--horde":
+                    horde = Integer.parseInt(value.replace("_", ""));
+                    break;
+                case "--level":
+                    level = Integer.parseInt(value);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(value);
+                    break;
+                default:
+                    usage("Unknown option " + arg);
+            }
+        }
+
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        WaveWorld world = new WaveWorld(army + horde, pool);
+        world.spawnArmy(new PlayerSlime(), army);
+        world.spawnHorde(level, horde);
+
+        // NOTE: Tick lengths alternate 16/17 ms so 60 ticks add up to exactly one second
+        long[] tickNanos = new long[1024];
+        int ticks = 0;
+        long previousMillis = 0;
+        while (!world.isOver()) {
+            long millis = (ticks + 1) * 1000L / TICK_RATE;
+            long start = System.nanoTime();
+            world.tick(millis - previousMillis);
+            long elapsed = System.nanoTime() - start;
+            previousMillis = millis;
+            if (ticks == tickNanos.length) {
+                tickNanos = Arrays.copyOf(tickNanos, ticks * 2);
+            }
+            tickNanos[ticks++] = elapsed;
+        }
+        if (pool != null) {
+            pool.shutdown();
+        }
+
+        printReport(world, army, horde, level, threads, Arrays.copyOf(tickNanos, ticks));
+    }
+
+    private static void printReport(WaveWorld world, int army, int horde, int level, int threads, long[] tickNanos) {
+        long total = 0;
+        for (long nanos : tickNanos) {
+            total += nanos;
+        }
+        Arrays.sort(tickNanos);
+        double mean = tickNanos.length == 0 ? 0 : total / 1000.0 / tickNanos.length;
+        double p99 = tickNanos.length == 0 ? 0 : tickNanos[(int) (tickNanos.length * 0.99)] / 1000.0;
+        double max = tickNanos.length == 0 ? 0 : tickNanos[tickNanos.length - 1] / 1000.0;
+
+        System.out.println("=== Wave Simulation ===");
+        System.out.println("Army: " + army + " | Horde: " + horde + " x level " + level + " | Threads: " + threads);
+        System.out.printf("Winner: %s after %.1f s (%d ticks), %d slimes and %d enemies left%n",
+            world.isPlayerWon() ? "army" : "horde", world.getTime() / 1000.0, tickNanos.length,
+            world.getAliveCount(WaveWorld.PLAYER_TEAM), world.getAliveCount(WaveWorld.ENEMY_TEAM));
+        System.out.printf("Tick: mean %.1f us, p99 %.1f us, max %.1f us (budget %.0f us at %d Hz)%n",
+            mean, p99, max, BUDGET_MICROS, TICK_RATE);
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: WaveSimulator [--army N] [--horde N] [--level L] [--threads N]");
+        System.exit(1);
+    }
+}
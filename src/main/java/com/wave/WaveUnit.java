@@ -0,0 +1,82 @@
+package com.wave;
+
+import com.player.Player;
+
+/**
+ * Player facade over one unit of a {@link WaveWorld}. It holds no stats of
+ * its own, every getter and setter goes straight to the world's arrays, so
+ * code written against {@link Player} works on wave units unchanged.
+ */
+public class WaveUnit extends Player {
+    private final WaveWorld world;
+    private final int id;
+
+    WaveUnit(WaveWorld world, int id) {
+        super();
+        this.world = world;
+        this.id = id;
+        setName(world.team[id] == WaveWorld.PLAYER_TEAM ? "Player Slime" : "Enemy Slime");
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getTeam() {
+        return world.team[id];
+    }
+
+    public int getLevel() {
+        return world.level[id];
+    }
+
+    @Override
+    public int getHealth() {
+        return world.health[id];
+    }
+
+    @Override
+    public void setHealth(int health) {
+        world.setHealth(id, health);
+    }
+
+    @Override
+    public int getMaxHealth() {
+        return world.maxHealth[id];
+    }
+
+    @Override
+    public void setMaxHealth(int maxHealth) {
+        world.maxHealth[id] = maxHealth;
+    }
+
+    @Override
+    public double getDamege() {
+        return world.damage[id];
+    }
+
+    @Override
+    public void setDamege(double damage) {
+        world.damage[id] = damage;
+    }
+
+    @Override
+    public double getAttackSpeed() {
+        return world.attackSpeed[id];
+    }
+
+    @Override
+    public void setAttackSpeed(double attackSpeed) {
+        world.setAttackSpeed(id, attackSpeed);
+    }
+
+    @Override
+    public boolean isAlive() {
+        return world.health[id] > 0;
+    }
+
+    @Override
+    public void takeDamage(double damage) {
+        world.damage(id, damage);
+    }
+}
@@ -0,0 +1,417 @@
+package com.wave;
+
+import com.battle.PlayField;
+import com.player.EnemySlime;
+import com.player.Player;
+import com.player.PlayerSlime;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Many-versus-many battle between the player's slime army and an enemy
+ * horde. Every unit's stats live in primitive arrays indexed by entity id
+ * (struct of arrays), so a tick walks a few dense arrays instead of chasing
+ * one heap object per slime.
+ * <p>
+ * A tick has two phases. The resolve phase decides, for every unit whose
+ * attack is due, whom it hits and how often; it only writes that unit's own
+ * slots, so above {@link #PARALLEL_THRESHOLD} units it runs as parallel
+ * partitions. The apply phase then lands the hits in id order on one thread.
+ * Attacks within one tick are simultaneous and the result does not depend on
+ * the number of threads. Hits aimed at a unit that already fell earlier in
+ * the same tick are lost, like overkill damage.
+ * <p>
+ * Attack intervals are {@code 1000 / attackSpeed} milliseconds, the same as
+ * {@link com.battle.BattleEngine}. Units stand in the {@link PlayField}, the
+ * army on the left and the horde on the right. Each one runs at the nearest
+ * living enemy, found through the enemy team's {@link SpatialGrid}, and only
+ * attacks once within {@link #ATTACK_RANGE}.
+ * Targets are kept until they die, then the search starts where the fallen
+ * target stood, which finds the next enemy in line within a cell or two.
+ * Every {@link #RETARGET_TICKS} ticks, staggered by id, a unit also switches
+ * to any enemy within {@link #RETARGET_RADIUS} that is closer.
+ * <p>
+ * Teammates closer than their body spacing push each other apart, and a
+ * unit hemmed in by {@code CROWD_LIMIT} of them stops advancing, so crowds at
+ * the front keep their shape instead of collapsing onto one point. Bodies
+ * and grid cells shrink with the capacity of the world so a full field stays
+ * at a few units per cell. During resolve the grids hold the positions of
+ * the previous tick; the apply phase moves them.
+ */
+public class WaveWorld {
+    public static final int PLAYER_TEAM = 0;
+    public static final int ENEMY_TEAM = 1;
+    public static final int PARALLEL_THRESHOLD = 65_536;
+    private static final int MIN_PARTITION = 16_384;
+
+    public static final float FIELD_WIDTH = PlayField.WIDTH;
+    public static final float FIELD_HEIGHT = PlayField.HEIGHT;
+    public static final float ATTACK_RANGE = 40;
+    public static final float MOVE_SPEED = 120;
+    public static final int RETARGET_TICKS = 30;
+    public static final float RETARGET_RADIUS = 2 * ATTACK_RANGE;
+    public static final float MAX_BODY_SPACING = 8;
+    private static final int MAX_NEIGHBOURS = 16;
+    private static final int CROWD_LIMIT = 4;
+    private static final float SPAWN_DEPTH = 400;
+
+    // NOTE: Struct of arrays -> one slot per entity id
+    final int[] health;
+    final int[] maxHealth;
+    final double[] damage;
+    final double[] attackSpeed;
+    final int[] level;
+    final long[] nextAttack;
+    final byte[] team;
+    final float[] x;
+    final float[] y;
+    private final long[] attackInterval;
+    private final int[] target;
+
+    // Resolve-phase output, one slot per attacker
+    private final int[] targetOf;
+    private final int[] hitCount;
+
+    // Living units per team
+    private final SpatialGrid[] grids;
+    private final int[] aliveCount;
+
+    // Radius query buffer of each resolving thread
+    private final ThreadLocal<int[]> neighbours = ThreadLocal.withInitial(() -> new int[MAX_NEIGHBOURS]);
+
+    private final float bodySpacing;
+    private final ForkJoinPool pool;
+    private int count;
+    private long time;
+    private long ticks;
+
+    /**
+     * Creates an empty world
+     * @param capacity maximum number of units of both teams together
+     * @param pool pool for parallel ticks above the threshold, or null to always tick on the caller
+     */
+    public WaveWorld(int capacity, ForkJoinPool pool) {
+        this.health = new int[capacity];
+        this.maxHealth = new int[capacity];
+        this.damage = new double[capacity];
+        this.attackSpeed = new double[capacity];
+        this.level = new int[capacity];
+        this.nextAttack = new long[capacity];
+        this.team = new byte[capacity];
+        this.x = new float[capacity];
+        this.y = new float[capacity];
+        this.attackInterval = new long[capacity];
+        this.target = new int[capacity];
+        this.targetOf = new int[capacity];
+        this.hitCount = new int[capacity];
+        // NOTE: Bodies of half a unit's share of the field
+        float cellSize = SpatialGrid.cellSizeFor(FIELD_WIDTH, FIELD_HEIGHT, capacity);
+        this.bodySpacing = Math.min(MAX_BODY_SPACING, cellSize / 4);
+        this.grids = new SpatialGrid[] {
+            new SpatialGrid(FIELD_WIDTH, FIELD_HEIGHT, cellSize, capacity),
+            new SpatialGrid(FIELD_WIDTH, FIELD_HEIGHT, cellSize, capacity)
+        };
+        this.aliveCount = new int[2];
+        this.pool = pool;
+    }
+
+    /**
+     * Adds units with the stats of a template entity
+     * @param teamId PLAYER_TEAM or ENEMY_TEAM
+     * @param template entity whose current stats are copied
+     * @param unitLevel level recorded for the units
+     * @param units how many to add
+     * @return id of the first unit added, the rest follow consecutively
+     */
+    public int spawn(int teamId, Player template, int unitLevel, int units) {
+        if (count + units > health.length) {
+            throw new IllegalArgumentException("Wave capacity " + health.length + " exceeded");
+        }
+        int first = count;
+        for (int i = 0; i < units; i++) {
+            int id = count++;
+            health[id] = template.getHealth();
+            maxHealth[id] = template.getMaxHealth();
+            damage[id] = template.getDamege();
+            attackSpeed[id] = template.getAttackSpeed();
+            level[id] = unitLevel;
+            team[id] = (byte) teamId;
+            attackInterval[id] = Math.max(1, (long) (1000 / template.getAttackSpeed()));
+            nextAttack[id] = time + attackInterval[id];
+            target[id] = -1;
+            // Scatter over a strip at the team's own edge of the field, the same for a given id every run
+            long hash = mix(id);
+            float depth = (hash >>> 40) / (float) (1 << 24) * SPAWN_DEPTH;
+            x[id] = teamId == PLAYER_TEAM ? depth : FIELD_WIDTH - 1 - depth;
+            y[id] = (hash & 0xFFFFFF) / (float) (1 << 24) * FIELD_HEIGHT;
+            if (health[id] > 0) {
+                grids[teamId].insert(id, x[id], y[id]);
+                aliveCount[teamId]++;
+            }
+        }
+        return first;
+    }
+
+    // NOTE: SplitMix64 finaliser
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Adds copies of the player's slime to the army
+     */
+    public int spawnArmy(PlayerSlime player, int units) {
+        return spawn(PLAYER_TEAM, player, player.getRoundsWon() + 1, units);
+    }
+
+    /**
+     * Adds a horde of enemies of one level
+     */
+    public int spawnHorde(int enemyLevel, int units) {
+        return spawn(ENEMY_TEAM, new EnemySlime(enemyLevel), enemyLevel, units);
+    }
+
+    /**
+     * Advances the battle
+     * @param millis elapsed time, a 60 Hz tick is about 16 ms
+     */
+    public void tick(long millis) {
+        time += millis;
+        ticks++;
+        int n = count;
+        float step = MOVE_SPEED * millis / 1000f;
+        if (pool != null && n >= PARALLEL_THRESHOLD) {
+            pool.invoke(new Resolve(0, n, step));
+        } else {
+            resolve(0, n, step);
+        }
+        apply(n);
+    }
+
+    // NOTE: Only writes the attacker's own slots and only reads the grids, safe to run in parallel partitions
+    private void resolve(int from, int to, float step) {
+        long now = time;
+        int phase = (int) (ticks % RETARGET_TICKS);
+        int[] near = neighbours.get();
+        for (int id = from; id < to; id++) {
+            targetOf[id] = -1;
+            if (health[id] <= 0) {
+                continue;
+            }
+            SpatialGrid enemies = grids[1 - team[id]];
+            int chosen = target[id];
+            if (chosen < 0) {
+                chosen = enemies.nearest(x[id], y[id]);
+            } else if (health[chosen] <= 0) {
+                // Fallen targets are out of the grid but keep their last position, and nobody moves them
+                chosen = enemies.nearest(enemies.getX(chosen), enemies.getY(chosen));
+            } else if (id % RETARGET_TICKS == phase) {
+                int closer = enemies.nearest(x[id], y[id], RETARGET_RADIUS);
+                if (closer >= 0) {
+                    chosen = closer;
+                }
+            }
+            target[id] = chosen;
+            boolean blocked = separate(id, near) >= CROWD_LIMIT;
+            if (chosen < 0) {
+                continue;
+            }
+
+            float dx = enemies.getX(chosen) - x[id];
+            float dy = enemies.getY(chosen) - y[id];
+            float distance = (float) Math.sqrt(dx * dx + dy * dy);
+            if (distance > ATTACK_RANGE) {
+                // Close in, stopping at the edge of the range; the swing is ready on arrival but does not bank up
+                if (!blocked) {
+                    float move = Math.min(step, distance - ATTACK_RANGE);
+                    x[id] += dx / distance * move;
+                    y[id] += dy / distance * move;
+                }
+                if (nextAttack[id] < now) {
+                    nextAttack[id] = now;
+                }
+                continue;
+            }
+            if (nextAttack[id] > now) {
+                continue;
+            }
+            int hits = 0;
+            long interval = attackInterval[id];
+            while (nextAttack[id] <= now) {
+                nextAttack[id] += interval;
+                hits++;
+            }
+            targetOf[id] = chosen;
+            hitCount[id] = hits;
+        }
+    }
+
+    // NOTE: Moves only this unit, by half of each overlap, the neighbour does the other half in its own resolve
+    private int separate(int id, int[] near) {
+        SpatialGrid friends = grids[team[id]];
+        float ox = friends.getX(id);
+        float oy = friends.getY(id);
+        // NOTE: The unit itself is left out by the query, so a full buffer means a full crowd
+        int found = friends.queryRadius(ox, oy, bodySpacing, id, near);
+        float pushX = 0;
+        float pushY = 0;
+        for (int i = 0; i < found; i++) {
+            int other = near[i];
+            float dx = ox - friends.getX(other);
+            float dy = oy - friends.getY(other);
+            float distance = (float) Math.sqrt(dx * dx + dy * dy);
+            if (distance == 0) {
+                // Exactly on top of each other, split sideways by id
+                pushY += (id < other ? -0.5f : 0.5f) * bodySpacing;
+                continue;
+            }
+            float overlap = (bodySpacing - distance) * 0.5f;
+            pushX += dx / distance * overlap;
+            pushY += dy / distance * overlap;
+        }
+        x[id] = Math.max(0, Math.min(FIELD_WIDTH - 1, x[id] + pushX));
+        y[id] = Math.max(0, Math.min(FIELD_HEIGHT - 1, y[id] + pushY));
+        return found;
+    }
+
+    private void apply(int n) {
+        for (int id = 0; id < n; id++) {
+            if (health[id] > 0) {
+                grids[team[id]].move(id, x[id], y[id]);
+            }
+        }
+        for (int id = 0; id < n; id++) {
+            int victim = targetOf[id];
+            if (victim < 0) {
+                continue;
+            }
+            for (int hit = 0; hit < hitCount[id] && health[victim] > 0; hit++) {
+                damage(victim, damage[id]);
+            }
+        }
+    }
+
+    /**
+     * Applies damage to a unit, clamped at zero like {@link Player#takeDamage(double)}
+     * @param id the unit
+     * @param amount damage dealt
+     */
+    public void damage(int id, double amount) {
+        if (health[id] <= 0) {
+            return;
+        }
+        health[id] = (int) Math.max(0, health[id] - amount);
+        if (health[id] == 0) {
+            kill(id);
+        }
+    }
+
+    void setHealth(int id, int value) {
+        boolean wasAlive = health[id] > 0;
+        health[id] = value;
+        if (wasAlive && value <= 0) {
+            kill(id);
+        } else if (!wasAlive && value > 0) {
+            grids[team[id]].insert(id, x[id], y[id]);
+            aliveCount[team[id]]++;
+        }
+    }
+
+    private void kill(int id) {
+        grids[team[id]].remove(id);
+        aliveCount[team[id]]--;
+    }
+
+    /**
+     *
+     * @return a Player view of one unit, reads and writes go to the arrays
+     */
+    public WaveUnit unit(int id) {
+        if (id < 0 || id >= count) {
+            throw new IndexOutOfBoundsException("No unit " + id);
+        }
+        return new WaveUnit(this, id);
+    }
+
+    public int getUnitCount() {
+        return count;
+    }
+
+    public int getAliveCount(int teamId) {
+        return aliveCount[teamId];
+    }
+
+    /**
+     *
+     * @return true once one side has no living units
+     */
+    public boolean isOver() {
+        return aliveCount[PLAYER_TEAM] == 0 || aliveCount[ENEMY_TEAM] == 0;
+    }
+
+    /**
+     *
+     * @return true if the battle is over and the army still stands
+     */
+    public boolean isPlayerWon() {
+        return isOver() && aliveCount[PLAYER_TEAM] > 0;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public boolean isAlive(int id) {
+        return health[id] > 0;
+    }
+
+    public int getTeam(int id) {
+        return team[id];
+    }
+
+    public float getX(int id) {
+        return x[id];
+    }
+
+    public float getY(int id) {
+        return y[id];
+    }
+
+    /**
+     *
+     * @return the index of one team's living units, for queries only
+     */
+    public SpatialGrid getGrid(int teamId) {
+        return grids[teamId];
+    }
+
+    void setAttackSpeed(int id, double speed) {
+        attackSpeed[id] = speed;
+        attackInterval[id] = Math.max(1, (long) (1000 / speed));
+    }
+
+    private final class Resolve extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final float step;
+
+        Resolve(int from, int to, float step) {
+            this.from = from;
+            this.to = to;
+            this.step = step;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= MIN_PARTITION) {
+                resolve(from, to, step);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Resolve(from, mid, step), new Resolve(mid, to, step));
+        }
+    }
+}